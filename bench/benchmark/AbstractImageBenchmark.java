@@ -0,0 +1,66 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import model.image.PackedImage;
+
+/**
+ * Abstract class for benchmarks run on a generated image. Every such benchmark has a megapixels
+ * parameter for the size of the image, and the image is created in setUp from the megapixels and,
+ * if the benchmark has one, the pattern parameter.
+ */
+abstract class AbstractImageBenchmark implements Benchmark {
+
+  // the sizes from a phone photo up to the largest photos we are asked to work with
+  static final String[] DEFAULT_MEGAPIXELS = {"1", "8", "50"};
+
+  private final String name;
+  private final Map<String, List<String>> defaultParams;
+  protected PackedImage image;
+
+  /**
+   * Constructor for a benchmark with only the megapixels parameter so far.
+   *
+   * @param name the name of the benchmark
+   */
+  AbstractImageBenchmark(String name) {
+    this.name = name;
+    this.defaultParams = new LinkedHashMap<>();
+    this.addParam("megapixels", DEFAULT_MEGAPIXELS);
+  }
+
+  /**
+   * Adds a parameter to this benchmark, which extending classes do in their constructor.
+   *
+   * @param param the name of the parameter
+   * @param values the values the parameter is run with by default
+   */
+  protected void addParam(String param, String... values) {
+    this.defaultParams.put(param, Collections.unmodifiableList(Arrays.asList(values)));
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public Map<String, List<String>> getDefaultParams() {
+    return Collections.unmodifiableMap(this.defaultParams);
+  }
+
+  @Override
+  public void setUp(Map<String, String> params) throws IOException, IllegalArgumentException {
+    this.image = BenchmarkImages.create(params.get("megapixels"),
+        params.getOrDefault("pattern", "noise"));
+  }
+
+  @Override
+  public void tearDown() throws IOException {
+    this.image = null;
+  }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface for one operation timed by the BenchmarkRunner. A benchmark declares the parameters it
+ * can be run with and their default values, is set up once for each combination of them, and is
+ * then run many times, with only the runs being timed.
+ */
+public interface Benchmark {
+
+  /**
+   * Gets the name the benchmark is selected by and reported under.
+   *
+   * @return the name of the benchmark
+   */
+  String getName();
+
+  /**
+   * Gets the parameters of the benchmark, in the order they are reported, each with the values it
+   * is run with unless other values are given on the command line.
+   *
+   * @return a map from the name of each parameter to its default values
+   */
+  Map<String, List<String>> getDefaultParams();
+
+  /**
+   * Prepares everything a run needs for the given parameters, such as the input image, so that
+   * none of it is timed.
+   *
+   * @param params the value of every parameter of the benchmark
+   * @throws IOException if there is an error writing the input files the benchmark reads
+   * @throws IllegalArgumentException if a parameter has a value the benchmark does not know
+   */
+  void setUp(Map<String, String> params) throws IOException, IllegalArgumentException;
+
+  /**
+   * Runs the operation being timed once.
+   *
+   * @return the result of the operation, which the runner holds on to so that the operation can
+   *     not be optimized away
+   * @throws IOException if there is an error reading or writing a file
+   */
+  Object run() throws IOException;
+
+  /**
+   * Frees everything setUp prepared, such as temporary files, once every run with its parameters
+   * is done.
+   *
+   * @throws IOException if there is an error deleting a temporary file
+   */
+  void tearDown() throws IOException;
+}
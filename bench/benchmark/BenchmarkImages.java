@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import model.programmaticimages.ColorEnum;
+import model.programmaticimages.ProgrammaticImageCreator;
+import model.programmaticimages.ProgrammaticImageCreator.ProgrammaticImageType;
+
+/**
+ * Creates the images the benchmarks are run on, so that no image files are needed. Every image is
+ * made the same way each time, so the results of different runs can be compared.
+ */
+final class BenchmarkImages {
+
+  // big enough that the checkerboard is not just a few flat colors, small enough to have edges
+  private static final int TILE_SIZE = 64;
+
+  /**
+   * This class only holds static methods.
+   */
+  private BenchmarkImages() {
+  }
+
+  /**
+   * Creates an image of about the given number of megapixels, 4 pixels wide for every 3 tall.
+   *
+   * @param megapixels the number of millions of pixels in the image, which may be a fraction
+   * @param pattern "noise" for every pixel a random color, or "checkerboard" for black and white
+   *     tiles
+   * @return the new image
+   * @throws IllegalArgumentException if the number of megapixels is not positive, or the image
+   *     would be too large to hold, or the pattern is unknown
+   */
+  static PackedImage create(String megapixels, String pattern) throws IllegalArgumentException {
+    double pixels = Double.parseDouble(megapixels) * 1000000;
+    if (!(pixels >= 1) || pixels > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid number of megapixels: " + megapixels);
+    }
+    int width = Math.max(1, (int) Math.round(Math.sqrt(pixels * 4 / 3)));
+    int height = Math.max(1, (int) Math.round(pixels / width));
+    switch (pattern) {
+      case "noise":
+        return noise(width, height);
+      case "checkerboard":
+        ImageInterface board = ProgrammaticImageCreator.create(ProgrammaticImageType.CHECKER_BOARD)
+            .createImageRepresentation(width, height, TILE_SIZE,
+                new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+        return board instanceof PackedImage ? (PackedImage) board : PackedImage.fromImage(board);
+      default:
+        throw new IllegalArgumentException("Unknown pattern: " + pattern);
+    }
+  }
+
+  /**
+   * Creates an image where every pixel is a random color, from the same seed every time.
+   *
+   * @param width the width of the image
+   * @param height the height of the image
+   * @return the new image
+   */
+  private static PackedImage noise(int width, int height) {
+    Random rand = new Random(42);
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = rand.nextInt(0x1000000);
+    }
+    return new PackedImage(width, height, pixels);
+  }
+}
@@ -0,0 +1,323 @@
+package benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import model.image.FilterEngine;
+
+/**
+ * Runs the benchmarks of the program and writes their results to a JSON file laid out the way JMH
+ * lays out its results, so the same tools can chart them over time. Every benchmark is run for
+ * every combination of its parameters: a few warmup runs that are not counted, so the JIT compiler
+ * has compiled the code being timed, and then the measured runs. Each run is timed on its own,
+ * since even the smallest images take milliseconds, and the score is the mean time of one run.
+ *
+ * <p>Command line options, all optional:
+ * <ul>
+ *   <li>a regular expression, where only benchmarks whose name it finds are run</li>
+ *   <li>-p NAME=VALUE,VALUE... to run with these values of a parameter instead of the defaults,
+ *   which can be given more than once</li>
+ *   <li>-wi COUNT for the number of warmup runs, 3 by default</li>
+ *   <li>-i COUNT for the number of measured runs, 5 by default</li>
+ *   <li>-t COUNT for the number of threads the FilterEngine uses, every processor by default</li>
+ *   <li>-rf FILE for the file the results are written to, benchmark-results.json by default</li>
+ *   <li>-l to list the benchmarks and their parameters instead of running them</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+  private final List<Benchmark> benchmarks;
+  private final Appendable out;
+  private Pattern include = Pattern.compile("");
+  private final Map<String, List<String>> paramOverrides = new LinkedHashMap<>();
+  private int warmupIterations = 3;
+  private int measurementIterations = 5;
+  private String resultFile = "benchmark-results.json";
+  private boolean listOnly = false;
+  // holds on to results so that the runs being timed can not be optimized away
+  private volatile Object sink;
+
+  /**
+   * Constructor.
+   *
+   * @param benchmarks the benchmarks that can be run
+   * @param out where progress and results are written as they happen
+   * @throws IllegalArgumentException if either parameter is null
+   */
+  public BenchmarkRunner(List<Benchmark> benchmarks, Appendable out)
+      throws IllegalArgumentException {
+    if (benchmarks == null || out == null) {
+      throw new IllegalArgumentException("Null parameter given.");
+    }
+    this.benchmarks = new ArrayList<>(benchmarks);
+    this.out = out;
+  }
+
+  /**
+   * Runs every benchmark of the program with the given command line options.
+   *
+   * @param args the command line options
+   */
+  public static void main(String[] args) {
+    BenchmarkRunner runner = new BenchmarkRunner(Arrays.asList(new FilterBenchmark(),
+        new MosaicBenchmark(), new DownscaleBenchmark(), new FileBenchmark(),
+        new CopyBenchmark()), System.out);
+    try {
+      runner.parseArgs(args);
+      runner.runAll();
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      System.exit(1);
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Reads the command line options into this runner.
+   *
+   * @param args the command line options
+   * @throws IllegalArgumentException if an option is unknown or is missing its value
+   */
+  public void parseArgs(String[] args) throws IllegalArgumentException {
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.equals("-l")) {
+        this.listOnly = true;
+      } else if (arg.startsWith("-")) {
+        if (i + 1 >= args.length) {
+          throw new IllegalArgumentException("No value given for " + arg);
+        }
+        String value = args[++i];
+        switch (arg) {
+          case "-p":
+            int equals = value.indexOf('=');
+            if (equals <= 0) {
+              throw new IllegalArgumentException("Parameters are given as NAME=VALUE,VALUE...");
+            }
+            this.paramOverrides.put(value.substring(0, equals),
+                Arrays.asList(value.substring(equals + 1).split(",")));
+            break;
+          case "-wi":
+            this.warmupIterations = parseCount(value, 0);
+            break;
+          case "-i":
+            this.measurementIterations = parseCount(value, 1);
+            break;
+          case "-t":
+            FilterEngine.setDefault(new FilterEngine(parseCount(value, 1)));
+            break;
+          case "-rf":
+            this.resultFile = value;
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option " + arg);
+        }
+      } else {
+        this.include = Pattern.compile(arg);
+      }
+    }
+  }
+
+  /**
+   * Runs every selected benchmark with every combination of its parameters and writes the results
+   * to the result file. A combination that fails, for example by running out of memory on the
+   * largest images, is reported and skipped rather than ending the whole run.
+   *
+   * @throws IOException if there is an error writing the progress or the result file
+   */
+  public void runAll() throws IOException {
+    List<String> results = new ArrayList<>();
+    for (Benchmark benchmark : this.benchmarks) {
+      if (!this.include.matcher(benchmark.getName()).find()) {
+        continue;
+      }
+      Map<String, List<String>> params = new LinkedHashMap<>(benchmark.getDefaultParams());
+      for (Map.Entry<String, List<String>> override : this.paramOverrides.entrySet()) {
+        if (params.containsKey(override.getKey())) {
+          params.put(override.getKey(), override.getValue());
+        }
+      }
+      if (this.listOnly) {
+        this.out.append(benchmark.getName()).append(' ').append(params.toString()).append('\n');
+        continue;
+      }
+      for (Map<String, String> combination : combinations(params)) {
+        String result = this.runOne(benchmark, combination);
+        if (result != null) {
+          results.add(result);
+        }
+      }
+    }
+    if (this.listOnly) {
+      return;
+    }
+    try (Writer writer = new FileWriter(this.resultFile)) {
+      writer.write("[\n" + String.join(",\n", results) + "\n]\n");
+    }
+    this.out.append(String.format("Results written to %s\n", this.resultFile));
+  }
+
+  /**
+   * Runs one benchmark with one combination of its parameters.
+   *
+   * @param benchmark the benchmark to run
+   * @param params the value of every parameter
+   * @return the result as a JSON object, or null if the benchmark failed
+   * @throws IOException if there is an error writing the progress
+   */
+  private String runOne(Benchmark benchmark, Map<String, String> params) throws IOException {
+    this.out.append(String.format("%s %s: ", benchmark.getName(), params));
+    double[] millis = new double[this.measurementIterations];
+    try {
+      benchmark.setUp(params);
+      try {
+        for (int i = 0; i < this.warmupIterations; i++) {
+          this.sink = benchmark.run();
+        }
+        for (int i = 0; i < this.measurementIterations; i++) {
+          long start = System.nanoTime();
+          this.sink = benchmark.run();
+          millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+      } finally {
+        this.sink = null;
+        benchmark.tearDown();
+      }
+    } catch (IOException | RuntimeException | OutOfMemoryError e) {
+      this.out.append(String.format("failed (%s)\n", e));
+      return null;
+    }
+    double mean = 0.0;
+    for (double time : millis) {
+      mean += time;
+    }
+    mean /= millis.length;
+    double variance = 0.0;
+    for (double time : millis) {
+      variance += (time - mean) * (time - mean);
+    }
+    double deviation = millis.length > 1 ? Math.sqrt(variance / (millis.length - 1)) : 0.0;
+    this.out.append(String.format(Locale.ROOT, "%.3f ms/op (+- %.3f)\n", mean, deviation));
+    return this.toJson(benchmark.getName(), params, mean, deviation, millis);
+  }
+
+  /**
+   * Lays out the result of one benchmark as a JSON object in the form JMH uses for a single shot
+   * benchmark, where scoreError is the standard deviation of the measured runs.
+   *
+   * @param name the name of the benchmark
+   * @param params the value of every parameter
+   * @param mean the mean time of one run in milliseconds
+   * @param deviation the standard deviation of the times
+   * @param millis the time of every measured run in milliseconds
+   * @return the JSON object
+   */
+  private String toJson(String name, Map<String, String> params, double mean, double deviation,
+      double[] millis) {
+    StringBuilder json = new StringBuilder();
+    json.append("  {\n");
+    json.append("    \"benchmark\" : ").append(quote(name)).append(",\n");
+    json.append("    \"mode\" : \"ss\",\n");
+    json.append("    \"threads\" : 1,\n");
+    json.append("    \"jvm\" : ").append(quote(System.getProperty("java.vm.name"))).append(",\n");
+    json.append("    \"jdkVersion\" : ").append(quote(System.getProperty("java.version")))
+        .append(",\n");
+    json.append("    \"filterEngineParallelism\" : ")
+        .append(FilterEngine.getDefault().getParallelism()).append(",\n");
+    json.append("    \"warmupIterations\" : ").append(this.warmupIterations).append(",\n");
+    json.append("    \"measurementIterations\" : ").append(this.measurementIterations)
+        .append(",\n");
+    json.append("    \"params\" : {");
+    List<String> fields = new ArrayList<>();
+    for (Map.Entry<String, String> param : params.entrySet()) {
+      fields.add(quote(param.getKey()) + " : " + quote(param.getValue()));
+    }
+    json.append(String.join(", ", fields)).append("},\n");
+    json.append("    \"primaryMetric\" : {\n");
+    json.append(String.format(Locale.ROOT, "      \"score\" : %.6f,\n", mean));
+    json.append(String.format(Locale.ROOT, "      \"scoreError\" : %.6f,\n", deviation));
+    json.append("      \"scoreUnit\" : \"ms/op\",\n");
+    List<String> raw = new ArrayList<>();
+    for (double time : millis) {
+      raw.add(String.format(Locale.ROOT, "%.6f", time));
+    }
+    json.append("      \"rawData\" : [[").append(String.join(", ", raw)).append("]]\n");
+    json.append("    }\n");
+    json.append("  }");
+    return json.toString();
+  }
+
+  /**
+   * Finds every combination of the values of the given parameters, varying the last parameter
+   * fastest.
+   *
+   * @param params the values of each parameter
+   * @return a list holding one map from each parameter to a value for every combination
+   */
+  private static List<Map<String, String>> combinations(Map<String, List<String>> params) {
+    List<Map<String, String>> combinations = new ArrayList<>();
+    combinations.add(new LinkedHashMap<>());
+    for (Map.Entry<String, List<String>> param : params.entrySet()) {
+      List<Map<String, String>> next = new ArrayList<>();
+      for (Map<String, String> combination : combinations) {
+        for (String value : param.getValue()) {
+          Map<String, String> extended = new LinkedHashMap<>(combination);
+          extended.put(param.getKey(), value);
+          next.add(extended);
+        }
+      }
+      combinations = next;
+    }
+    return combinations;
+  }
+
+  /**
+   * Parses a count given on the command line.
+   *
+   * @param value the count as given
+   * @param min the smallest count allowed
+   * @return the count
+   * @throws IllegalArgumentException if the value is not a whole number of at least min
+   */
+  private static int parseCount(String value, int min) throws IllegalArgumentException {
+    try {
+      int count = Integer.parseInt(value);
+      if (count >= min) {
+        return count;
+      }
+    } catch (NumberFormatException e) {
+      // reported below along with counts that are too small
+    }
+    throw new IllegalArgumentException(
+        String.format("Expected a whole number of at least %d but got %s", min, value));
+  }
+
+  /**
+   * Writes the given text as a JSON string.
+   *
+   * @param text the text
+   * @return the text in quotes, with quotes, backslashes, and control characters escaped
+   */
+  private static String quote(String text) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char c : String.valueOf(text).toCharArray()) {
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+}
@@ -0,0 +1,48 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import model.image.ImageInterface;
+
+/**
+ * Times copying a whole image, held either as a PackedImage or as the list based Image.
+ */
+class CopyBenchmark extends AbstractImageBenchmark {
+
+  private ImageInterface toCopy;
+
+  /**
+   * Constructor.
+   */
+  CopyBenchmark() {
+    super("copy");
+    this.addParam("representation", "packed", "list");
+  }
+
+  @Override
+  public void setUp(Map<String, String> params) throws IOException, IllegalArgumentException {
+    super.setUp(params);
+    switch (params.get("representation")) {
+      case "packed":
+        this.toCopy = this.image;
+        break;
+      case "list":
+        this.toCopy = this.image.toImage();
+        break;
+      default:
+        throw new IllegalArgumentException(
+            "Unknown representation: " + params.get("representation"));
+    }
+  }
+
+  @Override
+  public Object run() {
+    return this.toCopy.copy();
+  }
+
+  @Override
+  public void tearDown() throws IOException {
+    super.tearDown();
+    this.toCopy = null;
+  }
+}
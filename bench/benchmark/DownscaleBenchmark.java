@@ -0,0 +1,22 @@
+package benchmark;
+
+import model.filters.Downscale;
+
+/**
+ * Times downscaling a whole image to half its width and height.
+ */
+class DownscaleBenchmark extends AbstractImageBenchmark {
+
+  /**
+   * Constructor.
+   */
+  DownscaleBenchmark() {
+    super("downscale");
+  }
+
+  @Override
+  public Object run() {
+    return new Downscale(this.image.getImageWidth() / 2, this.image.getImageHeight() / 2)
+        .applyEffect(this.image);
+  }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import model.files.IFileType;
+import model.files.JPEG;
+import model.files.PNG;
+import model.files.PPM;
+
+/**
+ * Times importing or exporting a whole image in one of the file types the program supports. The
+ * files are written to a temporary folder which is deleted once the benchmark is done with it.
+ */
+class FileBenchmark extends AbstractImageBenchmark {
+
+  private IFileType fileType;
+  private boolean export;
+  private Path folder;
+  private String fileName;
+
+  /**
+   * Constructor.
+   */
+  FileBenchmark() {
+    super("file");
+    this.addParam("format", "ppm", "ppm-raw", "png", "jpeg");
+    this.addParam("operation", "import", "export");
+  }
+
+  @Override
+  public void setUp(Map<String, String> params) throws IOException, IllegalArgumentException {
+    String extension;
+    switch (params.get("format")) {
+      case "ppm":
+        this.fileType = new PPM();
+        extension = "ppm";
+        break;
+      case "ppm-raw":
+        this.fileType = new PPM(PPM.Format.RAW_RGB);
+        extension = "ppm";
+        break;
+      case "png":
+        this.fileType = new PNG();
+        extension = "png";
+        break;
+      case "jpeg":
+        this.fileType = new JPEG();
+        extension = "jpg";
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown format: " + params.get("format"));
+    }
+    switch (params.get("operation")) {
+      case "import":
+        this.export = false;
+        break;
+      case "export":
+        this.export = true;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation: " + params.get("operation"));
+    }
+    super.setUp(params);
+    this.folder = Files.createTempDirectory("image-benchmark");
+    this.fileName = this.folder.resolve("image." + extension).toString();
+    // an import needs a file to read, written the same way an export would write it
+    this.fileType.exportFile(this.fileName, this.image);
+  }
+
+  @Override
+  public Object run() throws IOException {
+    if (this.export) {
+      this.fileType.exportFile(this.fileName, this.image);
+      return new File(this.fileName).length();
+    }
+    return this.fileType.importFile(this.fileName);
+  }
+
+  @Override
+  public void tearDown() throws IOException {
+    super.tearDown();
+    if (this.folder != null) {
+      Files.deleteIfExists(this.folder.resolve(new File(this.fileName).getName()));
+      Files.deleteIfExists(this.folder);
+      this.folder = null;
+    }
+  }
+}
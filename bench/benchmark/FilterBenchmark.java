@@ -0,0 +1,53 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import model.filters.Blur;
+import model.filters.IFilter;
+import model.filters.Monochrome;
+import model.filters.Sepia;
+import model.filters.Sharpen;
+
+/**
+ * Times applying one of the filters the controller offers to a whole image, the way the model
+ * does, through the default FilterEngine.
+ */
+class FilterBenchmark extends AbstractImageBenchmark {
+
+  private IFilter filter;
+
+  /**
+   * Constructor.
+   */
+  FilterBenchmark() {
+    super("filter");
+    this.addParam("pattern", "noise", "checkerboard");
+    this.addParam("filter", "blur", "sharpen", "sepia", "monochrome");
+  }
+
+  @Override
+  public void setUp(Map<String, String> params) throws IOException, IllegalArgumentException {
+    switch (params.get("filter")) {
+      case "blur":
+        this.filter = new Blur();
+        break;
+      case "sharpen":
+        this.filter = new Sharpen();
+        break;
+      case "sepia":
+        this.filter = new Sepia();
+        break;
+      case "monochrome":
+        this.filter = new Monochrome();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown filter: " + params.get("filter"));
+    }
+    super.setUp(params);
+  }
+
+  @Override
+  public Object run() {
+    return this.image.filter(this.filter);
+  }
+}
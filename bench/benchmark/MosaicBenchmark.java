@@ -0,0 +1,40 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import model.filters.IMosaic;
+import model.filters.Mosaic;
+
+/**
+ * Times a mosaic of a whole image, including placing the seeds, which is what the mosaic command
+ * does. The seeds are placed from the same random numbers every run.
+ */
+class MosaicBenchmark extends AbstractImageBenchmark {
+
+  private int seeds;
+
+  /**
+   * Constructor.
+   */
+  MosaicBenchmark() {
+    super("mosaic");
+    this.addParam("seeds", "1000", "15000", "100000");
+  }
+
+  @Override
+  public void setUp(Map<String, String> params) throws IOException, IllegalArgumentException {
+    this.seeds = Integer.parseInt(params.get("seeds"));
+    if (this.seeds < 1) {
+      throw new IllegalArgumentException("The number of seeds must be positive.");
+    }
+    super.setUp(params);
+  }
+
+  @Override
+  public Object run() {
+    IMosaic mosaic = new Mosaic();
+    mosaic.initializeSeeds(this.seeds, this.image, new Random(1), new Random(2));
+    return this.image.filter(mosaic);
+  }
+}
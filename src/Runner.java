@@ -1,11 +1,20 @@
+import controller.BatchProcessor;
 import controller.FilterController;
 import controller.GUIController;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import model.FilterModel;
 import model.IComplexEffectModel;
+import model.LayerCache;
+import model.files.PPM;
+import model.image.ImageInterface;
 
 /**
  * This class contains the main method and executes the program.
@@ -13,15 +22,47 @@ import model.IComplexEffectModel;
 public class Runner {
 
   /**
-   * Main method used to run the application manually.
+   * Main method used to run the application manually. The mode may be preceded by
+   * -cache MEGABYTES to keep the images of the layers within that much memory, moving the least
+   * recently used ones to a temporary file when they take up more, and by -ppm-format binary to
+   * export files with the ppm extension as binary P6 files rather than plain P3 files.
    *
    * @param args the input from the user
    */
   public static void main(String[] args) {
 
+    while (args.length >= 2) {
+      if (args[0].equals("-cache")) {
+        try {
+          long megabytes = Long.parseLong(args[1]);
+          if (megabytes > Long.MAX_VALUE >> 20) {
+            throw new IllegalArgumentException("Too many megabytes.");
+          }
+          LayerCache.setDefault(new LayerCache(megabytes << 20));
+        } catch (IllegalArgumentException e) {
+          System.out.print("The cache size must be a whole number of megabytes no larger than "
+              + (Long.MAX_VALUE >> 20) + ".");
+          System.exit(1);
+        }
+      } else if (args[0].equals("-ppm-format")) {
+        try {
+          PPM.setDefaultFormat(PPM.Format.fromName(args[1]));
+        } catch (IllegalArgumentException e) {
+          System.out.print(e.getMessage());
+          System.exit(1);
+        }
+      } else {
+        break;
+      }
+      args = Arrays.copyOfRange(args, 2, args.length);
+    }
+    if (args.length == 0) {
+      System.out.print("Invalid command given.");
+      System.exit(0);
+    }
     String command = args[0];
 
-    IComplexEffectModel model = new FilterModel(new ArrayList<>());
+    IComplexEffectModel<ImageInterface> model = new FilterModel(new ArrayList<>());
     if (args[0].equals("-script")) {
       try {
         new FilterController(model, new FileReader(args[1]), System.out).runProgram();
@@ -37,6 +78,8 @@ public class Runner {
       }
     } else if (command.equals("-interactive")) {
       GUIController gui = new GUIController(model);
+    } else if (command.equals("-batch")) {
+      runBatch(args);
     } else {
       System.out.print("Invalid command given.");
       System.exit(0);
@@ -44,5 +87,35 @@ public class Runner {
 
 
   }
+
+  /**
+   * Runs the script given after -batch on every image in the input folder, writing the results to
+   * the output folder and a line for each image as it is done. The arguments are
+   * -batch INPUT-FOLDER OUTPUT-FOLDER SCRIPT-FILE, optionally followed by the number of images to
+   * process at the same time, which is the number of processors by default. The program exits
+   * with status 1 if any image failed.
+   *
+   * @param args the input from the user
+   */
+  private static void runBatch(String[] args) {
+    if (args.length < 4 || args.length > 5) {
+      System.out.print("Usage: -batch INPUT-FOLDER OUTPUT-FOLDER SCRIPT-FILE [WORKERS]");
+      System.exit(1);
+    }
+    try {
+      int workers = Runtime.getRuntime().availableProcessors();
+      if (args.length == 5) {
+        workers = Integer.parseInt(args[4]);
+      }
+      String script = new String(Files.readAllBytes(Paths.get(args[3])), StandardCharsets.UTF_8);
+      int failed = new BatchProcessor(script, workers, System.out).processFolder(args[1], args[2]);
+      System.exit(failed == 0 ? 0 : 1);
+    } catch (NumberFormatException e) {
+      System.out.print("The number of workers was not an integer.");
+    } catch (IllegalArgumentException | IOException e) {
+      System.out.print(e.getMessage());
+    }
+    System.exit(1);
+  }
 }
 
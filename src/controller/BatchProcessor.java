@@ -0,0 +1,195 @@
+package controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.FilterModel;
+import model.files.FileTypeCreator;
+import model.files.IFileType;
+
+/**
+ * Runs the same script on every image in a folder without any user interaction, writing each
+ * result to an output folder under the same name and in the same file type. Images are processed
+ * on a fixed number of worker threads, each image with a FilterModel and FilterController of its
+ * own, so nothing is shared between images. Only a few images per worker are handed out ahead of
+ * time, so a folder of tens of thousands of images is never all waiting in memory at once, and a
+ * line is written for each image as soon as it is done.
+ */
+public class BatchProcessor {
+
+  private final String script;
+  private final int workers;
+  private final Appendable out;
+
+  /**
+   * Constructor.
+   *
+   * @param script the commands run on each image, in the same form as a script file, after the
+   *     image has been loaded into the only layer
+   * @param workers the number of images processed at the same time
+   * @param out where a line is written as each image is done
+   * @throws IllegalArgumentException if the script or out is null, or workers is less than 1
+   */
+  public BatchProcessor(String script, int workers, Appendable out)
+      throws IllegalArgumentException {
+    if (script == null || out == null) {
+      throw new IllegalArgumentException("Null parameter given.");
+    }
+    if (workers < 1) {
+      throw new IllegalArgumentException("There must be at least one worker.");
+    }
+    this.script = script;
+    this.workers = workers;
+    this.out = out;
+  }
+
+  /**
+   * Runs the script on every image in the input folder, in order of file name, and writes the
+   * results to the output folder, creating it if needed. Files that are not of a supported file
+   * type are skipped. An image that can not be read, processed, or written, including an image
+   * for which a command of the script could not be carried out, is reported and does not stop
+   * the others, and nothing is written for it.
+   *
+   * @param inputFolder the folder holding the images
+   * @param outputFolder the folder the processed images are written to
+   * @return the number of images that failed
+   * @throws IllegalArgumentException if either folder is null or the input folder does not exist
+   * @throws IOException if the output folder can not be created, a line can not be written, or
+   *     the batch is interrupted
+   */
+  public int processFolder(String inputFolder, String outputFolder)
+      throws IllegalArgumentException, IOException {
+    if (inputFolder == null || outputFolder == null) {
+      throw new IllegalArgumentException("Null folder given.");
+    }
+    File input = new File(inputFolder);
+    File[] images = input.listFiles(file -> file.isFile() && fileTypeOf(file) != null);
+    if (images == null) {
+      throw new IllegalArgumentException("The input folder does not exist.");
+    }
+    Arrays.sort(images);
+    File output = new File(outputFolder);
+    if (!output.isDirectory() && !output.mkdirs()) {
+      throw new IOException("The output folder could not be created.");
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(this.workers);
+    CompletionService<Outcome> done = new ExecutorCompletionService<>(pool);
+    int submitted = 0;
+    int failed = 0;
+    try {
+      for (int finished = 0; finished < images.length; finished++) {
+        // keeps each worker busy without queueing up the whole folder
+        while (submitted < images.length && submitted - finished < 2 * this.workers) {
+          File image = images[submitted++];
+          done.submit(() -> this.processImage(image, output));
+        }
+        Outcome outcome = this.await(done.take());
+        if (outcome.failed) {
+          failed++;
+        }
+        this.out.append(outcome.message).append('\n');
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("The batch was interrupted.");
+    } finally {
+      pool.shutdownNow();
+    }
+    this.out.append(String.format("Processed %d images, %d failed.\n", images.length, failed));
+    return failed;
+  }
+
+  /**
+   * Loads one image, runs the script on it, and writes the result.
+   *
+   * @param image the file of the image
+   * @param output the folder the result is written to
+   * @return whether the image succeeded, along with the line to write about it
+   */
+  private Outcome processImage(File image, File output) {
+    long start = System.nanoTime();
+    try {
+      IFileType fileType = fileTypeOf(image);
+      FilterModel model = new FilterModel(new ArrayList<>());
+      model.addLayer();
+      model.setImage(new ControllerUtil().importFile(fileType, image.getPath()));
+      FilterController controller = new FilterController(model, new StringReader(this.script),
+          new StringBuilder(), false);
+      controller.runProgram();
+      // a command that could not be carried out would leave the image only partly processed, so
+      // nothing is written for it
+      if (!controller.getErrors().isEmpty()) {
+        return new Outcome(true, String.format("Failed %s: %s", image.getName(),
+            String.join("; ", controller.getErrors())));
+      }
+      File result = new File(output, image.getName());
+      fileType.exportFile(result.getPath(), model.getCurrentImage());
+      return new Outcome(false, String.format("Done %s -> %s (%d ms)", image.getName(),
+          result.getPath(), (System.nanoTime() - start) / 1000000));
+    } catch (IOException | RuntimeException e) {
+      return new Outcome(true, String.format("Failed %s: %s", image.getName(), e));
+    }
+  }
+
+  /**
+   * Waits for the outcome of an image, turning anything the task threw that processImage did not
+   * catch into a failed outcome.
+   *
+   * @param future the finished task
+   * @return the outcome of the image
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  private Outcome await(Future<Outcome> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      return new Outcome(true, String.format("Failed: %s", e.getCause()));
+    }
+  }
+
+  /**
+   * Finds the file type of a file from its extension.
+   *
+   * @param file the file
+   * @return the file type, or null if the extension is missing or not supported
+   */
+  private static IFileType fileTypeOf(File file) {
+    String name = file.getName();
+    int periodInd = name.lastIndexOf(".");
+    if (periodInd < 0) {
+      return null;
+    }
+    try {
+      return FileTypeCreator.createBasedOnString(name.substring(periodInd + 1));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Whether an image succeeded, along with the line written about it.
+   */
+  private static class Outcome {
+    private final boolean failed;
+    private final String message;
+
+    /**
+     * Constructor.
+     *
+     * @param failed true if the image failed
+     * @param message the line written about the image
+     */
+    Outcome(boolean failed, String message) {
+      this.failed = failed;
+      this.message = message;
+    }
+  }
+}
@@ -1,24 +1,32 @@
 package controller;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import model.IImageSource;
 import model.ILayer;
 import model.Layer;
+import model.ParallelTasks;
 import model.files.FileTypeCreator;
 import model.files.IFileType;
+import model.files.ProjectFile;
 import model.image.Image;
 import model.image.ImageInterface;
 
 /**
  * The class is used a utility class to de-clutter and distribute what we consider controller design
  * universal methods so we do not want to write them in a particular implementation
- * of controller interface.
+ * of controller interface. Exporting and importing all of the layers encodes or decodes every
+ * layer's file at the same time, on the pool of threads ParallelTasks shares across the program.
  */
 public class ControllerUtil {
 
@@ -64,7 +72,9 @@ public class ControllerUtil {
    *
    * @param folderName the name of the exporting folder location
    * @param files the list of layers to be exported
-   * @throws IllegalArgumentException if at least one params is null
+   * @throws IllegalArgumentException if at least one params is null, or if a layer can not be
+   *     exported, in which case the layers still being exported are cancelled
+   * @throws IllegalStateException if there is an error writing one of the files
    */
   public void exportAll(String folderName, List<ILayer> files) {
     if (folderName == null || files == null) {
@@ -72,6 +82,7 @@ public class ControllerUtil {
     }
     int counter = 1;
     StringBuilder textFileContents = new StringBuilder();
+    List<Callable<Void>> exports = new ArrayList<>();
     for (ILayer l : files) {
       textFileContents.append("Layer " + counter + " File: "
           + files.get(counter - 1).getFileName() + " Visibility: " + l.getVisibility() + "\n");
@@ -80,12 +91,23 @@ public class ControllerUtil {
       IFileType exportFileType =
           FileTypeCreator.createBasedOnString(exportFile.substring(
           periodInd + 1));
-      this.exportFile(exportFileType, folderName + "/" + exportFile, l.getImage());
+      int layerNumber = counter;
+      exports.add(() -> {
+        // a layer whose image is not loaded is read here, at the same time as the others
+        ImageInterface img = l.getImage();
+        if (img == null) {
+          throw new IllegalArgumentException("Layer " + layerNumber + " has no image to export.");
+        }
+        exportFileType.exportFile(folderName + "/" + exportFile, img);
+        return null;
+      });
       counter++;
     }
     try {
-      new FileOutputStream(folderName + "/" + "locations.txt").write(
-          textFileContents.toString().getBytes());
+      runAll(exports);
+      try (FileOutputStream locations = new FileOutputStream(folderName + "/locations.txt")) {
+        locations.write(textFileContents.toString().getBytes());
+      }
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("The file name was invalid.");
     } catch (IOException e) {
@@ -95,12 +117,15 @@ public class ControllerUtil {
 
   /**
    * Allows us to import multiple files at once by calling on a folder and then reading from
-   * a locations.txt file so we know which layer the files go to respectively.
+   * a locations.txt file so we know which layer the files go to respectively. The files of
+   * invisible layers are not read until their images are asked for.
    *
    * @param folderName the folder location of the import
    * @return a list of layers that mirror the layers in the import folder with the correct
    *     ordering from the locations.txt file
    * @throws IllegalArgumentException if the folder name is null or the file is not found
+   * @throws IOException if one of the files can not be read, in which case the files still being
+   *     read are cancelled
    */
   public List<ILayer> importAll(String folderName) throws IllegalArgumentException, IOException {
     if (folderName == null) {
@@ -113,13 +138,20 @@ public class ControllerUtil {
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("File " + folderName + " not found!");
     }
+    // the whole file is read first so that every layer's file can then be decoded at once
+    List<String> fileNames = new ArrayList<>();
+    List<Boolean> visibilities = new ArrayList<>();
+    List<IImageSource> sources = new ArrayList<>();
+    List<Callable<ImageInterface>> imports = new ArrayList<>();
     //read the file line by line, and populate a string. This will throw away any comment lines
     while (sc.hasNextLine()) {
       String in = sc.nextLine().toLowerCase();
       Scanner lineScan = new Scanner(in);
       String nextInLine = "";
       String file = "";
-      ImageInterface img = new Image(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+      Callable<ImageInterface> img = () -> new Image(new ArrayList<>(), new ArrayList<>(),
+          new ArrayList<>());
+      IImageSource source = null;
       boolean visible = false;
       while (lineScan.hasNext()) {
         nextInLine = lineScan.next().toLowerCase();
@@ -128,7 +160,13 @@ public class ControllerUtil {
           file = lineScan.next();
           int indexAfterDot = file.lastIndexOf(".") + 1;
           IFileType fileType = FileTypeCreator.createBasedOnString(file.substring(indexAfterDot));
-          img = this.importFile(fileType, folderName + "/" + file);
+          String path = folderName + "/" + file;
+          IImageSource fileSource = () -> this.importFile(fileType, path);
+          img = fileSource::read;
+          source = fileSource;
+          if (!new File(path).isFile()) {
+            throw new FileNotFoundException("File " + path + " not found!");
+          }
         }
         if (nextInLine.equals("visibility:")) {
           String visibility = lineScan.next();
@@ -136,9 +174,81 @@ public class ControllerUtil {
 
         }
       }
-      Layer lastLayerAdded = new Layer(img, file, visible);
+      fileNames.add(file);
+      visibilities.add(visible);
+      if (visible || source == null) {
+        sources.add(null);
+        imports.add(img);
+      } else {
+        sources.add(source);
+      }
+    }
+    sc.close();
+    Iterator<ImageInterface> images = runAll(imports).iterator();
+    for (int i = 0; i < fileNames.size(); i++) {
+      Layer lastLayerAdded = sources.get(i) == null
+          ? new Layer(images.next(), fileNames.get(i), visibilities.get(i))
+          : new Layer(sources.get(i), fileNames.get(i), visibilities.get(i));
       layerList.add(lastLayerAdded);
     }
     return layerList;
   }
+
+  /**
+   * Saves every layer to a single project file, which can be opened again much more quickly than
+   * a folder of images, since nothing has to be decoded. The planes of each layer are compressed
+   * whenever that makes them smaller.
+   *
+   * @param fileName the name of the project file
+   * @param layers the layers to be saved
+   * @throws IllegalArgumentException if at least one param is null
+   * @throws IOException if the project file can not be written
+   */
+  public void exportProject(String fileName, List<ILayer> layers)
+      throws IllegalArgumentException, IOException {
+    ProjectFile.write(fileName, layers, true);
+  }
+
+  /**
+   * Opens every layer of a project file saved by exportProject. The images of invisible layers are
+   * not read until they are asked for.
+   *
+   * @param fileName the name of the project file
+   * @return the layers in the project, in the order they were saved in
+   * @throws IllegalArgumentException if the file name is null, the file is not found, or the file
+   *     is not a valid project file
+   * @throws IOException if the project file can not be read
+   */
+  public List<ILayer> importProject(String fileName)
+      throws IllegalArgumentException, IOException {
+    return ProjectFile.open(fileName).readLayers();
+  }
+
+  /**
+   * Runs every task through ParallelTasks, passing on what the first task to fail threw as an
+   * unchecked exception or an IOException.
+   *
+   * @param tasks the tasks to run
+   * @param <T> the type of the result of each task
+   * @return the result of each task, in the order of the tasks
+   * @throws IOException if a task failed with an IOException, or the thread was interrupted
+   */
+  private static <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+    try {
+      return ParallelTasks.runAll(tasks);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading or writing the files.");
+    }
+  }
 }
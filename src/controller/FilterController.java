@@ -13,12 +13,17 @@ import model.IFilterModel;
 import model.ILayer;
 import model.files.FileTypeCreator;
 import model.files.IFileType;
+import model.files.PPM;
 import model.filters.Blur;
-import model.filters.Downscale;
+import model.filters.FilterPipeline;
+import model.filters.Gaussian;
 import model.filters.IEffect;
+import model.filters.IFilter;
 import model.filters.IMosaic;
 import model.filters.Monochrome;
 import model.filters.Mosaic;
+import model.filters.Resample;
+import model.filters.ResampleFilter;
 import model.filters.Sepia;
 import model.filters.Sharpen;
 import model.image.Image;
@@ -35,9 +40,12 @@ import view.SimpleFilterView;
  */
 public class FilterController implements IFilterController<ImageInterface> {
 
-  private IComplexEffectModel model;
+  private IComplexEffectModel<ImageInterface> model;
   private IFilterView view;
   private Scanner scan;
+  private boolean echoCommands;
+  // the messages about commands that could not be carried out, in the order they were shown
+  private final List<String> errors = new ArrayList<>();
 
   /**
    * Constructor.
@@ -46,10 +54,25 @@ public class FilterController implements IFilterController<ImageInterface> {
    * @param rd the readable which will be used to define the scanner field
    * @param ap the appendable field which will be used to define the view field
    */
-  public FilterController(IComplexEffectModel model, Readable rd, Appendable ap) {
+  public FilterController(IComplexEffectModel<ImageInterface> model, Readable rd, Appendable ap) {
+    this(model, rd, ap, true);
+  }
+
+  /**
+   * Constructor that can turn off printing each command to the console as it is read, which batch
+   * processing does so that the same script run on many images does not flood the console.
+   *
+   * @param model the model in the controller
+   * @param rd the readable which will be used to define the scanner field
+   * @param ap the appendable field which will be used to define the view field
+   * @param echoCommands true to print each command to the console as it is read
+   */
+  public FilterController(IComplexEffectModel<ImageInterface> model, Readable rd,
+      Appendable ap, boolean echoCommands) {
     this.model = model;
     this.scan = new Scanner(rd);
     this.view = new SimpleFilterView(ap);
+    this.echoCommands = echoCommands;
   }
 
   @Override
@@ -77,9 +100,27 @@ public class FilterController implements IFilterController<ImageInterface> {
     catch (IOException e) {
       e.printStackTrace();
     }
+    // filter commands in a row are held back and applied together, in as few passes as possible,
+    // once the next command that is not a filter comes along
+    List<IFilter> pendingFilters = new ArrayList<>();
     while (this.scan.hasNext()) {
       String in = this.scan.next();
-      System.out.println(in);
+      if (this.echoCommands) {
+        System.out.println(in);
+      }
+      IFilter simpleFilter = simpleFilterFor(in);
+      if (simpleFilter != null) {
+        pendingFilters.add(simpleFilter);
+        continue;
+      }
+      if (in.equalsIgnoreCase("gaussian")) {
+        IFilter gaussian = this.gaussianHelper();
+        if (gaussian != null) {
+          pendingFilters.add(gaussian);
+        }
+        continue;
+      }
+      this.applyFilters(pendingFilters);
       try {
         // purpose of switch: create the appropriate command object based on the given user input
         switch (in.toLowerCase()) {
@@ -89,18 +130,6 @@ public class FilterController implements IFilterController<ImageInterface> {
           case "Q":
             this.view.renderMessage("The program was quit.");
             return;
-          case "blur":
-            this.model.applyFilter(new Blur());
-            break;
-          case "sepia":
-            this.model.applyFilter(new Sepia());
-            break;
-          case "sharpen":
-            this.model.applyFilter(new Sharpen());
-            break;
-          case "monochrome":
-            this.model.applyFilter(new Monochrome());
-            break;
           case "mosaic":
             int seeds = this.currentHelper(0);
             IMosaic mosaic = new Mosaic();
@@ -108,10 +137,17 @@ public class FilterController implements IFilterController<ImageInterface> {
             this.model.applyFilter(mosaic);
             break;
           case "downscale":
-            int newWidth = this.currentHelper(0);
-            int newHeight = this.currentHelper(0);
-            IEffect downscale = new Downscale(newWidth, newHeight);
-            this.model.applyComplexEffect(downscale);
+            // shrinking averages every pixel each new pixel covers, so nothing is skipped
+            IEffect downscale = this.resizeHelper(ResampleFilter.BOX);
+            if (downscale != null) {
+              this.model.applyComplexEffect(downscale);
+            }
+            break;
+          case "resize":
+            IEffect resize = this.resizeHelper(null);
+            if (resize != null) {
+              this.model.applyComplexEffect(resize);
+            }
             break;
           case "create":
             this.model.addLayer();
@@ -136,7 +172,7 @@ public class FilterController implements IFilterController<ImageInterface> {
             try {
               imgToBeSet = new ControllerUtil().importFile(importFileType, importFile);
             } catch (FileNotFoundException ex) {
-              this.view.renderMessage(String.format("File could not be found.", in));
+              this.renderError(String.format("File could not be found.", in));
             }
             this.model.setImage(imgToBeSet);
             break;
@@ -150,7 +186,7 @@ public class FilterController implements IFilterController<ImageInterface> {
               new ControllerUtil().exportFile(exportFileType, exportFileName,
                   this.model.getCurrentTopmostVisible().getImage());
             } catch (IllegalArgumentException ex) {
-              this.view.renderMessage(String.format("File could not be saved.", in));
+              this.renderError(String.format("File could not be saved.", in));
             }
             break;
           case "export-all":
@@ -159,7 +195,7 @@ public class FilterController implements IFilterController<ImageInterface> {
               folderNameExport = this.scan.next();
             }
             else {
-              this.view.renderMessage("There was no next.");
+              this.renderError("There was no next.");
             }
             new ControllerUtil().exportAll(folderNameExport, this.model.getLayers());
             break;
@@ -169,10 +205,39 @@ public class FilterController implements IFilterController<ImageInterface> {
               folderNameImport = this.scan.next();
             }
             else {
-              this.view.renderMessage("There was no next.");
+              this.renderError("There was no next.");
             }
             List<ILayer> layers = new ControllerUtil().importAll(folderNameImport);
-            this.model = new FilterModel(layers);
+            this.model = new FilterModel(layers, this.model.getLayerCache());
+            break;
+          case "save-project":
+            if (!this.scan.hasNext()) {
+              this.renderError("There was no next.");
+              break;
+            }
+            new ControllerUtil().exportProject(this.scan.next(), this.model.getLayers());
+            break;
+          case "open-project":
+            if (!this.scan.hasNext()) {
+              this.renderError("There was no next.");
+              break;
+            }
+            this.model = new FilterModel(new ControllerUtil().importProject(this.scan.next()),
+                this.model.getLayerCache());
+            break;
+          case "ppm-format":
+            if (!this.scan.hasNext()) {
+              this.renderError("There was no next.");
+              break;
+            }
+            try {
+              PPM.setDefaultFormat(PPM.Format.fromName(this.scan.next()));
+            } catch (IllegalArgumentException ex) {
+              this.renderError(ex.getMessage());
+            }
+            break;
+          case "cache-stats":
+            this.view.renderMessage("Layer cache: " + this.model.getLayerCache());
             break;
           case "invisible":
             current = this.currentHelper(1);
@@ -201,13 +266,120 @@ public class FilterController implements IFilterController<ImageInterface> {
                 new ArrayList<ColorEnum>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
             break;
           default:
-            this.view.renderMessage(String.format("Unknown command %s", in));
+            this.renderError(String.format("Unknown command %s", in));
             break;
         }
       } catch (IOException e) {
         e.printStackTrace();
       }
     }
+    this.applyFilters(pendingFilters);
+  }
+
+  /**
+   * Gets the filter a command applies, for the commands that apply a filter with no settings.
+   *
+   * @param command the command given by the user
+   * @return the filter the command applies, or null if it is not one of those commands
+   */
+  private static IFilter simpleFilterFor(String command) {
+    switch (command.toLowerCase()) {
+      case "blur":
+        return new Blur();
+      case "sepia":
+        return new Sepia();
+      case "sharpen":
+        return new Sharpen();
+      case "monochrome":
+        return new Monochrome();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Reads the radius given after a gaussian command and creates the Gaussian blur of that radius.
+   *
+   * @return the Gaussian blur, or null if the radius was not a positive integer
+   */
+  private IFilter gaussianHelper() {
+    try {
+      int radius = this.currentHelper(0);
+      if (radius >= 1) {
+        return new Gaussian(radius);
+      }
+      this.renderError("The radius of a gaussian blur must be a positive integer");
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  /**
+   * Reads the width and height given after a downscale or resize command, followed by the name of
+   * the filter for a resize command, and creates the Resample that resizes every layer to them.
+   *
+   * @param filter the filter to resize with, or null to read its name after the height
+   * @return the Resample, or null if the sizes were not positive integers or the filter does not
+   *     exist
+   */
+  private IEffect resizeHelper(ResampleFilter filter) {
+    try {
+      int newWidth = this.currentHelper(0);
+      int newHeight = this.currentHelper(0);
+      String message = "The new width and height must be positive integers";
+      try {
+        if (filter == null) {
+          filter = ResampleFilter.fromName(this.scan.next());
+        }
+        if (newWidth >= 1 && newHeight >= 1) {
+          return new Resample(newWidth, newHeight, filter);
+        }
+      } catch (IllegalArgumentException e) {
+        message = e.getMessage();
+      }
+      this.renderError(message);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  /**
+   * Applies the given filters to the current image and then empties the list. A single filter is
+   * applied on its own, while several are applied together as one FilterPipeline.
+   *
+   * @param filters the filters waiting to be applied, in the order they were given
+   */
+  private void applyFilters(List<IFilter> filters) {
+    if (filters.size() == 1) {
+      this.model.applyFilter(filters.get(0));
+    } else if (filters.size() > 1) {
+      this.model.applyComplexEffect(new FilterPipeline(filters));
+    }
+    filters.clear();
+  }
+
+  /**
+   * Gets the messages shown about commands that could not be carried out, such as unknown
+   * commands or numbers that were not valid, so that a script run without anyone reading the
+   * output can tell whether it did everything it was meant to.
+   *
+   * @return the error messages, in the order they were shown
+   */
+  public List<String> getErrors() {
+    return new ArrayList<>(this.errors);
+  }
+
+  /**
+   * Shows a message about a command that could not be carried out, and remembers it.
+   *
+   * @param message the message
+   * @throws IOException if the message can not be shown
+   */
+  private void renderError(String message) throws IOException {
+    this.errors.add(message);
+    this.view.renderMessage(message);
   }
 
   /**
@@ -227,7 +399,7 @@ public class FilterController implements IFilterController<ImageInterface> {
       return Integer.parseInt(next) - adjuster;
       // the number of the layer is now in 0 indexing
     } catch (NumberFormatException e) {
-      this.view.renderMessage("The number passed as the current was not an integer");
+      this.renderError("The number passed as the current was not an integer");
     }
     return -1;
   }
@@ -1,5 +1,6 @@
 package controller;
 
+import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
@@ -10,19 +11,28 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import model.ILayer;
 import model.files.FileTypeCreator;
+import model.files.ProjectFile;
 import model.filters.Blur;
-import model.filters.Downscale;
+import model.filters.Gaussian;
 import model.IComplexEffectModel;
-import model.filters.IEffect;
 import model.filters.IFilter;
 import model.filters.IMosaic;
+import model.filters.IResizeEffect;
 import model.filters.Monochrome;
 import model.filters.Mosaic;
+import model.filters.Resample;
+import model.filters.ResampleFilter;
 import model.filters.Sepia;
 import model.filters.Sharpen;
 import model.image.ImageInterface;
@@ -33,11 +43,25 @@ import view.GUIView;
 /**
  * The controller for the GUI which primarily acts as the action listener for our purposes of this
  * specific class implementation. From the action listener we use command line design to the carry
- * out the calls to the model and view as needed.
+ * out the calls to the model and view as needed. Operations that can take a long time, such as
+ * filtering, downscaling, importing, and exporting, are carried out on a background thread so the
+ * GUI stays responsive. Their results are only put into the model, all at once on the event
+ * dispatch thread, when they finish without being cancelled.
  */
 public class GUIController implements ActionListener, IFilterController {
   private GUIView view;
   private IComplexEffectModel<ImageInterface> model;
+  private final ExecutorService worker;
+  // the operation running in the background, or null if there is none
+  private Future<?> currentJob;
+  // counts the operations started or cancelled, so a cancelled operation's result is thrown away
+  private int jobNumber;
+  // the layer whose image is being read in the background so it can be shown, or null if none is
+  private ILayer loadingLayer;
+  // whether the shown image is being fit to the window in the background, and whether the view
+  // asked for it to be fit again in the meantime
+  private boolean fitting;
+  private boolean refitWanted;
 
   /**
    * Constructor, the model is passed and we will initialize the view in the constructor,
@@ -48,8 +72,14 @@ public class GUIController implements ActionListener, IFilterController {
    */
   public GUIController(IComplexEffectModel<ImageInterface> model) {
     super();
-    this.view = new GUIView(model, this);
     this.model = model;
+    this.worker = Executors.newCachedThreadPool(job -> {
+      Thread thread = new Thread(job, "GUIController worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // the view may ask for the layer it shows to be read as soon as it is created
+    this.view = new GUIView(model, this);
   }
 
   @Override
@@ -60,6 +90,29 @@ public class GUIController implements ActionListener, IFilterController {
 
   @Override
   public void actionPerformed(ActionEvent e) {
+    if (e.getActionCommand().equals("cancel job")) {
+      this.cancelJob();
+      return;
+    }
+    // only reads an image the model already holds, so it can run alongside another operation
+    if (e.getActionCommand().equals("load shown layer")) {
+      this.loadShownLayer();
+      return;
+    }
+    // only shrinks an image the model already holds for the view, so it can run alongside too
+    if (e.getActionCommand().equals("fit shown layer")) {
+      this.fitShownLayer();
+      return;
+    }
+    // the model must not change while an operation is running on it in the background
+    if (this.currentJob != null) {
+      try {
+        this.view.renderMessage("Please wait for the current operation to finish, or cancel it.");
+      } catch (IOException e2) {
+        e2.printStackTrace();
+      }
+      return;
+    }
     switch (e.getActionCommand()) {
       case "blur the image":
         this.filterClickedNotMosaic(new Blur());
@@ -67,6 +120,12 @@ public class GUIController implements ActionListener, IFilterController {
       case "sharpen the image":
         this.filterClickedNotMosaic(new Sharpen());
         break;
+      case "gaussian the image":
+        int radius = this.receiveInt("Enter the radius of the blur", 1);
+        if (radius != -1) {
+          this.filterClickedNotMosaic(new Gaussian(radius));
+        }
+        break;
       case "sepia the image":
         this.filterClickedNotMosaic(new Sepia());
         break;
@@ -77,7 +136,10 @@ public class GUIController implements ActionListener, IFilterController {
         this.mosaicHelp();
         break;
       case "downscale the image":
-        this.downscaleHelp();
+        this.resizeHelp(ResampleFilter.BOX);
+        break;
+      case "resize the image":
+        this.resizeHelp(null);
         break;
       case "remove clicked":
         this.model.removeLayer();
@@ -133,22 +195,76 @@ public class GUIController implements ActionListener, IFilterController {
    */
   private void mosaicHelp() {
     int seeds = this.receiveInt("Enter tile number of seeds", 0);
-    IMosaic mosaic = new Mosaic();
-    mosaic.initializeSeeds(seeds, this.model.getCurrentTopmostVisible().getImage(),
-        new Random(), new Random());
     if (seeds != -1) {
-      this.model.applyFilter(mosaic);
+      ILayer seedLayer = this.model.getCurrentTopmostVisible();
+      ImageInterface img = this.model.getCurrentImage();
+      this.runInBackground("Creating a mosaic with " + seeds + " seeds...", progress -> {
+        IMosaic mosaic = new Mosaic();
+        mosaic.initializeSeeds(seeds, seedLayer.getImage(), new Random(), new Random());
+        ImageInterface filtered = img.filter(mosaic);
+        return () -> this.model.setImage(filtered);
+      });
     }
   }
 
   /**
-   * Helps perform the downscale action after being called from the action listener.
+   * Helps perform the downscale and resize actions after being called from the action listener.
+   * Downscaling averages every pixel each new pixel covers, the same as resizing with the box
+   * filter, while resizing also asks for the filter to use.
+   *
+   * @param filter the filter to resize with, or null to ask the user for it
    */
-  private void downscaleHelp() {
-    int newWidth = this.receiveInt("Enter new width", 0);
-    int newHeight = this.receiveInt("Enter new height", 0);
-    IEffect downscale = new Downscale(newWidth, newHeight);
-    this.model.applyComplexEffect(downscale);
+  private void resizeHelp(ResampleFilter filter) {
+    int newWidth = this.receiveInt("Enter new width", 1);
+    if (newWidth == -1) {
+      return;
+    }
+    int newHeight = this.receiveInt("Enter new height", 1);
+    if (newHeight == -1) {
+      return;
+    }
+    if (filter == null) {
+      try {
+        filter = ResampleFilter.fromName(this.view.inputDisplayHelper(
+            "Enter the filter: box, bilinear, bicubic, or lanczos3"));
+      } catch (IllegalArgumentException e) {
+        JOptionPane.showMessageDialog(this.view, "Invalid input", "Warning",
+            JOptionPane.WARNING_MESSAGE);
+        return;
+      }
+    }
+    this.resampleHelp(new Resample(newWidth, newHeight, filter));
+  }
+
+  /**
+   * Resamples every layer to a new size in the background. Each layer is only read once the one
+   * before it is done, starting from the smallest level of its pyramid that is still at least the
+   * new size, and each result is matched to its layer by the layer's index.
+   *
+   * @param resample the resample to apply
+   */
+  private void resampleHelp(IResizeEffect resample) {
+    List<ILayer> layers = new ArrayList<>(this.model.getLayers());
+    this.runInBackground("Resizing...", progress -> {
+      List<ImageInterface> resized = new ArrayList<>();
+      for (int i = 0; i < layers.size(); i++) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new CancellationException("The resize was cancelled.");
+        }
+        progress.accept("Resizing layer " + (i + 1) + " of " + layers.size() + "...");
+        resized.add(resample.applyEffect(layers.get(i).getImageAtLeast(resample.getNewWidth(),
+            resample.getNewHeight())));
+      }
+      return () -> {
+        List<ILayer> current = this.model.getLayers();
+        for (int i = 0; i < layers.size(); i++) {
+          if (current.size() != layers.size() || current.get(i) != layers.get(i)) {
+            throw new IllegalStateException("The layers changed while they were being resized.");
+          }
+        }
+        this.model.setLayerImages(resized);
+      };
+    });
   }
 
   /**
@@ -156,8 +272,19 @@ public class GUIController implements ActionListener, IFilterController {
    */
   private void currentHelp() {
     int pile = this.receiveIndex("Enter the index of the layer you want to make current.");
-    if (pile != -1) {
+    if (pile == -1) {
+      return;
+    }
+    ILayer layer = this.model.getLayers().get(pile - 1);
+    if (layer.isLoaded()) {
       this.model.updateImgToCurrentLayer(pile - 1);
+    } else {
+      // the layer's image is read in the background first, so making it current does not read it
+      // on the event dispatch thread
+      this.runInBackground("Reading layer " + pile + "...", progress -> {
+        layer.getImage();
+        return () -> this.model.updateImgToCurrentLayer(pile - 1);
+      });
     }
   }
 
@@ -187,6 +314,9 @@ public class GUIController implements ActionListener, IFilterController {
       filter2 = new FileNameExtensionFilter(
           "PNG", "png");
       fchooser.setFileFilter(filter2);
+      filter2 = new FileNameExtensionFilter(
+          "PGM", "pgm");
+      fchooser.setFileFilter(filter2);
       filter2 = new FileNameExtensionFilter(
           "PPM", "ppm");
       fchooser.setFileFilter(filter2);
@@ -200,16 +330,19 @@ public class GUIController implements ActionListener, IFilterController {
         name2 = f.getName();
       }
       String fileType2 = fchooser.getFileFilter().getDescription().toLowerCase();
-      this.model.save(name2);
-      try {
-        this.model.setImage(new ControllerUtil().importFile(
+      String fileName = f.getAbsolutePath();
+      String layerName = name2;
+      this.runInBackground("Loading " + name2 + "...", progress -> {
+        ImageInterface img = new ControllerUtil().importFile(
             // file type
             FileTypeCreator.createBasedOnString(fileType2),
             // name
-            f.getAbsolutePath()));
-      } catch (IOException ioException) {
-        ioException.printStackTrace();
-      }
+            fileName);
+        return () -> {
+          this.model.save(layerName);
+          this.model.setImage(img);
+        };
+      });
     }
   }
 
@@ -218,18 +351,30 @@ public class GUIController implements ActionListener, IFilterController {
    */
   private void openAllFilesHelp() {
     final JFileChooser fchooser = new JFileChooser(".");
-    fchooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+    fchooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
     int retvalue = fchooser.showOpenDialog(this.view);
     File f = null;
     if (retvalue == JFileChooser.APPROVE_OPTION) {
       f = fchooser.getSelectedFile();
     }
-    try {
-      List<ILayer> layerList = new ControllerUtil().importAll(f.getAbsolutePath());
-      this.model.setAllLayers(layerList);
-    } catch (IOException ioException) {
-      ioException.printStackTrace();
-    }
+    String folderName = f.getAbsolutePath();
+    boolean project = isProjectFile(folderName);
+    this.runInBackground("Loading all layers...", progress -> {
+      List<ILayer> layerList = project ? new ControllerUtil().importProject(folderName)
+          : new ControllerUtil().importAll(folderName);
+      return () -> this.model.setAllLayers(layerList);
+    });
+  }
+
+  /**
+   * Checks whether a file chosen to load or save all layers is a project file rather than a
+   * folder.
+   *
+   * @param fileName the name of the chosen file
+   * @return true if the file name ends in the extension of project files
+   */
+  private static boolean isProjectFile(String fileName) {
+    return fileName.toLowerCase().endsWith("." + ProjectFile.EXTENSION);
   }
 
   /**
@@ -250,6 +395,8 @@ public class GUIController implements ActionListener, IFilterController {
     fchooser2.setFileFilter(filter);
     filter = new FileNameExtensionFilter("PNG", "png");
     fchooser2.setFileFilter(filter);
+    filter = new FileNameExtensionFilter("PGM", "pgm");
+    fchooser2.setFileFilter(filter);
     filter = new FileNameExtensionFilter("PPM", "ppm");
     fchooser2.setFileFilter(filter);
     String fileName = "";
@@ -260,14 +407,19 @@ public class GUIController implements ActionListener, IFilterController {
       this.model.save(f.getName());
     }
     String fileType = fchooser2.getFileFilter().getDescription().toLowerCase();
+    String exportName = fileName + "." + fileType;
+    ILayer layer = this.model.getCurrentTopmostVisible();
 
-    new ControllerUtil().exportFile(
-        // file type
-        FileTypeCreator.createBasedOnString(fileType),
-        // name
-        fileName + "." + fileType,
-        // image
-        this.model.getCurrentTopmostVisible().getImage());
+    this.runInBackground("Saving " + exportName + "...", progress -> {
+      new ControllerUtil().exportFile(
+          // file type
+          FileTypeCreator.createBasedOnString(fileType),
+          // name
+          exportName,
+          // image, which is read here rather than on the event dispatch thread
+          layer.getImage());
+      return () -> { };
+    });
   }
 
   /**
@@ -275,7 +427,7 @@ public class GUIController implements ActionListener, IFilterController {
    */
   private void saveAllLayerHelp() {
     final JFileChooser fchooser = new JFileChooser(".");
-    fchooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+    fchooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
     int retvalue = fchooser.showOpenDialog(this.view);
     File f = null;
     String folderName = "";
@@ -284,7 +436,16 @@ public class GUIController implements ActionListener, IFilterController {
       folderName = f.getAbsolutePath();
     }
 
-    new ControllerUtil().exportAll(folderName, this.model.getLayers());
+    String exportFolder = folderName;
+    List<ILayer> layers = new ArrayList<>(this.model.getLayers());
+    this.runInBackground("Saving all layers...", progress -> {
+      if (isProjectFile(exportFolder)) {
+        new ControllerUtil().exportProject(exportFolder, layers);
+      } else {
+        new ControllerUtil().exportAll(exportFolder, layers);
+      }
+      return () -> { };
+    });
   }
 
   /**
@@ -317,9 +478,13 @@ public class GUIController implements ActionListener, IFilterController {
    */
   private void filterClickedNotMosaic(IFilter filter) {
     try {
-      this.model.applyFilter(filter);
+      ImageInterface img = this.model.getCurrentImage();
+      this.runInBackground("Applying " + filter.getClass().getSimpleName() + "...", progress -> {
+        ImageInterface filtered = img.filter(filter);
+        return () -> this.model.setImage(filtered);
+      });
     }
-    catch (NullPointerException e) {
+    catch (IllegalStateException | NullPointerException e) {
       try {
         this.view.renderMessage("There is no image to filter");
       } catch (IOException ioException) {
@@ -346,6 +511,160 @@ public class GUIController implements ActionListener, IFilterController {
     }
   }
 
+  /**
+   * Starts the given job on the background worker, showing the given message in the view until it
+   * finishes. The job returns the change it wants to make to the model, which is run on the event
+   * dispatch thread once the job finishes, unless it was cancelled or another job has started since.
+   * Any exception the job throws is shown to the user instead.
+   *
+   * @param message the message shown while the job runs
+   * @param job the work to do in the background
+   */
+  private void runInBackground(String message, BackgroundJob job) {
+    int thisJob = ++this.jobNumber;
+    this.view.showProgress(message);
+    Consumer<String> progress = update -> SwingUtilities.invokeLater(() -> {
+      if (thisJob == this.jobNumber) {
+        this.view.showProgress(update);
+      }
+    });
+    this.currentJob = this.worker.submit(() -> {
+      Runnable commit;
+      try {
+        commit = job.run(progress);
+      } catch (Exception | OutOfMemoryError e) {
+        commit = () -> this.showFailure(e);
+      }
+      Runnable result = commit;
+      SwingUtilities.invokeLater(() -> this.finishJob(thisJob, result));
+    });
+  }
+
+  /**
+   * Puts the result of a finished job into the model and redraws the view, as long as the job is
+   * still the current one.
+   *
+   * @param finishedJob the number of the job that finished
+   * @param commit the change the job makes to the model
+   */
+  private void finishJob(int finishedJob, Runnable commit) {
+    if (finishedJob != this.jobNumber) {
+      return;
+    }
+    this.currentJob = null;
+    this.view.hideProgress();
+    try {
+      commit.run();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      this.showFailure(e);
+    }
+    this.view.createContentPane();
+    this.view.revalidate();
+  }
+
+  /**
+   * Tells the user that an operation failed and why.
+   *
+   * @param failure what the operation failed with
+   */
+  private void showFailure(Throwable failure) {
+    String error = failure.getMessage() == null ? failure.toString() : failure.getMessage();
+    try {
+      this.view.renderMessage("The operation failed: " + error);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Reads the image of the layer the view shows on the background worker, when it is not in
+   * memory, and redraws the view once it is. Unlike the operations started by runInBackground,
+   * reading the image does not change the model, so it neither waits for nor cancels them.
+   */
+  private void loadShownLayer() {
+    ILayer layer = this.model.getCurrentTopmostVisible();
+    if (layer == null || layer == this.loadingLayer) {
+      return;
+    }
+    this.loadingLayer = layer;
+    this.worker.submit(() -> {
+      Runnable show;
+      try {
+        ImageInterface img = layer.getImage();
+        // the image is held until the view has drawn it, so it can not be dropped in between
+        show = () -> {
+          if (img != null) {
+            this.view.createContentPane();
+          }
+        };
+      } catch (RuntimeException | OutOfMemoryError e) {
+        show = () -> this.showFailure(e);
+      }
+      Runnable result = show;
+      SwingUtilities.invokeLater(() -> {
+        result.run();
+        this.loadingLayer = null;
+      });
+    });
+  }
+
+  /**
+   * Fits the image of the layer the view shows to the view's window on the background worker, and
+   * gives the view the result once it is done. While one fit is running, further requests, such as
+   * those made as the window is dragged to a new size, are collected into a single fit that starts
+   * once the running one is done, for the size the window has by then.
+   */
+  private void fitShownLayer() {
+    if (this.fitting) {
+      this.refitWanted = true;
+      return;
+    }
+    ILayer layer = this.model.getCurrentTopmostVisible();
+    Dimension size = this.view.getFitSize();
+    if (layer == null || size == null) {
+      return;
+    }
+    this.fitting = true;
+    this.worker.submit(() -> {
+      Runnable show;
+      try {
+        ImageInterface img = layer.getImage();
+        ImageInterface fitted = img == null ? null : GUIView.fitImage(layer, img, size);
+        show = () -> {
+          if (fitted != null) {
+            this.view.showFittedImage(img, size, fitted);
+          }
+        };
+      } catch (RuntimeException | OutOfMemoryError e) {
+        show = () -> this.showFailure(e);
+      }
+      Runnable result = show;
+      SwingUtilities.invokeLater(() -> {
+        result.run();
+        this.fitting = false;
+        if (this.refitWanted) {
+          this.refitWanted = false;
+          this.view.createContentPane();
+        }
+      });
+    });
+  }
+
+  /**
+   * Cancels the job running in the background, if there is one, so its result is never put into
+   * the model. The job's thread is interrupted as well, which stops the filters and effects it is
+   * running at their next band of rows or layer.
+   */
+  private void cancelJob() {
+    if (this.currentJob != null) {
+      this.currentJob.cancel(true);
+      this.currentJob = null;
+      this.jobNumber++;
+      this.view.hideProgress();
+      this.view.revalidate();
+    }
+  }
+
   /**
    * Returns the int that the user inputs and the bound is the lower bound inclusive that the
    * user is allowed to input and the message is what is printed.
@@ -412,4 +731,20 @@ public class GUIController implements ActionListener, IFilterController {
     }
     return ret;
   }
+
+  /**
+   * Work done on the background worker, which returns the change to make to the model once it is
+   * done rather than changing the model itself.
+   */
+  private interface BackgroundJob {
+
+    /**
+     * Does the work of the job.
+     *
+     * @param progress accepts messages describing how far along the job is
+     * @return the change to make to the model on the event dispatch thread
+     * @throws Exception if the job fails
+     */
+    Runnable run(Consumer<String> progress) throws Exception;
+  }
 }
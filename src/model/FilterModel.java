@@ -1,9 +1,15 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import model.filters.IEffect;
 import model.filters.IFilter;
+import model.filters.IResizeEffect;
 import model.image.ImageInterface;
 import model.programmaticimages.ColorEnum;
 import model.programmaticimages.ImageCreatorInterface;
@@ -14,25 +20,70 @@ import model.programmaticimages.ProgrammaticImageCreator.ProgrammaticImageType;
  * Represents the  model class that will deal with all the functionality in our program, blind to
  * when it is called and how it is used. Filter Model has an image field representing the current
  * image the user is working on, as well as a Stack field that holds the original image as well
- * as any new images that are produced as modifications to this original image.
+ * as any new images that are produced as modifications to this original image. Images are never
+ * modified once they are created, since filters and effects always return a new image, so the
+ * model shares them between the current image and its layers instead of copying them.
+ *
+ * <p>Effects applied to every layer are applied to the layers at the same time through
+ * ParallelTasks, since each layer's image is independent of the others.
+ *
+ * <p>The layers of the model keep their images within the budget of the model's LayerCache, which
+ * moves the images of the least recently used layers out of memory once they take up too much.
  */
 public class FilterModel implements IComplexEffectModel<ImageInterface> {
 
+
   private ImageInterface currentImage;
   private List<ILayer> imageHistory;
   private int currLayer;
+  private final LayerCache cache;
 
   /**
-   * Constructor.
+   * Constructor that keeps the images of the layers within the budget of the default LayerCache.
    *
    * @param imageHistory the image history of this model
    */
   public FilterModel(List<ILayer> imageHistory) {
+    this(imageHistory, LayerCache.getDefault());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param imageHistory the image history of this model
+   * @param cache the cache that keeps the images of the layers within its budget
+   * @throws IllegalArgumentException if either param is null
+   */
+  public FilterModel(List<ILayer> imageHistory, LayerCache cache) {
     if (imageHistory == null) {
       throw new IllegalArgumentException("The image history can not be null.");
     }
+    if (cache == null) {
+      throw new IllegalArgumentException("The cache can not be null.");
+    }
     this.imageHistory = imageHistory;
     this.currLayer = 0;
+    this.cache = cache;
+    this.useCache(imageHistory);
+  }
+
+  @Override
+  public LayerCache getLayerCache() {
+    return this.cache;
+  }
+
+  /**
+   * Hands the layers to the cache of this model. Layers of other implementations of ILayer than
+   * Layer are left as they are, with their images always in memory.
+   *
+   * @param layers the layers
+   */
+  private void useCache(List<ILayer> layers) {
+    for (ILayer layer : layers) {
+      if (layer instanceof Layer) {
+        ((Layer) layer).setCache(this.cache);
+      }
+    }
   }
 
   @Override
@@ -40,7 +91,7 @@ public class FilterModel implements IComplexEffectModel<ImageInterface> {
     if (filter == null) {
       throw new IllegalArgumentException("Input can not be null.");
     }
-    ImageInterface filteredImage = this.currentImage.copy().filter(filter);
+    ImageInterface filteredImage = this.currentImage.filter(filter);
     this.setImage(filteredImage);
   }
 
@@ -50,18 +101,74 @@ public class FilterModel implements IComplexEffectModel<ImageInterface> {
       throw new IllegalArgumentException("Null effect given.");
     }
     if (effect.determineApplyToAllStatus()) {
-      for (int i = 0; i < this.imageHistory.size(); i++) {
-        ImageInterface layerImage = this.imageHistory.get(i).getImage().copy();
-        ImageInterface layerImageFiltered = effect.applyEffect(layerImage);
-        this.imageHistory.get(i).setImage(layerImageFiltered);
-      }
-      this.setImage(this.imageHistory.get(this.currLayer).getImage());
+      // the layers are only changed once every one of them has been done, so an effect that fails
+      // on one layer leaves all of them as they were
+      this.setLayerImages(this.applyToEveryLayer(effect));
     } else {
-      ImageInterface filteredImage = effect.applyEffect(this.currentImage.copy());
+      ImageInterface filteredImage = effect.applyEffect(this.currentImage);
       this.setImage(filteredImage);
     }
   }
 
+  @Override
+  public void setLayerImages(List<ImageInterface> images) throws IllegalArgumentException {
+    if (images == null || images.size() != this.imageHistory.size()) {
+      throw new IllegalArgumentException("There must be one image for every layer.");
+    }
+    for (int i = 0; i < images.size(); i++) {
+      this.imageHistory.get(i).setImage(images.get(i));
+    }
+    this.setImage(this.imageHistory.get(this.currLayer).getImage());
+  }
+
+  /**
+   * Applies the effect to the image of every layer, each layer on a thread of its own when there
+   * is more than one, without changing any of the layers.
+   *
+   * @param effect the effect we are applying
+   * @return the new image of each layer, in the order of the layers
+   * @throws IllegalArgumentException if the effect can not be applied to one of the layers, in
+   *     which case the layers still being done are cancelled
+   */
+  private List<ImageInterface> applyToEveryLayer(IEffect effect) throws IllegalArgumentException {
+    List<Callable<ImageInterface>> tasks = new ArrayList<>();
+    for (ILayer layer : this.imageHistory) {
+      tasks.add(() -> {
+        ImageInterface layerImage = layer.getImage();
+        // resizing can start from the smallest level of the layer's pyramid that is big enough
+        if (effect instanceof IResizeEffect && layerImage != null) {
+          IResizeEffect resize = (IResizeEffect) effect;
+          layerImage = layer.getImageAtLeast(resize.getNewWidth(), resize.getNewHeight());
+        }
+        return effect.applyEffect(layerImage);
+      });
+    }
+    try {
+      return ParallelTasks.runAll(tasks);
+    } catch (ExecutionException e) {
+      throw asRuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while applying the effect.");
+    }
+  }
+
+  /**
+   * Passes on what applying an effect to a layer threw, which is an unchecked exception since
+   * effects do not declare any checked ones.
+   *
+   * @param cause what the effect threw
+   * @return the unchecked exception to throw in its place
+   */
+  private static RuntimeException asRuntimeException(Throwable cause) {
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    } else if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IllegalStateException("The effect could not be applied.", cause);
+  }
+
   @Override
   public void save(String name) {
     this.getCurrentTopmostVisible().setName(name);
@@ -72,7 +179,7 @@ public class FilterModel implements IComplexEffectModel<ImageInterface> {
     if (img == null) {
       throw new IllegalArgumentException("Null image given");
     }
-    this.currentImage = img.copy();
+    this.currentImage = img;
     this.imageHistory.get(this.currLayer).setImage(img);
   }
 
@@ -111,7 +218,9 @@ public class FilterModel implements IComplexEffectModel<ImageInterface> {
 
   @Override
   public void addLayer() {
-    this.imageHistory.add(new Layer());
+    Layer layer = new Layer();
+    layer.setCache(this.cache);
+    this.imageHistory.add(layer);
     if (this.imageHistory.size() != 1) {
       this.currLayer++;
     }
@@ -119,7 +228,10 @@ public class FilterModel implements IComplexEffectModel<ImageInterface> {
 
   @Override
   public void removeLayer() {
-    this.imageHistory.remove(this.imageHistory.size() - 1);
+    ILayer removed = this.imageHistory.remove(this.imageHistory.size() - 1);
+    if (removed instanceof Layer) {
+      ((Layer) removed).setCache(null);
+    }
   }
 
   @Override
@@ -138,7 +250,17 @@ public class FilterModel implements IComplexEffectModel<ImageInterface> {
 
   @Override
   public void setAllLayers(List<ILayer> layerList) {
+    // the layers that are kept stay in the cache, so their images are not read back from the
+    // spill file
+    Set<ILayer> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+    kept.addAll(layerList);
+    for (ILayer layer : this.imageHistory) {
+      if (layer instanceof Layer && !kept.contains(layer)) {
+        ((Layer) layer).setCache(null);
+      }
+    }
     this.imageHistory = layerList;
+    this.useCache(layerList);
   }
 
   @Override
@@ -1,5 +1,6 @@
 package model;
 
+import java.util.List;
 import model.filters.IEffect;
 
 /**
@@ -16,4 +17,20 @@ public interface IComplexEffectModel<K> extends IFilterModel<K> {
    */
   void applyComplexEffect(IEffect effect);
 
+  /**
+   * Sets the image of every layer at once, as applying an effect to every layer does, for when
+   * the new images were worked out away from the model, such as on another thread.
+   *
+   * @param images the new image of each layer, in the order of the layers
+   * @throws IllegalArgumentException if the list is null or does not hold one image per layer
+   */
+  void setLayerImages(List<K> images) throws IllegalArgumentException;
+
+  /**
+   * Gets the cache that keeps the images of the layers of this model within its budget.
+   *
+   * @return the cache of this model
+   */
+  LayerCache getLayerCache();
+
 }
@@ -0,0 +1,20 @@
+package model;
+
+import java.io.IOException;
+import model.image.ImageInterface;
+
+/**
+ * Represents somewhere the image of a layer can be read from, such as an image file or a layer of
+ * a project file. A layer made from a source reads its image only once it is needed, and can drop
+ * the image from memory and read it again later.
+ */
+public interface IImageSource {
+
+  /**
+   * Reads the image.
+   *
+   * @return the image, which is a new image each time it is read
+   * @throws IOException if the image can not be read
+   */
+  ImageInterface read() throws IOException;
+}
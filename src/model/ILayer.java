@@ -16,6 +16,7 @@ public interface ILayer {
    * versions of the program, making us ill-equipped for new and unexpected features.
    *
    * @return a this image
+   * @throws IllegalStateException if the image is not in memory and can not be read again
    */
   ImageInterface getImage();
 
@@ -42,6 +43,40 @@ public interface ILayer {
    */
   void setImage(ImageInterface img);
 
+  /**
+   * Returns the smallest image in this layer's pyramid that is at least the given width and
+   * height. The pyramid starts with the image in this layer, and each image after it is half the
+   * size of the one before, rounded up. The smaller images are only made the first time they are
+   * asked for and are kept until the image in this layer is set again. If the image in this layer
+   * is smaller than the given size, the image itself is returned.
+   *
+   * @param width the smallest width the returned image may have
+   * @param height the smallest height the returned image may have
+   * @return the smallest image in the pyramid at least the given size, or null if this layer has
+   *     no image
+   * @throws IllegalArgumentException if either size is less than 1
+   * @throws IllegalStateException if the image is not in memory and can not be read again
+   */
+  ImageInterface getImageAtLeast(int width, int height) throws IllegalArgumentException;
+
+  /**
+   * Returns whether the image in this layer is in memory. A layer made from an IImageSource does
+   * not read its image until it is asked for, and is not loaded again once its image is dropped
+   * until the image is asked for again.
+   *
+   * @return true if the image in this layer is in memory
+   */
+  boolean isLoaded();
+
+  /**
+   * Drops the image in this layer, and every level of its pyramid, from memory if it can be read
+   * again from the source this layer was made from. An image that has been set since can not be
+   * read again, so it is kept.
+   *
+   * @return true if the image in this layer is no longer in memory, or false if it had to be kept
+   */
+  boolean unload();
+
   /**
    * Returns the boolean value of the visiblity of this layer.
    */
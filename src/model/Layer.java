@@ -1,5 +1,12 @@
 package model;
 
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import model.filters.Resample;
+import model.filters.ResampleFilter;
 import model.image.ImageInterface;
 
 /**
@@ -8,12 +15,27 @@ import model.image.ImageInterface;
  * the time of import or save. We decided to make a layer class rather than just add the name and
  * visible field to our image class since we wanted to remove clutter from our image class and
  * make a layer (in general terms not this class instance) be dependent on a particular image
- * class.
+ * class. Each layer also keeps the levels of its image's pyramid that have been asked for, so
+ * the image is only ever halved once however many times a smaller copy of it is needed. A layer
+ * made from an IImageSource only reads its image the first time it is asked for, and holds on to
+ * it through a soft reference, so the garbage collector can drop images that can be read again
+ * when memory runs low rather than running out of memory, and they are read again when next
+ * asked for. Once its image is set, a layer holds on to the image for as long as it has it, unless
+ * the layer belongs to a model whose LayerCache is over its budget, in which case the cache may
+ * move the image to its spill file and the layer then reads it back from there.
  */
 public class Layer implements ILayer {
   private String fileName;
-  private ImageInterface img;
   private boolean visible;
+  // the image, then each level of its pyramid made so far, or null if the layer has no image or
+  // its image is read from the source
+  private List<ImageInterface> levels;
+  // where the image is read from, or null if the image was set
+  private IImageSource source;
+  // the image read from the source, then each level of its pyramid made so far
+  private SoftReference<List<ImageInterface>> readLevels;
+  // the cache told whenever the image is used, or null if this layer does not use one
+  private LayerCache cache;
 
   /**
    * Constructor that sets the visibility to true and makes a new layer.
@@ -34,7 +56,8 @@ public class Layer implements ILayer {
           + "constructor.");
     }
     this.fileName = fileName;
-    this.img = img;
+    this.levels = new ArrayList<>();
+    this.levels.add(img);
     this.visible = true;
   }
 
@@ -51,13 +74,31 @@ public class Layer implements ILayer {
           + "constructor.");
     }
     this.fileName = fileName;
-    this.img = img;
+    this.levels = new ArrayList<>();
+    this.levels.add(img);
+    this.visible = visible;
+  }
+
+  /**
+   * Constructor for a layer whose image is only read from the given source once it is asked for.
+   *
+   * @param source where the image in this layer is read from
+   * @param fileName the name of the image in this layer
+   * @param visible the visibility of this layer
+   */
+  public Layer(IImageSource source, String fileName, boolean visible) {
+    if (source == null || fileName == null) {
+      throw new IllegalArgumentException("The parameters passed can not be null in the "
+          + "constructor.");
+    }
+    this.fileName = fileName;
+    this.source = source;
     this.visible = visible;
   }
 
   @Override
   public ImageInterface getImage() {
-    return this.img;
+    return this.use(levels -> levels.get(0));
   }
 
   @Override
@@ -85,7 +126,247 @@ public class Layer implements ILayer {
       throw new IllegalArgumentException("The parameters passed can not be null in the "
           + "constructor.");
     }
-    this.img = img;
+    IImageSource oldSource;
+    LayerCache cache;
+    long bytes;
+    synchronized (this) {
+      oldSource = this.source;
+      this.levels = new ArrayList<>();
+      this.levels.add(img);
+      this.source = null;
+      this.readLevels = null;
+      cache = this.cache;
+      bytes = LayerCache.sizeOf(this.levels);
+    }
+    if (cache != null) {
+      cache.discard(oldSource);
+      cache.loaded(this, bytes);
+    }
+  }
+
+  @Override
+  public synchronized boolean isLoaded() {
+    return this.loadedLevels() != null;
+  }
+
+  @Override
+  public boolean unload() {
+    LayerCache cache;
+    synchronized (this) {
+      if (this.source == null) {
+        return this.levels == null;
+      }
+      this.readLevels = null;
+      cache = this.cache;
+    }
+    if (cache != null) {
+      cache.forget(this);
+    }
+    return true;
+  }
+
+  @Override
+  public ImageInterface getImageAtLeast(int width, int height)
+      throws IllegalArgumentException {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("The width and height must be positive.");
+    }
+    return this.use(levels -> levelAtLeast(levels, width, height));
+  }
+
+  /**
+   * Finds the smallest level of a pyramid that is at least the given size, making the levels
+   * that are needed and have not been made yet.
+   *
+   * @param levels the image followed by the levels of its pyramid made so far
+   * @param width the smallest width the level may have
+   * @param height the smallest height the level may have
+   * @return the smallest level at least the given size
+   */
+  private static ImageInterface levelAtLeast(List<ImageInterface> levels, int width, int height) {
+    for (int i = 0; ; i++) {
+      ImageInterface level = levels.get(i);
+      int levelWidth = level.getImageWidth();
+      int levelHeight = levelWidth == 0 ? 0 : level.getImageHeight();
+      int nextWidth = (levelWidth + 1) / 2;
+      int nextHeight = (levelHeight + 1) / 2;
+      // stops once the next level would be too small, or would be no smaller than this one
+      if (nextWidth < width || nextHeight < height
+          || (nextWidth == levelWidth && nextHeight == levelHeight)) {
+        return level;
+      }
+      if (i + 1 == levels.size()) {
+        levels.add(new Resample(nextWidth, nextHeight, ResampleFilter.BOX).applyEffect(level));
+      }
+    }
+  }
+
+  /**
+   * Picks an image out of the image in this layer and the levels of its pyramid, reading the image
+   * from the source first if it is not in memory, and then tells the cache of this layer that the
+   * image was used.
+   *
+   * @param pick picks the image out of the image and the levels of its pyramid
+   * @return the picked image, or null if this layer has no image
+   * @throws IllegalStateException if the image can not be read from the source
+   */
+  private ImageInterface use(Function<List<ImageInterface>, ImageInterface> pick)
+      throws IllegalStateException {
+    ImageInterface picked;
+    boolean miss;
+    LayerCache cache;
+    long bytes = 0;
+    synchronized (this) {
+      miss = this.loadedLevels() == null;
+      List<ImageInterface> levels = this.levels();
+      if (levels == null) {
+        return null;
+      }
+      picked = pick.apply(levels);
+      cache = this.cache;
+      if (cache != null) {
+        bytes = LayerCache.sizeOf(levels);
+      }
+    }
+    // the cache is only told once this layer is no longer locked, since the cache may in turn
+    // lock other layers to drop their images
+    if (cache != null) {
+      cache.used(this, bytes, miss);
+    }
+    return picked;
+  }
+
+  /**
+   * Sets the cache this layer tells whenever its image is used, and which may drop its image to
+   * stay within its budget. A layer leaving a cache whose spill file holds its image reads the
+   * image back first, so the old cache can free its space in the spill file.
+   *
+   * @param cache the cache, or null for this layer to no longer use a cache
+   */
+  void setCache(LayerCache cache) {
+    LayerCache old;
+    IImageSource spilled = null;
+    List<ImageInterface> loaded;
+    long bytes = 0;
+    synchronized (this) {
+      old = this.cache;
+      this.cache = cache;
+      if (old != null && old != cache && old.holds(this.source)) {
+        try {
+          this.levels = this.levels();
+          spilled = this.source;
+          this.source = null;
+          this.readLevels = null;
+        } catch (IllegalStateException e) {
+          // the old cache has been closed, so the image is lost whether or not it is freed
+        }
+      }
+      loaded = this.loadedLevels();
+      if (loaded != null) {
+        bytes = LayerCache.sizeOf(loaded);
+      }
+    }
+    if (old != null && old != cache) {
+      old.forget(this);
+      old.discard(spilled);
+    }
+    if (cache != null && loaded != null) {
+      cache.loaded(this, bytes);
+    }
+  }
+
+  /**
+   * Drops the image in this layer for its cache to stay within its budget. An image that can be
+   * read again from the source is dropped straight away. Any other image is handed to the cache to
+   * be written to its spill file on the cache's own thread, and is only dropped by spilled once it
+   * has been written, so this layer is not locked while the image is written.
+   *
+   * @param cache the cache dropping the image
+   */
+  void evict(LayerCache cache) {
+    ImageInterface img;
+    synchronized (this) {
+      if (cache != this.cache) {
+        // this layer moved to another cache since it was picked
+        return;
+      }
+      if (this.source != null) {
+        this.readLevels = null;
+        return;
+      }
+      if (this.levels == null) {
+        return;
+      }
+      img = this.levels.get(0);
+    }
+    cache.spillLater(this, img);
+  }
+
+  /**
+   * Reads the image in this layer from the spill file of its cache from now on, once the cache has
+   * written it there. Nothing changes if the image was replaced or this layer moved to another
+   * cache while it was being written. If this layer was used again meanwhile, the image stays in
+   * memory, but can be dropped from then on without being written again.
+   *
+   * @param cache the cache that wrote the image
+   * @param img the image that was written
+   * @param spilled where the image was written
+   * @param resident true if this layer was used again after it was picked to be dropped
+   * @return true if this layer reads its image from where it was written from now on
+   */
+  synchronized boolean spilled(LayerCache cache, ImageInterface img, IImageSource spilled,
+      boolean resident) {
+    if (cache != this.cache || this.levels == null || this.levels.get(0) != img) {
+      return false;
+    }
+    this.source = spilled;
+    this.readLevels = resident ? new SoftReference<>(this.levels) : null;
+    this.levels = null;
+    return true;
+  }
+
+  /**
+   * Gets the image in this layer followed by the levels of its pyramid made so far, without
+   * reading the image from the source.
+   *
+   * @return the image and the levels of its pyramid, or null if the image is not in memory
+   */
+  private synchronized List<ImageInterface> loadedLevels() {
+    if (this.levels != null || this.readLevels == null) {
+      return this.levels;
+    }
+    return this.readLevels.get();
+  }
+
+  /**
+   * Gets the image in this layer followed by the levels of its pyramid made so far, reading the
+   * image from the source first if it is not in memory.
+   *
+   * @return the image and the levels of its pyramid, or null if this layer has no image
+   * @throws IllegalStateException if the image can not be read from the source
+   */
+  private synchronized List<ImageInterface> levels() throws IllegalStateException {
+    if (this.source == null) {
+      return this.levels;
+    }
+    List<ImageInterface> read = this.readLevels == null ? null : this.readLevels.get();
+    if (read == null) {
+      ImageInterface img;
+      try {
+        img = this.source.read();
+      } catch (IOException e) {
+        throw new IllegalStateException("The image in layer " + this.fileName
+            + " could not be read.");
+      }
+      if (img == null) {
+        throw new IllegalStateException("The image in layer " + this.fileName
+            + " could not be read.");
+      }
+      read = new ArrayList<>();
+      read.add(img);
+      this.readLevels = new SoftReference<>(read);
+    }
+    return read;
   }
 
   @Override
@@ -0,0 +1,556 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+
+/**
+ * Keeps the images of the layers of a model within a budget of memory. Every layer the model holds
+ * tells its cache whenever its image is used, and once the images in memory take up more than the
+ * budget, the images of the least recently used layers are dropped until they fit again. An image
+ * that can be read again from where it came from, such as an image file or a project file, is
+ * simply dropped. Any other image, such as the result of a filter, is first written to a temporary
+ * spill file as raw pixels, and is read back from a memory map of the spill file the next time its
+ * layer is used. Space in the spill file that is no longer needed is reused by later images of the
+ * same size. Images are written to the spill file on a thread of the cache's own, so the thread
+ * that used a layer, which may be the thread of a window, never waits for another layer's image to
+ * be written, and an image is only dropped once it has been written. The cache only holds on to
+ * its layers weakly, so the layers of a model that is gone can still be garbage collected, and
+ * their space in the spill file is then reused. The cache counts how often an image was in memory
+ * when it was used (hits), how often it had to be read first (misses), and how many bytes have
+ * been written to the spill file.
+ *
+ * <p>Models use the default cache unless given one, which has no budget, so it only counts hits
+ * and misses, until another default is set.
+ */
+public class LayerCache implements Closeable {
+
+  private static LayerCache defaultCache = new LayerCache(Long.MAX_VALUE);
+
+  // the bytes of pixels written to the spill file at a time
+  private static final int CHUNK = 1 << 20;
+  // the most pixels read back from one memory map, which can be at most 2 GB
+  private static final int MAP_WINDOW = 1 << 28;
+
+  private final long budget;
+  // the entries of the layers that have used this cache, which are enqueued once their layer has
+  // been garbage collected
+  private final Map<Layer, Entry> entries = new WeakHashMap<>();
+  private final ReferenceQueue<Layer> collected = new ReferenceQueue<>();
+  // the bytes of each layer whose image is in memory, from the least to the most recently used
+  private final LinkedHashMap<Entry, Long> resident = new LinkedHashMap<>(16, 0.75f, true);
+  private long residentBytes = 0;
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+  private long bytesSpilled = 0;
+
+  // guards everything to do with the spill file, which is only created once it is needed
+  private final Object spillLock = new Object();
+  private Path spillPath;
+  private FileChannel spill;
+  private long spillEnd = 0;
+  // the positions of the regions of the spill file that are free, by their length in bytes
+  private final Map<Long, Deque<Long>> freeRegions = new HashMap<>();
+  private boolean closed = false;
+  // writes the images of the layers being dropped to the spill file one at a time, with a thread
+  // that stops while there is nothing to write and does not keep the program running
+  private final ThreadPoolExecutor spiller;
+
+  /**
+   * Constructor.
+   *
+   * @param budget the most bytes the images of the layers may take up before the least recently
+   *     used ones are dropped
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public LayerCache(long budget) throws IllegalArgumentException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("The budget can not be negative.");
+    }
+    this.budget = budget;
+    this.spiller = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, "layer-spill");
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.spiller.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Gets the cache models use when they are not given one.
+   *
+   * @return the default cache
+   */
+  public static synchronized LayerCache getDefault() {
+    return defaultCache;
+  }
+
+  /**
+   * Sets the cache models created from now on use when they are not given one.
+   *
+   * @param cache the new default cache
+   * @throws IllegalArgumentException if the cache is null
+   */
+  public static synchronized void setDefault(LayerCache cache) throws IllegalArgumentException {
+    if (cache == null) {
+      throw new IllegalArgumentException("Null cache given.");
+    }
+    defaultCache = cache;
+  }
+
+  /**
+   * Gets the most bytes the images of the layers may take up.
+   *
+   * @return the budget in bytes
+   */
+  public long getBudget() {
+    return this.budget;
+  }
+
+  /**
+   * Gets the bytes taken up by the images in memory of the layers using this cache. A cache with
+   * no budget never drops an image, so it does not keep track of them and this is always 0.
+   *
+   * @return the bytes in memory
+   */
+  public synchronized long getResidentBytes() {
+    this.expungeCollected();
+    return this.residentBytes;
+  }
+
+  /**
+   * Gets the number of times the image of a layer was used while it was in memory.
+   *
+   * @return the number of hits
+   */
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Gets the number of times the image of a layer had to be read before it could be used.
+   *
+   * @return the number of misses
+   */
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Gets the number of times the image of a layer was dropped to stay within the budget.
+   *
+   * @return the number of evictions
+   */
+  public synchronized long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Gets the number of bytes of pixels written to the spill file so far.
+   *
+   * @return the bytes spilled
+   */
+  public synchronized long getBytesSpilled() {
+    return this.bytesSpilled;
+  }
+
+  /**
+   * Gets the length of the spill file, which only grows when an image is spilled and no space freed
+   * by an image of the same size is left to reuse.
+   *
+   * @return the length of the spill file in bytes
+   */
+  public long getSpillFileBytes() {
+    synchronized (this.spillLock) {
+      return this.spillEnd;
+    }
+  }
+
+  /**
+   * Waits until the images of all the layers dropped so far have been written to the spill file.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void flush() throws InterruptedException {
+    try {
+      this.spiller.submit(() -> { }).get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(Locale.ROOT, "%d hits, %d misses, %d evictions, %d bytes spilled, "
+        + "%d bytes in memory of a budget of %s", this.hits, this.misses, this.evictions,
+        this.bytesSpilled, this.residentBytes,
+        this.budget == Long.MAX_VALUE ? "unlimited" : this.budget + " bytes");
+  }
+
+  /**
+   * Waits for the images being written to the spill file, then closes and deletes it. The images
+   * of layers that were spilled can no longer be read afterwards.
+   *
+   * @throws IOException if the spill file can not be closed or deleted, or the thread is
+   *     interrupted while waiting
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.flush();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the spill file to be written.");
+    }
+    synchronized (this.spillLock) {
+      this.closed = true;
+      if (this.spill != null) {
+        this.spill.close();
+        Files.deleteIfExists(this.spillPath);
+        this.spill = null;
+      }
+    }
+  }
+
+  /**
+   * Records that the image of a layer was used, and drops the images of the least recently used
+   * layers if that takes the images in memory over the budget.
+   *
+   * @param layer the layer
+   * @param bytes the bytes taken up by the image of the layer and the levels of its pyramid
+   * @param miss true if the image had to be read before it could be used
+   */
+  void used(Layer layer, long bytes, boolean miss) {
+    synchronized (this) {
+      if (miss) {
+        this.misses++;
+      } else {
+        this.hits++;
+      }
+    }
+    this.loaded(layer, bytes);
+  }
+
+  /**
+   * Records that a layer has an image in memory without counting it as a hit or a miss, such as
+   * when its image is set, and drops the images of the least recently used layers if that takes
+   * the images in memory over the budget.
+   *
+   * @param layer the layer
+   * @param bytes the bytes taken up by the image of the layer and the levels of its pyramid
+   */
+  void loaded(Layer layer, long bytes) {
+    if (this.budget == Long.MAX_VALUE) {
+      // nothing is ever dropped, so holding on to the layers would only keep them from being
+      // garbage collected once their model is gone
+      return;
+    }
+    List<Layer> victims = new ArrayList<>();
+    synchronized (this) {
+      this.expungeCollected();
+      Long old = this.resident.put(this.entryOf(layer), bytes);
+      this.residentBytes += bytes - (old == null ? 0 : old);
+      Iterator<Map.Entry<Entry, Long>> leastRecent = this.resident.entrySet().iterator();
+      while (this.residentBytes > this.budget && leastRecent.hasNext()) {
+        Map.Entry<Entry, Long> entry = leastRecent.next();
+        Layer victim = entry.getKey().get();
+        if (victim != layer) {
+          // a layer that has been garbage collected is only let go of
+          if (victim != null) {
+            victims.add(victim);
+            this.evictions++;
+          }
+          this.residentBytes -= entry.getValue();
+          leastRecent.remove();
+        }
+      }
+    }
+    // the layers are only locked once this cache is not, since layers call this cache while
+    // they are not locked either
+    for (Layer victim : victims) {
+      victim.evict(this);
+    }
+  }
+
+  /**
+   * Records that a layer no longer has an image in memory, or no longer uses this cache.
+   *
+   * @param layer the layer
+   */
+  synchronized void forget(Layer layer) {
+    this.expungeCollected();
+    Entry entry = this.entries.get(layer);
+    Long old = entry == null ? null : this.resident.remove(entry);
+    if (old != null) {
+      this.residentBytes -= old;
+    }
+  }
+
+  /**
+   * Checks whether the image of a layer is counted as being in memory, such as when it was used
+   * again after it was picked to be dropped.
+   *
+   * @param layer the layer
+   * @return true if the image of the layer is counted as being in memory
+   */
+  synchronized boolean isResident(Layer layer) {
+    Entry entry = this.entries.get(layer);
+    return entry != null && this.resident.containsKey(entry);
+  }
+
+  /**
+   * Gets the entry of a layer, making it if the layer has not used this cache before. Only called
+   * while this cache is locked.
+   *
+   * @param layer the layer
+   * @return the entry of the layer
+   */
+  private Entry entryOf(Layer layer) {
+    return this.entries.computeIfAbsent(layer, key -> new Entry(key, this.collected));
+  }
+
+  /**
+   * Lets go of the layers that have been garbage collected, freeing their space in the spill file.
+   * Only called while this cache is locked.
+   */
+  private void expungeCollected() {
+    for (Reference<? extends Layer> ref = this.collected.poll(); ref != null;
+        ref = this.collected.poll()) {
+      Entry entry = (Entry) ref;
+      Long old = this.resident.remove(entry);
+      if (old != null) {
+        this.residentBytes -= old;
+      }
+      this.discard(entry.spilled);
+    }
+  }
+
+  /**
+   * Writes the image of a layer being dropped to the spill file on the thread of this cache, and
+   * then has the layer read it from there from now on. If the layer no longer holds that image, its
+   * space in the spill file is freed again, and if it can not be written, it stays in memory until
+   * the cache is told about it again the next time it is used.
+   *
+   * @param layer the layer
+   * @param img the image in the layer
+   */
+  void spillLater(Layer layer, ImageInterface img) {
+    this.spiller.execute(() -> {
+      IImageSource spilled;
+      try {
+        spilled = this.spill(layer, img);
+      } catch (IOException e) {
+        return;
+      }
+      if (!layer.spilled(this, img, spilled, this.isResident(layer))) {
+        this.discard(spilled);
+      }
+    });
+  }
+
+  /**
+   * Writes the image of a layer to the spill file.
+   *
+   * @param layer the layer, whose space in the spill file is freed once it is garbage collected
+   * @param img the image
+   * @return the source the image can be read back from
+   * @throws IOException if the image can not be written, or this cache has been closed
+   */
+  private IImageSource spill(Layer layer, ImageInterface img) throws IOException {
+    PackedImage packed = img instanceof PackedImage ? (PackedImage) img
+        : PackedImage.fromImage(img);
+    int width = packed.getImageWidth();
+    int height = width == 0 ? 0 : packed.getImageHeight();
+    int[] pixels = packed.getPixels();
+    long length = 4L * pixels.length;
+    long position;
+    synchronized (this.spillLock) {
+      if (this.closed) {
+        throw new IOException("The layer cache has been closed.");
+      }
+      if (this.spill == null) {
+        this.spillPath = Files.createTempFile("layers", ".spill");
+        this.spillPath.toFile().deleteOnExit();
+        this.spill = FileChannel.open(this.spillPath, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+      }
+      Deque<Long> free = this.freeRegions.get(length);
+      if (free != null && !free.isEmpty()) {
+        position = free.pop();
+      } else {
+        position = this.spillEnd;
+        this.spillEnd += length;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK, Math.max(4, length)));
+      IntBuffer ints = buffer.asIntBuffer();
+      for (int i = 0; i < pixels.length; ) {
+        int count = Math.min(ints.capacity(), pixels.length - i);
+        ints.clear();
+        ints.put(pixels, i, count);
+        buffer.clear().limit(count * 4);
+        long at = position + 4L * i;
+        while (buffer.hasRemaining()) {
+          at += this.spill.write(buffer, at);
+        }
+        i += count;
+      }
+    }
+    Spilled spilled = new Spilled(position, width, height);
+    synchronized (this) {
+      this.bytesSpilled += length;
+      this.entryOf(layer).spilled = spilled;
+    }
+    return spilled;
+  }
+
+  /**
+   * Checks whether an image is read from the spill file of this cache.
+   *
+   * @param source the source the image is read from
+   * @return true if the source is a region of the spill file of this cache
+   */
+  boolean holds(IImageSource source) {
+    return source instanceof Spilled && ((Spilled) source).owner() == this;
+  }
+
+  /**
+   * Frees the region of the spill file a layer's image was read from, once the layer no longer
+   * reads from it. A region is only ever freed once, however many times it is discarded.
+   *
+   * @param source the source the layer read its image from
+   */
+  void discard(IImageSource source) {
+    if (!this.holds(source)) {
+      return;
+    }
+    Spilled spilled = (Spilled) source;
+    synchronized (this.spillLock) {
+      if (!spilled.freed) {
+        spilled.freed = true;
+        this.freeRegions.computeIfAbsent(spilled.length(), length -> new ArrayDeque<>())
+            .push(spilled.position);
+      }
+    }
+  }
+
+  /**
+   * Estimates the bytes taken up by the given images.
+   *
+   * @param images the images
+   * @return the bytes taken up
+   */
+  static long sizeOf(List<ImageInterface> images) {
+    long bytes = 0;
+    for (ImageInterface img : images) {
+      int width = img.getImageWidth();
+      long pixels = (long) width * (width == 0 ? 0 : img.getImageHeight());
+      // an Image holds a reference to a boxed Integer for each of the three values of a pixel
+      bytes += img instanceof PackedImage ? 4 * pixels : 3 * 20 * pixels;
+    }
+    return bytes;
+  }
+
+  /**
+   * A layer that has used the cache, held weakly so the layer can still be garbage collected.
+   */
+  private static class Entry extends WeakReference<Layer> {
+    // the region of the spill file last written for the layer, or null if there is none
+    private Spilled spilled;
+
+    /**
+     * Constructor.
+     *
+     * @param layer the layer
+     * @param queue the queue the entry is put on once the layer has been garbage collected
+     */
+    Entry(Layer layer, ReferenceQueue<Layer> queue) {
+      super(layer, queue);
+    }
+  }
+
+  /**
+   * The image of a layer in the spill file.
+   */
+  private class Spilled implements IImageSource {
+    private final long position;
+    private final int width;
+    private final int height;
+    // whether the region has been freed, guarded by the spill lock
+    private boolean freed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param position the position of the pixels in the spill file
+     * @param width the width of the image
+     * @param height the height of the image
+     */
+    Spilled(long position, int width, int height) {
+      this.position = position;
+      this.width = width;
+      this.height = height;
+    }
+
+    /**
+     * Gets the cache whose spill file holds the image.
+     *
+     * @return the cache
+     */
+    LayerCache owner() {
+      return LayerCache.this;
+    }
+
+    /**
+     * Gets the bytes the pixels take up in the spill file.
+     *
+     * @return the length of the pixels in bytes
+     */
+    long length() {
+      return 4L * this.width * this.height;
+    }
+
+    @Override
+    public ImageInterface read() throws IOException {
+      int[] pixels = new int[this.width * this.height];
+      for (int i = 0; i < pixels.length; ) {
+        int count = Math.min(MAP_WINDOW, pixels.length - i);
+        ByteBuffer map;
+        synchronized (spillLock) {
+          if (closed) {
+            throw new IOException("The layer cache has been closed.");
+          }
+          map = spill.map(FileChannel.MapMode.READ_ONLY, this.position + 4L * i, 4L * count);
+        }
+        map.asIntBuffer().get(pixels, i, count);
+        i += count;
+      }
+      return new PackedImage(this.width, this.height, pixels);
+    }
+  }
+}
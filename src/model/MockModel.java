@@ -119,4 +119,15 @@ public class MockModel implements IComplexEffectModel<ImageInterface> {
       this.log.append("null");
     }
   }
+
+  @Override
+  public void setLayerImages(List<ImageInterface> images) throws IllegalArgumentException {
+    this.log.append("Method Called: setLayerImages; Param: " + images.size() + " images");
+  }
+
+  @Override
+  public LayerCache getLayerCache() {
+    this.log.append("Method Called: getLayerCache");
+    return LayerCache.getDefault();
+  }
 }
@@ -0,0 +1,86 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a task for each layer at the same time, such as applying an effect to every layer or
+ * reading and writing the file of every layer, on one pool of threads shared by the whole
+ * program. The pool is only created the first time it is needed, with one thread per available
+ * processor, and its threads do not keep the program running.
+ */
+public final class ParallelTasks {
+
+  private static ExecutorService pool;
+
+  private ParallelTasks() {
+  }
+
+  /**
+   * Runs every task, each on a thread of the pool when there is more than one, and waits for them
+   * all. A single task is run on the calling thread. As soon as one task fails the rest are
+   * cancelled and what it threw is thrown here.
+   *
+   * @param tasks the tasks to run
+   * @param <T> the type of the result of each task
+   * @return the result of each task, in the order of the tasks
+   * @throws ExecutionException if a task failed, holding what it threw
+   * @throws InterruptedException if the thread was interrupted while waiting, in which case the
+   *     tasks are cancelled
+   */
+  public static <T> List<T> runAll(List<Callable<T>> tasks)
+      throws ExecutionException, InterruptedException {
+    List<T> results = new ArrayList<>();
+    if (tasks.size() == 1) {
+      try {
+        results.add(tasks.get(0).call());
+      } catch (Exception e) {
+        throw new ExecutionException(e);
+      }
+      return results;
+    }
+    CompletionService<T> done = new ExecutorCompletionService<>(getPool());
+    List<Future<T>> futures = new ArrayList<>();
+    try {
+      for (Callable<T> task : tasks) {
+        futures.add(done.submit(task));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        // waiting in the order the tasks finish means the first failure is seen straight away
+        done.take().get();
+      }
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Gets the pool the tasks are run on, creating it the first time it is needed.
+   *
+   * @return the pool of threads
+   */
+  private static synchronized ExecutorService getPool() {
+    if (pool == null) {
+      pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+          runnable -> {
+            Thread thread = new Thread(runnable, "layer-task");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+    return pool;
+  }
+}
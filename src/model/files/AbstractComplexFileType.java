@@ -1,22 +1,30 @@
 package model.files;
 
-import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.io.OutputStream;
 import javax.imageio.ImageIO;
-import model.image.Image;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * Abstracts the importing and exporting methods since some file types are able to be imported
  * and exported in an identical fashion due to how Java is able to read some files the same as it
  * does others, for example: JPEG and PNG are able to be imported and exported in the same exact
- * manner but said method does not work with PPM file type.
+ * manner but said method does not work with PPM file type. Pixels are moved between images and
+ * BufferedImages in bulk through the arrays backing the BufferedImage's raster, rather than one
+ * getRGB or setRGB call at a time.
  */
 public class AbstractComplexFileType implements IFileType {
 
@@ -28,18 +36,24 @@ public class AbstractComplexFileType implements IFileType {
     BufferedImage bufferedImage = new BufferedImage(img.getImageWidth(), img.getImageHeight(),
         BufferedImage.TYPE_INT_RGB);
 
-    // fill the rows with the data at the indicated location of (x,y)
-    for (int x = 0; x < img.getImageWidth(); x++) { // rows
-      for (int y = 0; y < img.getImageHeight(); y++) { // "columns"
-        int redAt = img.getRedAt(x,y);
-        int greenAt = img.getGreenAt(x,y);
-        int blueAt = img.getBlueAt(x,y);
-        bufferedImage.setRGB(x,y,new Color(redAt, greenAt, blueAt).getRGB());
+    // a TYPE_INT_RGB image stores its pixels as 0xRRGGBB ints in row-major order, just like a
+    // PackedImage, so they can be written straight into its raster
+    int[] data = ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData();
+    if (img instanceof PackedImage) {
+      int[] pixels = ((PackedImage) img).getPixels();
+      System.arraycopy(pixels, 0, data, 0, pixels.length);
+    } else {
+      int width = img.getImageWidth();
+      for (int y = 0; y < img.getImageHeight(); y++) {
+        for (int x = 0; x < width; x++) {
+          data[y * width + x] = PackedImage.packRGB(img.getRedAt(x, y), img.getGreenAt(x, y),
+              img.getBlueAt(x, y));
+        }
       }
     }
 
-    try {
-      ImageIO.write(bufferedImage, this.fileType, new FileOutputStream(fileName));
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName))) {
+      ImageIO.write(bufferedImage, this.fileType, out);
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("Could not export file because the file path could not be "
           + "found.");
@@ -48,12 +62,9 @@ public class AbstractComplexFileType implements IFileType {
 
   @Override
   public ImageInterface importFile(String fileName) throws IllegalArgumentException, IOException {
-    FileInputStream in;
-    BufferedImage bufferedImage = new BufferedImage(100, 100,
-        BufferedImage.TYPE_INT_RGB);
+    BufferedImage bufferedImage;
 
-    try {
-      in = new FileInputStream(fileName);
+    try (InputStream in = new BufferedInputStream(new FileInputStream(fileName))) {
       bufferedImage = ImageIO.read(in);
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("Could not find file.");
@@ -62,24 +73,69 @@ public class AbstractComplexFileType implements IFileType {
     int height = bufferedImage.getHeight();
     int width = bufferedImage.getWidth();
 
-    List<List<Integer>> redChannel = new ArrayList<>();
-    List<List<Integer>> greenChannel = new ArrayList<>();
-    List<List<Integer>> blueChannel = new ArrayList<>();
-
-    // fill the rows with the data at the indicated location of (x,y)
-    for (int x = 0; x < width; x++) { // rows
-      // establishes the rows of lists
-      redChannel.add(new ArrayList<>());
-      greenChannel.add(new ArrayList<>());
-      blueChannel.add(new ArrayList<>());
-      for (int y = 0; y < height; y++) { // "columns"
-        // fills in the values in the columns
-        redChannel.get(x).add(new Color(bufferedImage.getRGB(x, y)).getRed());
-        greenChannel.get(x).add(new Color(bufferedImage.getRGB(x, y)).getGreen());
-        blueChannel.get(x).add(new Color(bufferedImage.getRGB(x, y)).getBlue());
+    int[] pixels = new int[width * height];
+    if (!readRaster(bufferedImage, pixels)) {
+      // any other kind of image is converted to RGB by the BufferedImage, a row at a time
+      for (int y = 0; y < height; y++) {
+        bufferedImage.getRGB(0, y, width, 1, pixels, y * width, width);
+      }
+      for (int i = 0; i < pixels.length; i++) {
+        pixels[i] &= 0xFFFFFF;
       }
     }
 
-    return new Image(redChannel, greenChannel, blueChannel);
+    return new PackedImage(width, height, pixels);
+  }
+
+  /**
+   * Copies the pixels of the given image straight from the arrays backing its raster, if it is one
+   * of the kinds of images ImageIO usually creates, whose values are already in RGB.
+   *
+   * @param bufferedImage the image to read
+   * @param pixels the array the 0xRRGGBB values of the image are written to in row-major order
+   * @return true if the pixels were read, false if the image is of another kind
+   */
+  private static boolean readRaster(BufferedImage bufferedImage, int[] pixels) {
+    Raster raster = bufferedImage.getRaster();
+    if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0) {
+      return false;
+    }
+    int width = bufferedImage.getWidth();
+    int height = bufferedImage.getHeight();
+    switch (bufferedImage.getType()) {
+      case BufferedImage.TYPE_INT_RGB:
+      case BufferedImage.TYPE_INT_ARGB: {
+        int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+        int offset = raster.getDataBuffer().getOffset();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        for (int y = 0; y < height; y++) {
+          int start = offset + y * stride;
+          for (int x = 0; x < width; x++) {
+            pixels[y * width + x] = data[start + x] & 0xFFFFFF;
+          }
+        }
+        return true;
+      }
+      case BufferedImage.TYPE_3BYTE_BGR:
+      case BufferedImage.TYPE_4BYTE_ABGR: {
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+        int[] bandOffsets = model.getBandOffsets();
+        int offset = raster.getDataBuffer().getOffset();
+        int stride = model.getScanlineStride();
+        int pixelStride = model.getPixelStride();
+        for (int y = 0; y < height; y++) {
+          int start = offset + y * stride;
+          for (int x = 0; x < width; x++) {
+            int i = start + x * pixelStride;
+            pixels[y * width + x] = PackedImage.packRGB(data[i + bandOffsets[0]] & 0xFF,
+                data[i + bandOffsets[1]] & 0xFF, data[i + bandOffsets[2]] & 0xFF);
+          }
+        }
+        return true;
+      }
+      default:
+        return false;
+    }
   }
 }
@@ -10,7 +10,8 @@ import java.util.Locale;
 public class FileTypeCreator {
 
   /**
-   * Creates an instance of IFileType based off of the string that is passed.
+   * Creates an instance of IFileType based off of the string that is passed. PPM files are
+   * exported in the default format of PPM, and PGM files as binary P5 files.
    *
    * @param type the type of file we will create
    * @return an instance of IFileType indicated by the inputted string
@@ -22,7 +23,9 @@ public class FileTypeCreator {
     }
     String adjustedType = type.toLowerCase(Locale.ROOT);
     if (adjustedType.equals("ppm")) {
-      return new PPM();
+      return new PPM(PPM.getDefaultFormat());
+    } else if (adjustedType.equals("pgm")) {
+      return new PPM(PPM.Format.RAW_GRAY);
     } else if (adjustedType.equals("jpeg") || adjustedType.equals("jpg")) {
       return new JPEG();
     } else if (adjustedType.equals("png")) {
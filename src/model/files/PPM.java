@@ -1,14 +1,18 @@
 package model.files;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-import model.image.Image;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * The PPM class represents the PPM file type. If we want to add functionality for other file types
@@ -16,15 +20,144 @@ import model.image.ImageInterface;
  * IFileType. This allows the system to be easily expandable and open to future feature additions.
  * The PPM class allows us to perform all operations on the export and import files as PPM files,
  * since, by nature of the methods being called on the PPM class, we assume the file type we wish to
- * use is of type PPM.
+ * use is of type PPM. Files are read and written as streams of bytes, one row of the file at a
+ * time, so the contents of a file are never held in memory as a String. Besides plain P3 files,
+ * binary P6 files and the grayscale P5 and P2 PGM files can be imported and exported, where the
+ * pixels of large binary files are read straight from a memory map of the file.
  */
 public class PPM implements IFileType {
 
+  // the most bytes a color value and the line break after it take up in a plain file
+  private static final int BYTES_PER_VALUE = 4;
+  // binary pixel data at least this large is memory mapped rather than read into a buffer
+  static final long MAP_THRESHOLD = 1 << 20;
+
+  /**
+   * Represents the formats a PPM or PGM file can be written in, each with the magic number that
+   * starts the file.
+   */
+  public enum Format {
+    // red, green, and blue values written as text
+    PLAIN_RGB("P3", 3, false),
+    // red, green, and blue values written as one byte each
+    RAW_RGB("P6", 3, true),
+    // gray values written as text
+    PLAIN_GRAY("P2", 1, false),
+    // gray values written as one byte each
+    RAW_GRAY("P5", 1, true);
+
+    private final String magic;
+    private final int channels;
+    private final boolean binary;
+
+    /**
+     * Constructor.
+     *
+     * @param magic the magic number that starts a file of this format
+     * @param channels the number of values stored for each pixel
+     * @param binary true if the values are stored as bytes, false if they are stored as text
+     */
+    Format(String magic, int channels, boolean binary) {
+      this.magic = magic;
+      this.channels = channels;
+      this.binary = binary;
+    }
+
+    /**
+     * Finds the format a file starting with the given magic number is written in.
+     *
+     * @param magic the first token of the file
+     * @return the format of the file, or null if the magic number is not known
+     */
+    static Format fromMagic(String magic) {
+      for (Format format : Format.values()) {
+        if (format.magic.equals(magic)) {
+          return format;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Finds the color format of the given name, which is "plain" or "p3" for plain P3 files and
+     * "binary" or "p6" for binary P6 files, in any case.
+     *
+     * @param name the name of the format
+     * @return the format
+     * @throws IllegalArgumentException if the name is null or not one of the names above
+     */
+    public static Format fromName(String name) throws IllegalArgumentException {
+      if (name != null) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+          case "plain":
+          case "p3":
+            return PLAIN_RGB;
+          case "binary":
+          case "p6":
+            return RAW_RGB;
+          default:
+            break;
+        }
+      }
+      throw new IllegalArgumentException("The PPM format must be plain or binary.");
+    }
+  }
+
+  private static Format defaultFormat = Format.PLAIN_RGB;
+
+  private final Format format;
+
+  /**
+   * Constructor that exports plain P3 files.
+   */
+  public PPM() {
+    this(Format.PLAIN_RGB);
+  }
+
+  /**
+   * Constructor that exports files in the given format. Files of any format are imported.
+   *
+   * @param format the format files are exported in
+   * @throws IllegalArgumentException if the format is null
+   */
+  public PPM(Format format) throws IllegalArgumentException {
+    if (format == null) {
+      throw new IllegalArgumentException("The format can not be null.");
+    }
+    this.format = format;
+  }
+
+  /**
+   * Gets the format files given the ppm extension are exported in, which is plain P3 unless
+   * another format has been set.
+   *
+   * @return the default format
+   */
+  public static synchronized Format getDefaultFormat() {
+    return defaultFormat;
+  }
+
+  /**
+   * Sets the format files given the ppm extension are exported in from now on, which is how the
+   * program is switched to binary P6 files for passing images between stages of a pipeline.
+   *
+   * @param format the new default format
+   * @throws IllegalArgumentException if the format is null
+   */
+  public static synchronized void setDefaultFormat(Format format)
+      throws IllegalArgumentException {
+    if (format == null) {
+      throw new IllegalArgumentException("The format can not be null.");
+    }
+    defaultFormat = format;
+  }
+
   /**
    * Exports the file that we have created either from a file type or programmatically created. We
    * are in the PPM implementing class so we will export a file with name fileName and contents of
    * fileData, as passed. If there is no file already named fileName then we create a new file else
-   * we overwrite.
+   * we overwrite. Grayscale formats store the same gray value the monochrome filter would give
+   * each pixel.
    *
    * @param fileName name of the file when we export
    * @param img the image we are exporting
@@ -38,8 +171,8 @@ public class PPM implements IFileType {
     if (img == null || fileName == null) {
       throw new IllegalArgumentException("The file data and file name can not be null.");
     }
-    try {
-      new FileOutputStream(fileName).write(img.createPPMString().getBytes());
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName))) {
+      this.writeImage(out, img);
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("The file name was invalid: " + fileName);
     } catch (IOException e) {
@@ -47,65 +180,253 @@ public class PPM implements IFileType {
     }
   }
 
+  /**
+   * Writes the given image to the stream in this PPM's format, where each x coordinate of the
+   * image is one row of the file. Plain files are written in the same format as
+   * ImageInterface.createPPMString. The values of one row are put into a buffer at a time, so only
+   * one row is ever held in memory.
+   *
+   * @param out the stream the image is written to
+   * @param img the image we are writing
+   * @throws IOException if the stream can not be written to
+   */
+  private void writeImage(OutputStream out, ImageInterface img) throws IOException {
+    int width = img.getImageWidth();
+    int height = width == 0 ? 0 : img.getImageHeight();
+    out.write((this.format.magic + "\n" + height + " " + width + "\n" + 255 + "\n")
+        .getBytes(StandardCharsets.US_ASCII));
+    int channels = this.format.channels;
+    byte[] row = new byte[channels * height * (this.format.binary ? 1 : BYTES_PER_VALUE)];
+    for (int x = 0; x < width; x++) {
+      int length = 0;
+      for (int y = 0; y < height; y++) {
+        int red = img.getRedAt(x, y);
+        int green = img.getGreenAt(x, y);
+        int blue = img.getBlueAt(x, y);
+        if (channels == 1) {
+          length = this.writeValue(row, length, toGray(red, green, blue));
+        } else {
+          length = this.writeValue(row, length, red);
+          length = this.writeValue(row, length, green);
+          length = this.writeValue(row, length, blue);
+        }
+      }
+      // the last value of a plain file is not followed by a line break
+      if (!this.format.binary && x == width - 1 && length > 0) {
+        length--;
+      }
+      out.write(row, 0, length);
+    }
+  }
+
+  /**
+   * Writes a value into the buffer, either as a single byte or as digits followed by a line break
+   * depending on the format.
+   *
+   * @param buffer the buffer the value is written to
+   * @param offset the index in the buffer the value starts at
+   * @param value the value, which must be between 0 and 255
+   * @return the index in the buffer after the value
+   */
+  private int writeValue(byte[] buffer, int offset, int value) {
+    if (this.format.binary) {
+      buffer[offset++] = (byte) value;
+      return offset;
+    }
+    if (value >= 100) {
+      buffer[offset++] = (byte) ('0' + value / 100);
+    }
+    if (value >= 10) {
+      buffer[offset++] = (byte) ('0' + value / 10 % 10);
+    }
+    buffer[offset++] = (byte) ('0' + value % 10);
+    buffer[offset++] = '\n';
+    return offset;
+  }
+
+  /**
+   * Finds the gray value of a color using the same weights as the monochrome filter.
+   *
+   * @param red the red value
+   * @param green the green value
+   * @param blue the blue value
+   * @return the gray value, between 0 and 255
+   */
+  private static int toGray(int red, int green, int blue) {
+    double gray = .2126 * red + .7152 * green + .0722 * blue;
+    return Math.min(255, (int) (gray + 0.5));
+  }
+
   /**
    * Imports a file and returns the ImageInterface that represents the import file indicated by the
-   * file name. We are in the PPM class so the import file is expected to be of file type PPM.
+   * file name. We are in the PPM class so the import file is expected to be of file type PPM. The
+   * format of the file is found from its magic number, and gray files are imported with the same
+   * value for red, green, and blue.
    *
    * @param fileName the name of the file with root in the project ie: "src/Koala.ppm"
    * @return the ImageInterface representation of the image indicated by the file name
-   * @throws IllegalArgumentException if the file name is null or the file can not be found
+   * @throws IllegalArgumentException if the file name is null, the file can not be found, or the
+   *     file is not a valid PPM file
+   * @throws IllegalStateException if there is an input-output error
    */
-
   @Override
-  public Image importFile(String fileName) throws IllegalArgumentException {
+  public PackedImage importFile(String fileName) throws IllegalArgumentException {
     if (fileName == null) {
       throw new IllegalArgumentException("File name can not be null.");
     }
-    Scanner sc;
-    try {
-      sc = new Scanner(new FileReader(fileName));
+    try (FileInputStream file = new FileInputStream(fileName)) {
+      PPMTokenizer tokens = new PPMTokenizer(new BufferedInputStream(file));
+      String magic = tokens.nextToken();
+      Format fileFormat = Format.fromMagic(magic);
+      if (fileFormat == null) {
+        throw new IllegalArgumentException("Invalid PPM file: the file must begin with P2, P3, "
+            + "P5, or P6.");
+      }
+      int width = tokens.nextInt();
+      int height = tokens.nextInt();
+      // the pixels and a row of the file's bytes must each fit in an array
+      if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE - 8
+          || (long) width * fileFormat.channels * 2 > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("Invalid PPM file: the image is too large.");
+      }
+      int maxValue = tokens.nextInt();
+      if (maxValue < 1 || maxValue > 65535) {
+        throw new IllegalArgumentException("Invalid PPM file: the max value must be between 1 "
+            + "and 65535.");
+      }
+      if (fileFormat.binary) {
+        return this.readBinary(file.getChannel(), tokens.getPosition(), fileFormat, width,
+            height, maxValue);
+      }
+      return this.readPlain(tokens, fileFormat, width, height, maxValue);
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("File " + fileName + " not found!");
+    } catch (IOException e) {
+      throw new IllegalStateException("There was an input/output error.");
     }
-    StringBuilder builder = new StringBuilder();
-    //read the file line by line, and populate a string. This will throw away any comment lines
-    while (sc.hasNextLine()) {
-      String s = sc.nextLine();
-      if (s.charAt(0) != '#') {
-        builder.append(s + System.lineSeparator());
+  }
+
+  /**
+   * Reads the pixels of a plain file from its tokens, where each row of the file becomes an x
+   * coordinate of the image and each column a y coordinate.
+   *
+   * @param tokens the tokens of the file, starting after the header
+   * @param fileFormat the format of the file
+   * @param width the number of columns in the file
+   * @param height the number of rows in the file
+   * @param maxValue the value in the file that stands for full brightness
+   * @return the image held by the file
+   * @throws IllegalArgumentException if the file ends early or holds something other than numbers
+   * @throws IOException if the file can not be read
+   */
+  private PackedImage readPlain(PPMTokenizer tokens, Format fileFormat, int width, int height,
+      int maxValue) throws IllegalArgumentException, IOException {
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < height; i++) { // rows
+      for (int j = 0; j < width; j++) { // "columns"
+        int red = scale(tokens.nextInt(), maxValue);
+        int green = red;
+        int blue = red;
+        if (fileFormat.channels == 3) {
+          green = scale(tokens.nextInt(), maxValue);
+          blue = scale(tokens.nextInt(), maxValue);
+        }
+        pixels[j * height + i] = PackedImage.packRGB(red, green, blue);
       }
     }
+    return new PackedImage(height, width, pixels);
+  }
 
-    //now set up the scanner to read from the string we just built
-    sc = new Scanner(builder.toString());
-
-    String token;
-
-    token = sc.next();
-    if (!token.equals("P3")) {
-      System.out.println("Invalid PPM file: plain RAW file should begin with P3");
+  /**
+   * Reads the pixels of a binary file straight from its bytes, one row of the file at a time,
+   * where each row of the file becomes an x coordinate of the image and each column a y
+   * coordinate. Large files are memory mapped so their bytes are never copied onto the heap.
+   *
+   * @param channel the channel of the file
+   * @param start the index in the file of the first byte of pixel data
+   * @param fileFormat the format of the file
+   * @param width the number of columns in the file
+   * @param height the number of rows in the file
+   * @param maxValue the value in the file that stands for full brightness
+   * @return the image held by the file
+   * @throws IllegalArgumentException if the file ends before every pixel is read
+   * @throws IOException if the file can not be read
+   */
+  private PackedImage readBinary(FileChannel channel, long start, Format fileFormat, int width,
+      int height, int maxValue) throws IllegalArgumentException, IOException {
+    int bytesPerValue = maxValue < 256 ? 1 : 2;
+    int rowBytes = width * fileFormat.channels * bytesPerValue;
+    long size = (long) rowBytes * height;
+    if (channel.size() - start < size) {
+      throw new IllegalArgumentException("Invalid PPM file: the file ended early.");
     }
-    int width = sc.nextInt();
-    int height = sc.nextInt();
-    int maxValue = sc.nextInt();
-
-    List<List<Integer>> redChannel = new ArrayList<>();
-    List<List<Integer>> greenChannel = new ArrayList<>();
-    List<List<Integer>> blueChannel = new ArrayList<>();
-
-    // fill the rows with the data at the indicated location of (j,i)
+    ByteBuffer data;
+    if (size >= MAP_THRESHOLD) {
+      data = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+    } else {
+      data = ByteBuffer.allocate((int) size);
+      while (data.hasRemaining() && channel.read(data, start + data.position()) != -1) {
+        // keep reading until the buffer is full
+      }
+      data.flip();
+    }
+    int[] pixels = new int[width * height];
+    byte[] row = new byte[rowBytes];
     for (int i = 0; i < height; i++) { // rows
-      // establishes the rows of lists
-      redChannel.add(new ArrayList<>());
-      greenChannel.add(new ArrayList<>());
-      blueChannel.add(new ArrayList<>());
+      data.get(row);
+      int b = 0;
       for (int j = 0; j < width; j++) { // "columns"
-        // fills in the values in the columns
-        redChannel.get(i).add(sc.nextInt());
-        greenChannel.get(i).add(sc.nextInt());
-        blueChannel.get(i).add(sc.nextInt());
+        int red;
+        int green;
+        int blue;
+        if (bytesPerValue == 1 && maxValue == 255) {
+          red = row[b++] & 0xFF;
+          green = fileFormat.channels == 3 ? row[b++] & 0xFF : red;
+          blue = fileFormat.channels == 3 ? row[b++] & 0xFF : red;
+        } else {
+          red = scale(readValue(row, b, bytesPerValue), maxValue);
+          b += bytesPerValue;
+          green = red;
+          blue = red;
+          if (fileFormat.channels == 3) {
+            green = scale(readValue(row, b, bytesPerValue), maxValue);
+            blue = scale(readValue(row, b + bytesPerValue, bytesPerValue), maxValue);
+            b += 2 * bytesPerValue;
+          }
+        }
+        pixels[j * height + i] = PackedImage.packRGB(red, green, blue);
       }
     }
-    return new Image(redChannel, greenChannel, blueChannel);
+    return new PackedImage(height, width, pixels);
+  }
+
+  /**
+   * Reads one value of a binary file, which is either one byte or two bytes with the most
+   * significant byte first.
+   *
+   * @param row the bytes of a row of the file
+   * @param offset the index of the value in the row
+   * @param bytesPerValue the number of bytes each value takes up
+   * @return the value
+   */
+  private static int readValue(byte[] row, int offset, int bytesPerValue) {
+    if (bytesPerValue == 1) {
+      return row[offset] & 0xFF;
+    }
+    return ((row[offset] & 0xFF) << 8) | (row[offset + 1] & 0xFF);
+  }
+
+  /**
+   * Scales a value from a file with the given max value to be between 0 and 255.
+   *
+   * @param value the value read from the file
+   * @param maxValue the value in the file that stands for full brightness
+   * @return the scaled value
+   */
+  private static int scale(int value, int maxValue) {
+    if (maxValue == 255) {
+      return Math.min(value, 255);
+    }
+    return (int) Math.min(255, ((long) value * 255 + maxValue / 2) / maxValue);
   }
 }
\ No newline at end of file
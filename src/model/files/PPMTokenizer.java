@@ -0,0 +1,126 @@
+package model.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the whitespace separated tokens of a PPM file one byte at a time, skipping any comments
+ * that start with '#' and run to the end of the line. Numbers are parsed straight from the bytes
+ * rather than being turned into Strings first, so a file can be read without ever holding more
+ * than the current number in memory. The given stream should be buffered. The tokenizer keeps
+ * count of how many bytes it has read, so that the binary pixel data after the header of a P6 or
+ * P5 file can be found in the file.
+ */
+class PPMTokenizer {
+
+  private final InputStream in;
+  private long position;
+
+  /**
+   * Constructor.
+   *
+   * @param in the stream the tokens are read from
+   */
+  PPMTokenizer(InputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * Reads the next token as a String. This is only meant for short tokens such as the magic
+   * number at the start of the file.
+   *
+   * @return the next token
+   * @throws IllegalArgumentException if the file ends before the token
+   * @throws IOException if the stream can not be read
+   */
+  String nextToken() throws IllegalArgumentException, IOException {
+    int b = this.skipToToken();
+    StringBuilder token = new StringBuilder();
+    while (b != -1 && !isWhitespace(b)) {
+      token.append((char) b);
+      b = this.read();
+    }
+    return token.toString();
+  }
+
+  /**
+   * Reads the next token as a non negative integer. Exactly one whitespace byte after the number
+   * is consumed, so that binary data following a header starts at the next byte of the stream.
+   *
+   * @return the value of the next token
+   * @throws IllegalArgumentException if the file ends before the token or the token is not a
+   *     number
+   * @throws IOException if the stream can not be read
+   */
+  int nextInt() throws IllegalArgumentException, IOException {
+    int b = this.skipToToken();
+    int value = 0;
+    int digits = 0;
+    while (b != -1 && !isWhitespace(b)) {
+      if (b < '0' || b > '9' || digits == 9) {
+        throw new IllegalArgumentException("Invalid PPM file: expected a number.");
+      }
+      value = value * 10 + (b - '0');
+      digits++;
+      b = this.read();
+    }
+    return value;
+  }
+
+  /**
+   * Gets the number of bytes read from the stream so far.
+   *
+   * @return the index in the file of the next byte the tokenizer would read
+   */
+  long getPosition() {
+    return this.position;
+  }
+
+  /**
+   * Reads the next byte of the stream, counting it if it is not the end of the stream.
+   *
+   * @return the next byte, or -1 at the end of the stream
+   * @throws IOException if the stream can not be read
+   */
+  private int read() throws IOException {
+    int b = this.in.read();
+    if (b != -1) {
+      this.position++;
+    }
+    return b;
+  }
+
+  /**
+   * Skips whitespace and comments until the first byte of the next token.
+   *
+   * @return the first byte of the next token
+   * @throws IllegalArgumentException if the file ends before the next token
+   * @throws IOException if the stream can not be read
+   */
+  private int skipToToken() throws IllegalArgumentException, IOException {
+    int b = this.read();
+    while (b != -1 && (isWhitespace(b) || b == '#')) {
+      if (b == '#') {
+        while (b != -1 && b != '\n' && b != '\r') {
+          b = this.read();
+        }
+      } else {
+        b = this.read();
+      }
+    }
+    if (b == -1) {
+      throw new IllegalArgumentException("Invalid PPM file: the file ended early.");
+    }
+    return b;
+  }
+
+  /**
+   * Determines if the given byte is whitespace in a PPM file.
+   *
+   * @param b the byte
+   * @return true if the byte is a space, tab, or line break, false otherwise
+   */
+  private static boolean isWhitespace(int b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+  }
+}
@@ -0,0 +1,526 @@
+package model.files;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import model.ILayer;
+import model.Layer;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+
+/**
+ * Reads and writes a whole project, meaning every layer of a multi layered image, as one file
+ * rather than as a folder holding a file for each layer and a locations.txt file. The file starts
+ * with a header and a table describing each layer, followed by the pixels of each layer stored as
+ * three planes of bytes: the red value of every pixel, then the green, then the blue. The planes
+ * of a layer are either stored as they are, or, when it makes them smaller, compressed without
+ * losing anything by storing each value as its difference from the value to its left and deflating
+ * the result. Opening a project only reads the header and table. The planes of a layer are read
+ * from a memory map of the file when the layer is asked for, so only the layers that are needed
+ * are ever read, and layers stored as they are are copied straight out of the map.
+ *
+ * <p>Every number is big-endian, and the file is laid out as:
+ * <ul>
+ *   <li>the bytes "IPGP", the version of the layout as a short, and the number of layers as an
+ *   int</li>
+ *   <li>for each layer, its visibility and how its planes are stored as a byte each, the length of
+ *   its name in UTF-8 as a short followed by the name, or -1 if it has no name, its width and
+ *   height as ints, and the position and length of its planes in the file as longs</li>
+ *   <li>the planes of each layer, in the order of the table</li>
+ * </ul>
+ */
+public final class ProjectFile {
+
+  // the extension project files are saved with
+  public static final String EXTENSION = "imgproj";
+  private static final byte[] MAGIC = {'I', 'P', 'G', 'P'};
+  private static final short VERSION = 1;
+  // the bytes the header takes up before the table
+  private static final int HEADER_BYTES = MAGIC.length + 2 + 4;
+  // the bytes an entry in the table takes up besides the name
+  private static final int ENTRY_BYTES = 1 + 1 + 2 + 4 + 4 + 8 + 8;
+  // the ways the planes of a layer can be stored
+  private static final byte NO_IMAGE = 0;
+  private static final byte RAW = 1;
+  private static final byte DEFLATED = 2;
+  // the most bytes handed to the deflater or inflater at a time
+  private static final int CHUNK = 1 << 16;
+
+  private final Entry[] entries;
+
+  /**
+   * Constructor.
+   *
+   * @param entries the layers of the project as described by its table
+   */
+  private ProjectFile(Entry[] entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Writes the given layers to a project file, replacing the file if it already exists. The file
+   * is written under a temporary name first and only then moved to the given name, so a project
+   * that is open while it is saved over keeps reading the file it was opened from.
+   *
+   * @param fileName the name of the project file
+   * @param layers the layers of the project, from the bottom layer to the top layer
+   * @param compress true to compress the planes of each layer whenever that makes them smaller,
+   *     false to always store them as they are, which is larger but quicker to read and write
+   * @throws IllegalArgumentException if either param is null, or a layer is null or too large to
+   *     be stored
+   * @throws IOException if the file can not be written
+   */
+  public static void write(String fileName, List<ILayer> layers, boolean compress)
+      throws IllegalArgumentException, IOException {
+    if (fileName == null || layers == null) {
+      throw new IllegalArgumentException("At least one param was null.");
+    }
+    byte[][] names = new byte[layers.size()][];
+    long tableBytes = HEADER_BYTES;
+    for (int i = 0; i < names.length; i++) {
+      ILayer layer = layers.get(i);
+      if (layer == null) {
+        throw new IllegalArgumentException("Layer " + (i + 1) + " is null.");
+      }
+      if (layer.getFileName() != null) {
+        names[i] = layer.getFileName().getBytes(StandardCharsets.UTF_8);
+        if (names[i].length > Short.MAX_VALUE) {
+          throw new IllegalArgumentException("The name of layer " + (i + 1) + " is too long.");
+        }
+      }
+      tableBytes += ENTRY_BYTES + (names[i] == null ? 0 : names[i].length);
+    }
+    if (tableBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("There are too many layers to store.");
+    }
+    Path target = Paths.get(fileName);
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer table = ByteBuffer.allocate((int) tableBytes);
+        table.put(MAGIC).putShort(VERSION).putInt(names.length);
+        channel.position(tableBytes);
+        for (int i = 0; i < names.length; i++) {
+          writeLayer(channel, table, layers.get(i), names[i], compress);
+        }
+        channel.truncate(channel.position());
+        table.flip();
+        for (long position = 0; table.hasRemaining(); ) {
+          position += channel.write(table, position);
+        }
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Writes the planes of a layer at the current position of the channel, and its entry in the
+   * table.
+   *
+   * @param channel the channel of the file being written
+   * @param table the table being filled in
+   * @param layer the layer
+   * @param name the name of the layer in UTF-8, or null if it has no name
+   * @param compress true to compress the planes if that makes them smaller
+   * @throws IllegalArgumentException if the image of the layer is too large to be stored
+   * @throws IOException if the planes can not be written
+   */
+  private static void writeLayer(FileChannel channel, ByteBuffer table, ILayer layer, byte[] name,
+      boolean compress) throws IllegalArgumentException, IOException {
+    ImageInterface img = layer.getImage();
+    PackedImage packed = null;
+    if (img != null) {
+      packed = img instanceof PackedImage ? (PackedImage) img : PackedImage.fromImage(img);
+    }
+    int width = packed == null ? 0 : packed.getImageWidth();
+    int height = width == 0 ? 0 : packed.getImageHeight();
+    long rawBytes = 3L * width * height;
+    if (rawBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The image in layer " + layer.getFileName()
+          + " is too large to store.");
+    }
+    long offset = channel.position();
+    byte encoding = packed == null ? NO_IMAGE : RAW;
+    if (packed != null && compress && rawBytes > 0) {
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+        DeflaterOutputStream out = new DeflaterOutputStream(Channels.newOutputStream(channel),
+            deflater, CHUNK);
+        writePlanes(out, packed, true);
+        out.finish();
+      } finally {
+        deflater.end();
+      }
+      if (channel.position() - offset < rawBytes) {
+        encoding = DEFLATED;
+      } else {
+        // values that do not compress, such as noise, are quicker to read as they are
+        channel.position(offset);
+      }
+    }
+    if (encoding == RAW) {
+      OutputStream out = Channels.newOutputStream(channel);
+      writePlanes(out, packed, false);
+    }
+    table.put((byte) (layer.getVisibility() ? 1 : 0)).put(encoding);
+    if (name == null) {
+      table.putShort((short) -1);
+    } else {
+      table.putShort((short) name.length).put(name);
+    }
+    table.putInt(width).putInt(height).putLong(offset).putLong(channel.position() - offset);
+  }
+
+  /**
+   * Writes the red, then the green, then the blue plane of an image, one row at a time.
+   *
+   * @param out where the planes are written
+   * @param img the image
+   * @param difference true to write each value as its difference from the value to its left,
+   *     which compresses far better for anything other than noise
+   * @throws IOException if the planes can not be written
+   */
+  private static void writePlanes(OutputStream out, PackedImage img, boolean difference)
+      throws IOException {
+    int width = img.getImageWidth();
+    int height = width == 0 ? 0 : img.getImageHeight();
+    int[] pixels = img.getPixels();
+    int rowsPerChunk = Math.max(1, CHUNK / Math.max(1, width));
+    byte[] rows = new byte[Math.min(height, rowsPerChunk) * width];
+    for (int shift = 16; shift >= 0; shift -= 8) {
+      for (int y = 0; y < height; y += rowsPerChunk) {
+        int count = Math.min(rowsPerChunk, height - y);
+        for (int r = 0; r < count; r++) {
+          int start = (y + r) * width;
+          int previous = 0;
+          for (int x = 0; x < width; x++) {
+            int value = (pixels[start + x] >> shift) & 0xFF;
+            rows[r * width + x] = (byte) (difference ? value - previous : value);
+            previous = value;
+          }
+        }
+        out.write(rows, 0, count * width);
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Opens a project file by reading its header and table. The pixels of the layers are not read
+   * until they are asked for.
+   *
+   * @param fileName the name of the project file
+   * @return the opened project
+   * @throws IllegalArgumentException if the file name is null, the file does not exist, or the
+   *     file is not a project file this version of the program can read
+   * @throws IOException if the file can not be read
+   */
+  public static ProjectFile open(String fileName) throws IllegalArgumentException, IOException {
+    if (fileName == null) {
+      throw new IllegalArgumentException("The file name was null.");
+    }
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      long size = channel.size();
+      // the table is at the start of the file, so a map of the start of the file holds all of it
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+          Math.min(size, Integer.MAX_VALUE));
+      byte[] magic = new byte[MAGIC.length];
+      header.get(magic);
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (magic[i] != MAGIC[i]) {
+          throw new IllegalArgumentException("Not a project file: " + fileName);
+        }
+      }
+      short version = header.getShort();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported project file version: " + version);
+      }
+      int count = header.getInt();
+      if (count < 0) {
+        throw new IllegalArgumentException("Invalid project file: negative layer count.");
+      }
+      Entry[] entries = new Entry[count];
+      for (int i = 0; i < count; i++) {
+        entries[i] = readEntry(header, channel, size);
+      }
+      // the maps stay valid once the channel is closed
+      return new ProjectFile(entries);
+    } catch (NoSuchFileException e) {
+      throw new IllegalArgumentException("The file " + fileName + " was not found.");
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Invalid project file: the file ended early.");
+    }
+  }
+
+  /**
+   * Reads the entry of a layer from the table and maps the planes of the layer.
+   *
+   * @param header the map of the start of the file, positioned at the entry
+   * @param channel the channel of the file
+   * @param size the size of the file in bytes
+   * @return the entry
+   * @throws IllegalArgumentException if the entry is not valid
+   * @throws IOException if the planes can not be mapped
+   */
+  private static Entry readEntry(ByteBuffer header, FileChannel channel, long size)
+      throws IllegalArgumentException, IOException {
+    boolean visible = header.get() != 0;
+    byte encoding = header.get();
+    short nameLength = header.getShort();
+    String name = null;
+    if (nameLength >= 0) {
+      byte[] nameBytes = new byte[nameLength];
+      header.get(nameBytes);
+      name = new String(nameBytes, StandardCharsets.UTF_8);
+    }
+    int width = header.getInt();
+    int height = header.getInt();
+    long offset = header.getLong();
+    long length = header.getLong();
+    long rawBytes = 3L * width * height;
+    if (encoding < NO_IMAGE || encoding > DEFLATED || width < 0 || height < 0
+        || rawBytes > Integer.MAX_VALUE || offset < 0 || length < 0 || offset + length > size
+        || (encoding == RAW && length != rawBytes) || length > rawBytes) {
+      throw new IllegalArgumentException("Invalid project file: the entry of layer "
+          + name + " is not valid.");
+    }
+    ByteBuffer planes = null;
+    if (encoding != NO_IMAGE) {
+      planes = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+    return new Entry(name, visible, encoding, width, height, planes);
+  }
+
+  /**
+   * Gets the number of layers in the project.
+   *
+   * @return the number of layers
+   */
+  public int getLayerCount() {
+    return this.entries.length;
+  }
+
+  /**
+   * Gets the name of a layer.
+   *
+   * @param index the index of the layer, where 0 is the bottom layer
+   * @return the name of the layer, or null if it has none
+   * @throws IllegalArgumentException if there is no layer at the index
+   */
+  public String getName(int index) throws IllegalArgumentException {
+    return this.entry(index).name;
+  }
+
+  /**
+   * Gets whether a layer is visible.
+   *
+   * @param index the index of the layer, where 0 is the bottom layer
+   * @return true if the layer is visible
+   * @throws IllegalArgumentException if there is no layer at the index
+   */
+  public boolean isVisible(int index) throws IllegalArgumentException {
+    return this.entry(index).visible;
+  }
+
+  /**
+   * Gets the width of the image in a layer without reading the image.
+   *
+   * @param index the index of the layer, where 0 is the bottom layer
+   * @return the width of the image, or 0 if the layer has no image
+   * @throws IllegalArgumentException if there is no layer at the index
+   */
+  public int getWidth(int index) throws IllegalArgumentException {
+    return this.entry(index).width;
+  }
+
+  /**
+   * Gets the height of the image in a layer without reading the image.
+   *
+   * @param index the index of the layer, where 0 is the bottom layer
+   * @return the height of the image, or 0 if the layer has no image
+   * @throws IllegalArgumentException if there is no layer at the index
+   */
+  public int getHeight(int index) throws IllegalArgumentException {
+    return this.entry(index).height;
+  }
+
+  /**
+   * Reads the image in a layer from the file. Each call reads the image again, and different
+   * layers may be read at the same time.
+   *
+   * @param index the index of the layer, where 0 is the bottom layer
+   * @return the image, or null if the layer has no image
+   * @throws IllegalArgumentException if there is no layer at the index, or its planes are corrupt
+   */
+  public PackedImage readImage(int index) throws IllegalArgumentException {
+    Entry entry = this.entry(index);
+    if (entry.encoding == NO_IMAGE) {
+      return null;
+    }
+    int width = entry.width;
+    int height = entry.height;
+    int[] pixels = new int[width * height];
+    ByteBuffer data = entry.planes.duplicate();
+    byte[] row = new byte[width];
+    Inflater inflater = entry.encoding == DEFLATED ? new Inflater() : null;
+    byte[] chunk = inflater == null ? null : new byte[Math.min(CHUNK, data.remaining())];
+    try {
+      for (int shift = 16; shift >= 0; shift -= 8) {
+        for (int y = 0; y < height; y++) {
+          int start = y * width;
+          if (inflater == null) {
+            data.get(row);
+            for (int x = 0; x < width; x++) {
+              pixels[start + x] |= (row[x] & 0xFF) << shift;
+            }
+          } else {
+            inflate(inflater, data, chunk, row);
+            int value = 0;
+            for (int x = 0; x < width; x++) {
+              value = (value + row[x]) & 0xFF;
+              pixels[start + x] |= value << shift;
+            }
+          }
+        }
+      }
+    } finally {
+      if (inflater != null) {
+        inflater.end();
+      }
+    }
+    return new PackedImage(width, height, pixels);
+  }
+
+  /**
+   * Reads every layer of the project. Only the images of visible layers are read straight away.
+   * Invisible layers read their images from this project the first time they are asked for, and
+   * can drop them and read them again later.
+   *
+   * @return the layers, from the bottom layer to the top layer
+   * @throws IllegalArgumentException if the planes of a visible layer are corrupt
+   */
+  public List<ILayer> readLayers() throws IllegalArgumentException {
+    List<ILayer> layers = new ArrayList<>();
+    for (int i = 0; i < this.entries.length; i++) {
+      Entry entry = this.entries[i];
+      if (!entry.visible && entry.name != null && entry.encoding != NO_IMAGE) {
+        int index = i;
+        layers.add(new Layer(() -> this.readImage(index), entry.name, false));
+        continue;
+      }
+      Layer layer = new Layer();
+      layer.setVisible(entry.visible);
+      if (entry.name != null) {
+        layer.setName(entry.name);
+      }
+      PackedImage img = this.readImage(i);
+      if (img != null) {
+        layer.setImage(img);
+      }
+      layers.add(layer);
+    }
+    return layers;
+  }
+
+  /**
+   * Fills a row with the next bytes out of the inflater, handing it more of the compressed planes
+   * whenever it runs out.
+   *
+   * @param inflater the inflater
+   * @param data the rest of the compressed planes
+   * @param chunk the buffer the compressed bytes are copied into
+   * @param row the row to fill
+   * @throws IllegalArgumentException if the compressed planes are corrupt or end early
+   */
+  private static void inflate(Inflater inflater, ByteBuffer data, byte[] chunk, byte[] row)
+      throws IllegalArgumentException {
+    try {
+      for (int filled = 0; filled < row.length; ) {
+        int inflated = inflater.inflate(row, filled, row.length - filled);
+        filled += inflated;
+        if (inflated == 0 && filled < row.length) {
+          if (inflater.finished() || inflater.needsDictionary() || !data.hasRemaining()) {
+            throw new IllegalArgumentException("Invalid project file: a layer ended early.");
+          }
+          if (inflater.needsInput()) {
+            int count = Math.min(chunk.length, data.remaining());
+            data.get(chunk, 0, count);
+            inflater.setInput(chunk, 0, count);
+          }
+        }
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Invalid project file: a layer is corrupt.");
+    }
+  }
+
+  /**
+   * Gets the entry of a layer.
+   *
+   * @param index the index of the layer
+   * @return the entry
+   * @throws IllegalArgumentException if there is no layer at the index
+   */
+  private Entry entry(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= this.entries.length) {
+      throw new IllegalArgumentException("There is no layer " + index + " in the project.");
+    }
+    return this.entries[index];
+  }
+
+  /**
+   * The entry of a layer in the table, along with a map of its planes.
+   */
+  private static class Entry {
+    private final String name;
+    private final boolean visible;
+    private final byte encoding;
+    private final int width;
+    private final int height;
+    private final ByteBuffer planes;
+
+    /**
+     * Constructor.
+     *
+     * @param name the name of the layer, or null if it has none
+     * @param visible the visibility of the layer
+     * @param encoding how the planes of the layer are stored
+     * @param width the width of the image in the layer
+     * @param height the height of the image in the layer
+     * @param planes the map of the planes, or null if the layer has no image
+     */
+    Entry(String name, boolean visible, byte encoding, int width, int height, ByteBuffer planes) {
+      this.name = name;
+      this.visible = visible;
+      this.encoding = encoding;
+      this.width = width;
+      this.height = height;
+      this.planes = planes;
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package model.filters;
+
+import static model.image.Image.clamp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+
+/**
+ * The abstract class is used to abstract filters whose operating matrix is separable, meaning it
+ * is the outer product of a single row of weights with itself. Such a filter can be applied as a
+ * horizontal pass with the row of weights followed by a vertical pass with the same weights, which
+ * reads 2 * (2 * radius + 1) pixels for every pixel instead of (2 * radius + 1) squared. Pixels
+ * that would hang over the edge of the image are handled according to the filter's EdgeMode.
+ */
+public abstract class AbstractSeparableFilter implements IFilter {
+
+  protected final int radius;
+  protected final EdgeMode edgeMode;
+  private final double[] weights;
+
+  /**
+   * Constructor for the extending classes, which give the row of weights of their filter, where
+   * the weight given to the pixel k - radius away from the filtered pixel is at index k. The
+   * weights are copied, so changing the given array afterwards does not change the filter.
+   *
+   * @param weights the 2 * radius + 1 weights of the filter
+   * @param edgeMode how pixels that would hang over the edge of the image are treated
+   * @throws IllegalArgumentException if the weights or edge mode is null, or if there is not an
+   *     odd number of weights
+   */
+  protected AbstractSeparableFilter(double[] weights, EdgeMode edgeMode)
+      throws IllegalArgumentException {
+    if (weights == null || edgeMode == null) {
+      throw new IllegalArgumentException("The weights and edge mode can not be null.");
+    }
+    if (weights.length % 2 == 0) {
+      throw new IllegalArgumentException("There must be an odd number of weights.");
+    }
+    this.weights = weights.clone();
+    this.radius = weights.length / 2;
+    this.edgeMode = edgeMode;
+  }
+
+  /**
+   * Gets the row of weights of this filter, as given to the constructor.
+   *
+   * @return a copy of the weights
+   */
+  public double[] getWeights() {
+    return this.weights.clone();
+  }
+
+  /**
+   * Returns a list of three integers where the first item is the new Red value, followed by the new
+   * Green and Blue value at the (x,y) pixel index. Each row the filter reads is weighted across
+   * first and the rows are then weighted down, in the same order as the bulk apply method, so both
+   * give exactly the same result.
+   *
+   * @param x   the x coordinate of the pixel location we want to filter
+   * @param y   the y coordinate of the pixel location we want to filter
+   * @param img the img we are filtering
+   * @return an array list where the first integer is the new Red pixel value at (x,y) after filter,
+   *     followed by the new Blue pixel value at (x,y), then finally the new Green pixel value at
+   *     (x,y)
+   * @throws IllegalArgumentException if img is null or if the x and y are out of range
+   */
+  @Override
+  public List<Integer> newColorValsAt(int x, int y, ImageInterface img)
+      throws IllegalArgumentException {
+    if (img == null) {
+      throw new IllegalArgumentException("The image can not be null.");
+    }
+    int width = img.getImageWidth();
+    int height = img.getImageHeight();
+    if (x < 0 || y < 0 || x >= width || y >= height) {
+      throw new IllegalArgumentException("There is no pixel at the given x,y.");
+    }
+    double newValRed = 0.0;
+    double newValGreen = 0.0;
+    double newValBlue = 0.0;
+    for (int ky = 0; ky < this.weights.length; ky++) {
+      int yOfPixel = this.edgeMode.resolve(y - this.radius + ky, height);
+      if (yOfPixel < 0) {
+        continue;
+      }
+      double rowRed = 0.0;
+      double rowGreen = 0.0;
+      double rowBlue = 0.0;
+      for (int kx = 0; kx < this.weights.length; kx++) {
+        int xOfPixel = this.edgeMode.resolve(x - this.radius + kx, width);
+        if (xOfPixel >= 0) {
+          rowRed += this.weights[kx] * img.getRedAt(xOfPixel, yOfPixel);
+          rowGreen += this.weights[kx] * img.getGreenAt(xOfPixel, yOfPixel);
+          rowBlue += this.weights[kx] * img.getBlueAt(xOfPixel, yOfPixel);
+        }
+      }
+      newValRed += this.weights[ky] * rowRed;
+      newValGreen += this.weights[ky] * rowGreen;
+      newValBlue += this.weights[ky] * rowBlue;
+    }
+    return new ArrayList<>(Arrays.asList(clamp(newValRed), clamp(newValGreen),
+        clamp(newValBlue)));
+  }
+
+  /**
+   * Filters the given rows of the image in two passes. Each row of src is weighted across once
+   * into a ring of 2 * radius + 1 rows, and each filtered row is the weighted sum of the rows in
+   * the ring, so only as many rows as the filter reaches are ever kept. Only the rows needed by
+   * this band are weighted across, so bands of the same image can be filtered at the same time.
+   *
+   * @param src the image we are filtering
+   * @param dst the array the filtered pixels are written to
+   * @param startRow the first row to filter
+   * @param endRow the row after the last row to filter
+   * @throws IllegalArgumentException if src or dst is null, if dst is the wrong size, or if the
+   *     rows are out of range
+   */
+  @Override
+  public void apply(PackedImage src, int[] dst, int startRow, int endRow)
+      throws IllegalArgumentException {
+    FilterUtil.checkBulkArgs(src, dst, startRow, endRow);
+    int[] pixels = src.getPixels();
+    int width = src.getImageWidth();
+    int height = src.getImageHeight();
+    int taps = this.weights.length;
+    // ring[i] holds the horizontal pass of the row ringRows[i], which may be past the edge of the
+    // image, as the red, green, and blue sums of each pixel one after the other
+    double[][] ring = new double[taps][3 * width];
+    int[] ringRows = new int[taps];
+    boolean[] ringUsed = new boolean[taps];
+    Arrays.fill(ringRows, Integer.MIN_VALUE);
+    double[] sums = new double[3 * width];
+    for (int y = startRow; y < endRow; y++) {
+      Arrays.fill(sums, 0.0);
+      for (int ky = 0; ky < taps; ky++) {
+        int row = y - this.radius + ky;
+        int slot = Math.floorMod(row, taps);
+        if (ringRows[slot] != row) {
+          ringRows[slot] = row;
+          int yOfPixel = this.edgeMode.resolve(row, height);
+          ringUsed[slot] = yOfPixel >= 0;
+          if (ringUsed[slot]) {
+            this.weighRow(pixels, width, yOfPixel, ring[slot]);
+          }
+        }
+        if (!ringUsed[slot]) {
+          continue;
+        }
+        double[] rowSums = ring[slot];
+        double weight = this.weights[ky];
+        for (int i = 0; i < sums.length; i++) {
+          sums[i] += weight * rowSums[i];
+        }
+      }
+      for (int x = 0; x < width; x++) {
+        dst[y * width + x] = PackedImage.packRGB(clamp(sums[3 * x]), clamp(sums[3 * x + 1]),
+            clamp(sums[3 * x + 2]));
+      }
+    }
+  }
+
+  /**
+   * Applies the horizontal pass to one row of the image.
+   *
+   * @param pixels the packed pixels of the image we are filtering
+   * @param width the width of the image
+   * @param y the row to weigh
+   * @param row the array the red, green, and blue sums of each pixel of the row are written to,
+   *     one after the other
+   */
+  private void weighRow(int[] pixels, int width, int y, double[] row) {
+    int left = Math.min(this.radius, width);
+    int right = Math.max(left, width - this.radius);
+    for (int x = 0; x < width; x++) {
+      double red = 0.0;
+      double green = 0.0;
+      double blue = 0.0;
+      if (x >= left && x < right) {
+        int first = y * width + x - this.radius;
+        for (int kx = 0; kx < this.weights.length; kx++) {
+          int rgb = pixels[first + kx];
+          red += this.weights[kx] * ((rgb >> 16) & 0xFF);
+          green += this.weights[kx] * ((rgb >> 8) & 0xFF);
+          blue += this.weights[kx] * (rgb & 0xFF);
+        }
+      } else {
+        for (int kx = 0; kx < this.weights.length; kx++) {
+          int xOfPixel = this.edgeMode.resolve(x - this.radius + kx, width);
+          if (xOfPixel >= 0) {
+            int rgb = pixels[y * width + xOfPixel];
+            red += this.weights[kx] * ((rgb >> 16) & 0xFF);
+            green += this.weights[kx] * ((rgb >> 8) & 0xFF);
+            blue += this.weights[kx] * (rgb & 0xFF);
+          }
+        }
+      }
+      row[3 * x] = red;
+      row[3 * x + 1] = green;
+      row[3 * x + 2] = blue;
+    }
+  }
+
+  /**
+   * Returns true since the weights are found once when the filter is created and never changed,
+   * so bands of rows can be filtered at the same time.
+   *
+   * @return true
+   */
+  @Override
+  public boolean isParallelSafe() {
+    return true;
+  }
+
+  /**
+   * Returns 8 * radius, since every band weighs the 2 * radius rows around it across as well as its
+   * own rows. Bands at least four times as tall as that overlap keep the extra work below a quarter
+   * however large the radius is.
+   *
+   * @return the fewest rows in a band
+   */
+  @Override
+  public int getMinBandRows() {
+    return 8 * this.radius;
+  }
+}
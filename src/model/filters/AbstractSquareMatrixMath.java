@@ -6,28 +6,56 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * The abstract class is used to abstract filters with the same founding matrix principles where
  * the operating matrix is square and the new pixel is defined as a constant multiplied by the
- * surrounding values indicated in the operating matrix.
+ * surrounding values indicated in the operating matrix. The matrix is built once, when the filter
+ * is created, and the pixels it would read past the edge of the image are handled according to the
+ * filter's EdgeMode.
  */
 public abstract class AbstractSquareMatrixMath implements IFilter {
 
-  protected ArrayList<ArrayList<Double>> transposeMatrix;
-  protected int dimension;
-  protected int shifter;
+  protected final int dimension;
+  protected final int shifter;
+  protected final EdgeMode edgeMode;
+  private final double[] kernel;
 
   /**
-   * Sets the preconditions for blur or sharpen or any other future similar type of arithmetic
-   * matrices.
+   * Constructor for the extending classes, which give the operating matrix of their filter
+   * flattened so that the value the pixel xt - shifter across and yt - shifter down from the
+   * filtered pixel is multiplied by is at index xt * dimension + yt. The matrix is copied, so
+   * changing the given array afterwards does not change the filter.
    *
-   * @param x the x coordinate of the pixel we are modifying
-   * @param y the y coordinate of the pixel we are modifying
-   * @param width the width of the image we are modifying
-   * @param height the height of the image we are modifying
+   * @param kernel the flattened operating matrix
+   * @param dimension the number of rows and columns in the operating matrix, which must be odd
+   * @param edgeMode how pixels that would hang over the edge of the image are treated
+   * @throws IllegalArgumentException if the kernel or edge mode is null, if the dimension is not
+   *     a positive odd number, or if the kernel does not hold dimension * dimension values
    */
-  protected abstract void preConditions(int x, int y, int width, int height);
+  protected AbstractSquareMatrixMath(double[] kernel, int dimension, EdgeMode edgeMode)
+      throws IllegalArgumentException {
+    if (kernel == null || edgeMode == null) {
+      throw new IllegalArgumentException("The kernel and edge mode can not be null.");
+    }
+    if (dimension < 1 || dimension % 2 == 0 || kernel.length != dimension * dimension) {
+      throw new IllegalArgumentException("The kernel must be a square of odd dimension.");
+    }
+    this.kernel = kernel.clone();
+    this.dimension = dimension;
+    this.shifter = dimension / 2;
+    this.edgeMode = edgeMode;
+  }
+
+  /**
+   * Gets the flattened operating matrix of this filter, as given to the constructor.
+   *
+   * @return a copy of the operating matrix
+   */
+  public double[] getKernel() {
+    return this.kernel.clone();
+  }
 
   /**
    * Returns a list of three integers where the first item is the new Red value, followed by the new
@@ -54,25 +82,19 @@ public abstract class AbstractSquareMatrixMath implements IFilter {
     if (x < 0 || y < 0 || x >= width || y >= height) {
       throw new IllegalArgumentException("There is no pixel at the given x,y.");
     }
-    // we call the preconditions to get the system ready to execute the method
-    this.preConditions(x, y, width, height);
-    // now calculate what the value at the index should be
     int newValRed = 0;
     int newValGreen = 0;
     int newValBlue = 0;
     for (int xt = 0; xt < this.dimension; xt++) {
+      int xOfPixel = this.edgeMode.resolve(x - this.shifter + xt, width);
       for (int yt = 0; yt < this.dimension; yt++) {
-        double transposeValAtJI = this.transposeMatrix.get(xt).get(yt);
-        // since in any null pointer case we have already set the corresponding overhang position
-        // to 0.0 in the transposition matrix and if it is 0.0 we dont care anyways we crush two
-        // birds with one stone
-        if (transposeValAtJI != 0.0) {
-          newValRed += transposeValAtJI * (double) img.getRedAt(x - shifter + xt,
-              y - shifter + yt);
-          newValGreen += transposeValAtJI * (double) img.getGreenAt(x - shifter + xt,
-              y - shifter + yt);
-          newValBlue += transposeValAtJI * (double) img.getBlueAt(x - shifter + xt,
-              y - shifter + yt);
+        int yOfPixel = this.edgeMode.resolve(y - this.shifter + yt, height);
+        double kernelVal = this.kernel[xt * this.dimension + yt];
+        // pixels the edge mode says to leave out, and pixels multiplied by 0.0, add nothing
+        if (xOfPixel >= 0 && yOfPixel >= 0 && kernelVal != 0.0) {
+          newValRed += kernelVal * (double) img.getRedAt(xOfPixel, yOfPixel);
+          newValGreen += kernelVal * (double) img.getGreenAt(xOfPixel, yOfPixel);
+          newValBlue += kernelVal * (double) img.getBlueAt(xOfPixel, yOfPixel);
         }
       }
     }
@@ -83,28 +105,123 @@ public abstract class AbstractSquareMatrixMath implements IFilter {
   }
 
   /**
-   * Goes through the set transpose and sets all the values at the x coordinate to 0.0 since there
-   * is no pixel there so we set the value to 0.0 so we do not accidentally try to perform
-   * arithmetic and result in a NullPointerException.
+   * Filters the given rows of the image without creating any objects per pixel. The non zero
+   * values of the kernel are first turned into offsets into the pixel array, so pixels far enough
+   * from the edge are filtered by a loop with no bounds checks at all. Only the pixels within
+   * shifter of the edge go through the edge mode.
    *
-   * @param x all the values in the transpose set that has the indicated x value will be set to 0.0
+   * @param src the image we are filtering
+   * @param dst the array the filtered pixels are written to
+   * @param startRow the first row to filter
+   * @param endRow the row after the last row to filter
+   * @throws IllegalArgumentException if src or dst is null, if dst is the wrong size, or if the
+   *     rows are out of range
    */
-  protected void trimTopBottomList(int x) {
-    for (int i = 0; i < this.dimension; i++) {
-      this.transposeMatrix.get(i).set(x, 0.0);
+  @Override
+  public void apply(PackedImage src, int[] dst, int startRow, int endRow)
+      throws IllegalArgumentException {
+    FilterUtil.checkBulkArgs(src, dst, startRow, endRow);
+    int[] pixels = src.getPixels();
+    int width = src.getImageWidth();
+    int height = src.getImageHeight();
+    // the taps are kept in the same order as the kernel so the sums round the same way
+    int taps = 0;
+    for (double kernelVal : this.kernel) {
+      if (kernelVal != 0.0) {
+        taps++;
+      }
+    }
+    double[] weights = new double[taps];
+    int[] xOffsets = new int[taps];
+    int[] yOffsets = new int[taps];
+    int[] offsets = new int[taps];
+    int tap = 0;
+    for (int xt = 0; xt < this.dimension; xt++) {
+      for (int yt = 0; yt < this.dimension; yt++) {
+        double kernelVal = this.kernel[xt * this.dimension + yt];
+        if (kernelVal != 0.0) {
+          weights[tap] = kernelVal;
+          xOffsets[tap] = xt - this.shifter;
+          yOffsets[tap] = yt - this.shifter;
+          offsets[tap] = yOffsets[tap] * width + xOffsets[tap];
+          tap++;
+        }
+      }
+    }
+    int left = Math.min(this.shifter, width);
+    int right = Math.max(left, width - this.shifter);
+    for (int y = startRow; y < endRow; y++) {
+      if (y < this.shifter || y >= height - this.shifter) {
+        for (int x = 0; x < width; x++) {
+          dst[y * width + x] = this.filterEdgePixel(pixels, width, height, x, y, weights,
+              xOffsets, yOffsets);
+        }
+        continue;
+      }
+      for (int x = 0; x < left; x++) {
+        dst[y * width + x] = this.filterEdgePixel(pixels, width, height, x, y, weights,
+            xOffsets, yOffsets);
+      }
+      for (int i = y * width + left; i < y * width + right; i++) {
+        int newValRed = 0;
+        int newValGreen = 0;
+        int newValBlue = 0;
+        for (int t = 0; t < taps; t++) {
+          int rgb = pixels[i + offsets[t]];
+          newValRed += weights[t] * (double) ((rgb >> 16) & 0xFF);
+          newValGreen += weights[t] * (double) ((rgb >> 8) & 0xFF);
+          newValBlue += weights[t] * (double) (rgb & 0xFF);
+        }
+        dst[i] = PackedImage.packRGB(clamp(newValRed), clamp(newValGreen), clamp(newValBlue));
+      }
+      for (int x = right; x < width; x++) {
+        dst[y * width + x] = this.filterEdgePixel(pixels, width, height, x, y, weights,
+            xOffsets, yOffsets);
+      }
     }
   }
 
   /**
-   * Goes through the set transpose and sets all the values at the y coordinate to 0.0 since there
-   * is no pixel there so we set the value to 0.0 so we do not accidentally try to perform
-   * arithmetic and result in a NullPointerException.
+   * Filters a pixel close enough to the edge of the image that some of the pixels the kernel reads
+   * may hang over it, finding the pixel to read in their place through the edge mode.
    *
-   * @param y all the values in the transpose set that has the indicated y value will be set to 0.0
+   * @param pixels the packed pixels of the image we are filtering
+   * @param width the width of the image
+   * @param height the height of the image
+   * @param x the x coordinate of the pixel we are filtering
+   * @param y the y coordinate of the pixel we are filtering
+   * @param weights the non zero values of the kernel
+   * @param xOffsets how far across from the filtered pixel each weight is applied
+   * @param yOffsets how far down from the filtered pixel each weight is applied
+   * @return the packed filtered color of the pixel
    */
-  protected void trimSideLeftRight(int y) {
-    for (int i = 0; i < this.dimension; i++) {
-      this.transposeMatrix.get(y).set(i, 0.0);
+  private int filterEdgePixel(int[] pixels, int width, int height, int x, int y,
+      double[] weights, int[] xOffsets, int[] yOffsets) {
+    int newValRed = 0;
+    int newValGreen = 0;
+    int newValBlue = 0;
+    for (int t = 0; t < weights.length; t++) {
+      int xOfPixel = this.edgeMode.resolve(x + xOffsets[t], width);
+      int yOfPixel = this.edgeMode.resolve(y + yOffsets[t], height);
+      if (xOfPixel < 0 || yOfPixel < 0) {
+        continue;
+      }
+      int rgb = pixels[yOfPixel * width + xOfPixel];
+      newValRed += weights[t] * (double) ((rgb >> 16) & 0xFF);
+      newValGreen += weights[t] * (double) ((rgb >> 8) & 0xFF);
+      newValBlue += weights[t] * (double) (rgb & 0xFF);
     }
+    return PackedImage.packRGB(clamp(newValRed), clamp(newValGreen), clamp(newValBlue));
+  }
+
+  /**
+   * Returns true since the kernel is built once when the filter is created and never changed, so
+   * bands of rows can be filtered at the same time.
+   *
+   * @return true
+   */
+  @Override
+  public boolean isParallelSafe() {
+    return true;
   }
-}
\ No newline at end of file
+}
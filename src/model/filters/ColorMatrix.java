@@ -0,0 +1,53 @@
+package model.filters;
+
+import java.util.ArrayList;
+
+/**
+ * Represents a color filter with any matrix, rather than one fixed like monochrome or sepia. This
+ * is what two color filters multiplied together with AbstractColorFilter.andThen become, and can
+ * also be used to apply a color change of the caller's own.
+ */
+public class ColorMatrix extends AbstractColorFilter {
+
+  private final double[][] rows;
+
+  /**
+   * Constructor.
+   *
+   * @param rows the matrix, where rows[out][in] is the amount of old color in that new color out
+   *     takes, with red, green, and blue numbered 0, 1, and 2
+   * @throws IllegalArgumentException if the matrix is null or is not three rows of three values
+   */
+  public ColorMatrix(double[][] rows) throws IllegalArgumentException {
+    if (rows == null || rows.length != 3) {
+      throw new IllegalArgumentException("The matrix must have three rows.");
+    }
+    this.rows = new double[3][];
+    for (int out = 0; out < 3; out++) {
+      if (rows[out] == null || rows[out].length != 3) {
+        throw new IllegalArgumentException("Every row of the matrix must have three values.");
+      }
+      this.rows[out] = rows[out].clone();
+    }
+    this.transpose = this.setTranspose();
+  }
+
+  /**
+   * Sets the transpose field to the appropriate transpose matrix to apply a certain filter.
+   * Extending classes must implement this method to return this matrix.
+   *
+   * @return a transpose matrix used to apply a color filter
+   */
+  @Override
+  protected ArrayList<ArrayList<Double>> setTranspose() {
+    ArrayList<ArrayList<Double>> transpose = new ArrayList<>();
+    for (int in = 0; in < 3; in++) {
+      ArrayList<Double> column = new ArrayList<>();
+      for (int out = 0; out < 3; out++) {
+        column.add(this.rows[out][in]);
+      }
+      transpose.add(column);
+    }
+    return transpose;
+  }
+}
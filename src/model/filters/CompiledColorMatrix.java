@@ -0,0 +1,147 @@
+package model.filters;
+
+import static model.image.Image.clamp;
+
+import model.image.PackedImage;
+
+/**
+ * A color matrix turned, once, into the cheapest form each of its new colors can be found in. A
+ * new color that only takes from one of the old colors is read out of a table of all 256 answers.
+ * The others are found with whole number coefficients out of 1 << PRECISION, which is about twice
+ * as fast as multiplying doubles, unless the coefficients are so large the sums could overflow.
+ *
+ * <p>The whole numbers are not quite the coefficients, so for each new color the most the sum can
+ * be off by is worked out too. Whenever a sum lands that close to halfway between two values, and
+ * so might round the other way, the new color is found again with doubles exactly as
+ * AbstractColorFilter always has, so filtering through this class never changes a single pixel.
+ * That happens for fewer than one pixel in a thousand.
+ */
+class CompiledColorMatrix {
+
+  // large enough to make close calls rare, and small enough that no sum can overflow an int
+  private static final int PRECISION = 20;
+  private static final int HALF = 1 << (PRECISION - 1);
+  private static final int FRACTION = (1 << PRECISION) - 1;
+
+  // the matrix as given, where new color out takes matrix[out * 3 + in] of old color in
+  private final double[] matrix;
+  // the table each new color is read from, or null if it is found with whole numbers
+  private final int[][] tables;
+  // which of the old colors each table is indexed by, as how far it is shifted in a packed pixel
+  private final int[] tableShifts;
+  private final int[] coefficients;
+  // how close to halfway a whole number sum has to be for it to be worked out again with doubles
+  private final int[] margins;
+  // the earlier new color each new color is copied from because their rows are the same, or -1
+  private final int[] sameAs;
+
+  /**
+   * Constructor that compiles the given color matrix.
+   *
+   * @param matrix the matrix, where new color out takes matrix[out * 3 + in] of old color in
+   */
+  CompiledColorMatrix(double[] matrix) {
+    this.matrix = matrix.clone();
+    this.tables = new int[3][];
+    this.tableShifts = new int[3];
+    this.coefficients = new int[9];
+    this.margins = new int[3];
+    this.sameAs = new int[] {-1, -1, -1};
+    for (int out = 0; out < 3; out++) {
+      for (int earlier = 0; earlier < out && this.sameAs[out] < 0; earlier++) {
+        if (this.matrix[out * 3] == this.matrix[earlier * 3]
+            && this.matrix[out * 3 + 1] == this.matrix[earlier * 3 + 1]
+            && this.matrix[out * 3 + 2] == this.matrix[earlier * 3 + 2]) {
+          this.sameAs[out] = earlier;
+        }
+      }
+      int takesFrom = -1;
+      int inputs = 0;
+      double total = 0.0;
+      for (int in = 0; in < 3; in++) {
+        if (this.matrix[out * 3 + in] != 0.0) {
+          takesFrom = in;
+          inputs++;
+        }
+        total += Math.abs(this.matrix[out * 3 + in]);
+      }
+      if (inputs <= 1) {
+        // the other two terms are zero, which adds nothing to the sum, so the table is exact
+        int in = Math.max(takesFrom, 0);
+        double coefficient = this.matrix[out * 3 + in];
+        this.tables[out] = new int[256];
+        for (int value = 0; value < 256; value++) {
+          this.tables[out][value] = clamp(coefficient * value);
+        }
+        this.tableShifts[out] = 16 - 8 * in;
+      } else if (!(total < 7.5)) {
+        // the sums could overflow an int, since 8 * 255 << PRECISION is just under 1 << 31, so
+        // this new color is always found with doubles
+        this.margins[out] = Integer.MAX_VALUE;
+      } else {
+        double error = 0.0;
+        for (int in = 0; in < 3; in++) {
+          double scaled = this.matrix[out * 3 + in] * (1 << PRECISION);
+          this.coefficients[out * 3 + in] = (int) Math.round(scaled);
+          error += Math.abs(this.coefficients[out * 3 + in] - scaled) * 255;
+        }
+        // the extra room covers the doubles themselves being rounded along the way
+        this.margins[out] = (int) Math.ceil(error) + 2;
+      }
+    }
+  }
+
+  /**
+   * Applies the matrix to a run of packed pixels.
+   *
+   * @param from the packed pixels to read
+   * @param to the array the new pixels are written to, which may be the same as from
+   * @param start the index of the first pixel
+   * @param end the index after the last pixel
+   */
+  void apply(int[] from, int[] to, int start, int end) {
+    for (int i = start; i < end; i++) {
+      to[i] = this.apply(from[i]);
+    }
+  }
+
+  /**
+   * Applies the matrix to a single packed pixel.
+   *
+   * @param rgb the packed 0xRRGGBB color of the pixel
+   * @return the new packed color of the pixel
+   */
+  int apply(int rgb) {
+    int red = this.newColor(0, rgb);
+    int green = this.sameAs[1] == 0 ? red : this.newColor(1, rgb);
+    int blue = this.sameAs[2] == 0 ? red : this.sameAs[2] == 1 ? green : this.newColor(2, rgb);
+    return PackedImage.packRGB(red, green, blue);
+  }
+
+  /**
+   * Finds one new color of a pixel.
+   *
+   * @param out the new color to find (0 for red, 1 for green, and 2 for blue)
+   * @param rgb the packed 0xRRGGBB color of the pixel
+   * @return the new color value, between 0 and 255
+   */
+  int newColor(int out, int rgb) {
+    int[] table = this.tables[out];
+    if (table != null) {
+      return table[(rgb >> this.tableShifts[out]) & 0xFF];
+    }
+    int r = (rgb >> 16) & 0xFF;
+    int g = (rgb >> 8) & 0xFF;
+    int b = rgb & 0xFF;
+    int sum = this.coefficients[out * 3] * r + this.coefficients[out * 3 + 1] * g
+        + this.coefficients[out * 3 + 2] * b + HALF;
+    int fraction = sum & FRACTION;
+    if (fraction < this.margins[out] || fraction > FRACTION - this.margins[out]) {
+      // too close to call, so found the way AbstractColorFilter always has
+      return clamp(this.matrix[out * 3] * r + this.matrix[out * 3 + 1] * g
+          + this.matrix[out * 3 + 2] * b);
+    }
+    int value = sum >> PRECISION;
+    return value < 0 ? 0 : Math.min(value, 255);
+  }
+}
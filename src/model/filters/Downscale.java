@@ -1,9 +1,8 @@
 package model.filters;
 
-import java.util.ArrayList;
-import java.util.List;
-import model.image.Image;
+import java.util.concurrent.CancellationException;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * Represents the downscaling filter where an image or a multi layer image has all of the images
@@ -45,30 +44,21 @@ public class Downscale extends AbstractApplyAllStatus {
         || originalImage.getImageHeight() < this.newHeight) {
       throw new IllegalArgumentException("Invalid downscale attempted");
     }
-    List<List<Integer>> red = new ArrayList<>();
-    List<List<Integer>> green = new ArrayList<>();
-    List<List<Integer>> blue = new ArrayList<>();
-
     // initialize the image to the new desired height and width
-    for (int x = 0; x < newWidth; x++) {
-      red.add(new ArrayList<>());
-      green.add(new ArrayList<>());
-      blue.add(new ArrayList<>());
-      for (int y = 0; y < newHeight; y++) {
-        red.get(x).add(null);
-        green.get(x).add(null);
-        blue.get(x).add(null);
-      }
-    }
+    int[] pixels = new int[newWidth * newHeight];
 
     for (int x = 0; x < newWidth; x++) {
+      // a cancelled operation stops between columns rather than finishing the whole image
+      if (Thread.currentThread().isInterrupted()) {
+        throw new CancellationException("The downscale was interrupted.");
+      }
       for (int y = 0; y < newHeight; y++) {
         double xOfOld = (double) x * originalImage.getImageWidth() / newWidth;
         double yOfOld = (double) y * originalImage.getImageHeight() / newHeight;
         int cpRed;
         int cpGreen;
         int cpBlue;
-        if (xOfOld == Math.floor(xOfOld) || yOfOld == Math.floor(yOfOld)) {
+        if (xOfOld == Math.floor(xOfOld) && yOfOld == Math.floor(yOfOld)) {
           // we know it is an integer
           int xOfOldInt = (int) xOfOld;
           int yOfOldInt = (int) yOfOld;
@@ -99,12 +89,10 @@ public class Downscale extends AbstractApplyAllStatus {
               originalImage.getBlueAt((int) Math.floor(xOfOld), (int) Math.ceil(yOfOld)),
               originalImage.getBlueAt((int) Math.ceil(xOfOld), (int) Math.ceil(yOfOld)));
         }
-        red.get(x).set(y, cpRed);
-        green.get(x).set(y, cpGreen);
-        blue.get(x).set(y, cpBlue);
+        pixels[y * newWidth + x] = PackedImage.packRGB(cpRed, cpGreen, cpBlue);
       }
     }
-    return new Image(red, green, blue);
+    return new PackedImage(newWidth, newHeight, pixels);
   }
 
   /**
@@ -119,9 +107,13 @@ public class Downscale extends AbstractApplyAllStatus {
    * @return the new color value at what was the old x and y
    */
   private int cpValue(double xOld, double yOld, int ca, int cb, int cc, int cd) {
-    int m = (int) (cb*(xOld - Math.floor(xOld)) + ca*(Math.ceil(xOld) - xOld));
-    int n = (int) (cd*(xOld - Math.floor(xOld)) + cc*(Math.ceil(xOld) - xOld));
-    return (int) (n*(yOld - Math.floor(yOld)) + m*(Math.ceil(yOld) - yOld));
+    // the weights are taken from the fractions rather than from the distances to the ceilings,
+    // which would both be zero along a row or column that falls exactly on an old pixel
+    double xFraction = xOld - Math.floor(xOld);
+    double yFraction = yOld - Math.floor(yOld);
+    int m = (int) (cb*xFraction + ca*(1 - xFraction));
+    int n = (int) (cd*xFraction + cc*(1 - xFraction));
+    return (int) (n*yFraction + m*(1 - yFraction));
   }
 
   @Override
@@ -0,0 +1,45 @@
+package model.filters;
+
+/**
+ * Represents the ways a filter that reads the pixels around each pixel, such as blur or sharpen,
+ * can treat the pixels that would hang over the edge of the image.
+ */
+public enum EdgeMode {
+  // pixels past the edge are left out, as if they were black and added nothing
+  ZERO,
+  // pixels past the edge take the color of the nearest pixel on the edge
+  CLAMP,
+  // pixels past the edge are reflected back into the image about the edge pixel
+  MIRROR,
+  // pixels past the edge wrap around to the opposite side of the image
+  WRAP;
+
+  /**
+   * Finds the index of the pixel that should be read in place of the one at the given index along
+   * one side of an image.
+   *
+   * @param index the index of the pixel, which may be outside of the image
+   * @param size the number of pixels along this side of the image, which must be positive
+   * @return the index of the pixel to read, or -1 if nothing should be read
+   */
+  public int resolve(int index, int size) {
+    if (index >= 0 && index < size) {
+      return index;
+    }
+    switch (this) {
+      case CLAMP:
+        return index < 0 ? 0 : size - 1;
+      case MIRROR:
+        if (size == 1) {
+          return 0;
+        }
+        int period = 2 * (size - 1);
+        int reflected = Math.floorMod(index, period);
+        return reflected < size ? reflected : period - reflected;
+      case WRAP:
+        return Math.floorMod(index, size);
+      default:
+        return -1;
+    }
+  }
+}
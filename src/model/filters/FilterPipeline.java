@@ -0,0 +1,204 @@
+package model.filters;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.image.FilterEngine;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+
+/**
+ * Represents a chain of filters applied one after another to the current layer, done in as few
+ * passes over the image as possible. Color filters only look at one pixel at a time, so rather
+ * than each getting a pass of its own they are applied to every row a filter like blur or sharpen
+ * writes straight after it is written, while the row is still in the cache. Color filters before
+ * the first of those filters share a single pass of their own.
+ *
+ * <p>Consecutive color filters are also multiplied into a single matrix when the earlier one can
+ * never push a color past 0 or 255, as is the case for monochrome, since then it does not matter
+ * that the colors are no longer clamped in between. The colors are still not rounded in between
+ * either, so the colors a multiplied matrix gives can be one off from applying its filters one at a
+ * time, and the filters after it carry that difference on. Color filters that can clamp, like
+ * sepia, are applied one after the other in the same pass instead.
+ */
+public class FilterPipeline extends AbstractApplyAllStatus {
+
+  private final List<Stage> stages;
+
+  /**
+   * Constructor that works out the passes the given chain of filters is applied in.
+   *
+   * @param filters the filters to apply, in the order they are applied
+   * @throws IllegalArgumentException if the list is null or empty or holds a null filter
+   */
+  public FilterPipeline(List<IFilter> filters) throws IllegalArgumentException {
+    if (filters == null || filters.isEmpty()) {
+      throw new IllegalArgumentException("The pipeline needs at least one filter.");
+    }
+    this.applyToAll = false;
+    this.stages = new ArrayList<>();
+    Stage stage = new Stage(null);
+    for (IFilter filter : filters) {
+      if (filter == null) {
+        throw new IllegalArgumentException("The filters can not be null.");
+      }
+      if (filter instanceof AbstractColorFilter) {
+        stage.addColor(((AbstractColorFilter) filter).toMatrix());
+      } else {
+        if (stage.filter != null || !stage.colors.isEmpty()) {
+          this.stages.add(stage);
+        }
+        stage = new Stage(filter);
+      }
+    }
+    this.stages.add(stage);
+    for (Stage each : this.stages) {
+      each.compile();
+    }
+  }
+
+  /**
+   * Gets the number of passes over the image this pipeline takes.
+   *
+   * @return the number of passes
+   */
+  public int getPassCount() {
+    return this.stages.size();
+  }
+
+  @Override
+  public ImageInterface applyEffect(ImageInterface originalImage)
+      throws IllegalArgumentException {
+    if (originalImage == null) {
+      throw new IllegalArgumentException("Null image given.");
+    }
+    PackedImage src = originalImage instanceof PackedImage
+        ? (PackedImage) originalImage : PackedImage.fromImage(originalImage);
+    int width = src.getImageWidth();
+    int height = src.getImageHeight();
+    FilterEngine engine = FilterEngine.getDefault();
+    // two arrays are enough for any number of passes, since each pass only reads the one before
+    int[][] buffers = new int[2][];
+    for (int i = 0; i < this.stages.size(); i++) {
+      Stage stage = this.stages.get(i);
+      if (buffers[i % 2] == null) {
+        buffers[i % 2] = new int[width * height];
+      }
+      int[] dst = buffers[i % 2];
+      PackedImage in = src;
+      if (stage.filter != null && !stage.filter.isParallelSafe()) {
+        stage.filter.apply(in, dst);
+        engine.forEachBand(height, width,
+            (startRow, endRow) -> stage.applyColors(dst, dst, startRow * width, endRow * width));
+      } else {
+        int minRows = stage.filter == null ? 1 : stage.filter.getMinBandRows();
+        engine.forEachBand(height, width, minRows, (startRow, endRow) -> {
+          if (stage.filter == null) {
+            stage.applyColors(in.getPixels(), dst, startRow * width, endRow * width);
+          } else {
+            stage.filter.apply(in, dst, startRow, endRow);
+            stage.applyColors(dst, dst, startRow * width, endRow * width);
+          }
+        });
+      }
+      src = new PackedImage(width, height, dst);
+    }
+    return src;
+  }
+
+  /**
+   * One pass over the image, made up of a filter that reads the pixels around each pixel, which is
+   * null for a pass of only color filters, and the color filters applied to what it writes.
+   */
+  private static class Stage {
+    private final IFilter filter;
+    // each matrix is laid out as in AbstractColorFilter.toMatrix
+    private final List<double[]> colors;
+    private CompiledColorMatrix[] compiled;
+
+    /**
+     * Constructor for a pass with no color filters yet.
+     *
+     * @param filter the filter the pass starts with, or null if it only has color filters
+     */
+    Stage(IFilter filter) {
+      this.filter = filter;
+      this.colors = new ArrayList<>();
+    }
+
+    /**
+     * Adds a color filter to the end of this pass, multiplying it into the last color filter if
+     * that one can not clamp any color.
+     *
+     * @param matrix the matrix of the color filter
+     */
+    void addColor(double[] matrix) {
+      int last = this.colors.size() - 1;
+      if (last >= 0 && staysInRange(this.colors.get(last))) {
+        this.colors.set(last, AbstractColorFilter.multiply(matrix, this.colors.get(last)));
+      } else {
+        this.colors.add(matrix);
+      }
+    }
+
+    /**
+     * Compiles the color filters of this pass once they have all been added.
+     */
+    void compile() {
+      this.compiled = new CompiledColorMatrix[this.colors.size()];
+      for (int i = 0; i < this.compiled.length; i++) {
+        this.compiled[i] = new CompiledColorMatrix(this.colors.get(i));
+      }
+    }
+
+    /**
+     * Applies the color filters of this pass to a run of pixels.
+     *
+     * @param from the packed pixels to read
+     * @param to the array the filtered pixels are written to, which may be the same as from
+     * @param start the index of the first pixel
+     * @param end the index after the last pixel
+     */
+    void applyColors(int[] from, int[] to, int start, int end) {
+      if (this.compiled.length == 0) {
+        if (from != to) {
+          System.arraycopy(from, start, to, start, end - start);
+        }
+        return;
+      }
+      if (this.compiled.length == 1) {
+        this.compiled[0].apply(from, to, start, end);
+        return;
+      }
+      for (int i = start; i < end; i++) {
+        int rgb = from[i];
+        for (CompiledColorMatrix matrix : this.compiled) {
+          rgb = matrix.apply(rgb);
+        }
+        to[i] = rgb;
+      }
+    }
+
+    /**
+     * Determines if a color matrix keeps every color between 0 and 255, which is true when none of
+     * its values are negative and each new color takes at most all of the old colors together.
+     *
+     * @param matrix the color matrix
+     * @return true if the matrix can never push a color past 0 or 255, false otherwise
+     */
+    private static boolean staysInRange(double[] matrix) {
+      for (int out = 0; out < 3; out++) {
+        double sum = 0.0;
+        for (int in = 0; in < 3; in++) {
+          if (matrix[out * 3 + in] < 0.0) {
+            return false;
+          }
+          sum += matrix[out * 3 + in];
+        }
+        if (sum > 1.0 + 1e-9) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package model.filters;
+
+import model.image.PackedImage;
+
+/**
+ * Utility class holding the checks shared by every bulk implementation of IFilter.apply, so that
+ * each filter does not have to repeat them.
+ */
+class FilterUtil {
+
+  /**
+   * Checks that the arguments passed to a bulk apply call are valid.
+   *
+   * @param src the image being filtered
+   * @param dst the array the filtered pixels are written to
+   * @param startRow the first row to filter
+   * @param endRow the row after the last row to filter
+   * @throws IllegalArgumentException if src or dst is null, if dst is not the same size as the
+   *     number of pixels in src, or if the rows are out of range
+   */
+  static void checkBulkArgs(PackedImage src, int[] dst, int startRow, int endRow)
+      throws IllegalArgumentException {
+    if (src == null || dst == null) {
+      throw new IllegalArgumentException("The image and destination can not be null.");
+    }
+    if (dst.length != src.getPixels().length) {
+      throw new IllegalArgumentException("The destination is not the same size as the image.");
+    }
+    if (startRow < 0 || endRow > src.getImageHeight() || startRow > endRow) {
+      throw new IllegalArgumentException("The rows given are out of range.");
+    }
+  }
+}
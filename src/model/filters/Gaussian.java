@@ -0,0 +1,65 @@
+package model.filters;
+
+/**
+ * Represents a Gaussian blur of any radius. Unlike Blur, which always reads the 3x3 block around
+ * each pixel, the Gaussian blur is applied as a horizontal pass followed by a vertical pass, so a
+ * blur of radius r reads 2 * (2 * r + 1) pixels for each pixel rather than (2 * r + 1) squared,
+ * which keeps large blurs cheap.
+ */
+public class Gaussian extends AbstractSeparableFilter {
+
+  /**
+   * Constructor for a Gaussian blur of the given radius, with a standard deviation of a third of
+   * the radius so that the weights fall to almost nothing at the edge of the radius. Pixels that
+   * would hang over the edge of the image are left out.
+   *
+   * @param radius how many pixels away from each pixel the blur reaches
+   * @throws IllegalArgumentException if the radius is not positive
+   */
+  public Gaussian(int radius) throws IllegalArgumentException {
+    this(radius, radius / 3.0, EdgeMode.ZERO);
+  }
+
+  /**
+   * Constructor for a Gaussian blur of the given radius and standard deviation.
+   *
+   * @param radius how many pixels away from each pixel the blur reaches
+   * @param sigma the standard deviation of the Gaussian the weights are taken from
+   * @param edgeMode how pixels that would hang over the edge of the image are treated
+   * @throws IllegalArgumentException if the radius or sigma is not positive, or if the edge mode
+   *     is null
+   */
+  public Gaussian(int radius, double sigma, EdgeMode edgeMode) throws IllegalArgumentException {
+    super(createWeights(radius, sigma), edgeMode);
+  }
+
+  /**
+   * Creates the values of the Gaussian with the given standard deviation at each distance from
+   * -radius to radius, scaled so that they add up to 1 and the blur does not brighten or darken
+   * the image.
+   *
+   * @param radius how many pixels away from each pixel the blur reaches
+   * @param sigma the standard deviation of the Gaussian
+   * @return the 2 * radius + 1 weights of the blur
+   * @throws IllegalArgumentException if the radius or sigma is not positive
+   */
+  private static double[] createWeights(int radius, double sigma)
+      throws IllegalArgumentException {
+    if (radius < 1) {
+      throw new IllegalArgumentException("The radius must be positive.");
+    }
+    if (!(sigma > 0)) {
+      throw new IllegalArgumentException("The standard deviation must be positive.");
+    }
+    double[] gaussian = new double[2 * radius + 1];
+    double total = 0.0;
+    for (int k = -radius; k <= radius; k++) {
+      gaussian[k + radius] = Math.exp(-(k * k) / (2 * sigma * sigma));
+      total += gaussian[k + radius];
+    }
+    for (int k = 0; k < gaussian.length; k++) {
+      gaussian[k] /= total;
+    }
+    return gaussian;
+  }
+}
@@ -1,14 +1,18 @@
 package model.filters;
 
 import java.util.List;
+import model.image.Image;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * The IFilter interface allows the system to have one method newColorValsAt which returns an
  * Arraylist of the new Red, Green, and Blue pixel value at the index indicated by the parameters .
  * The interface allows for new filters to easily be added by simply implementing IFilter than
  * implementing the newColorValsAt method accordingly to the specific filter case. We made this
- * design decision to let dynamic dispatch de-clutter and abstract our code.
+ * design decision to let dynamic dispatch de-clutter and abstract our code. Filters can also be
+ * applied in bulk to a whole PackedImage through the apply methods, which write straight into a
+ * preallocated array of packed pixels instead of creating a list for every pixel.
  */
 public interface IFilter {
 
@@ -30,4 +34,72 @@ public interface IFilter {
   List<Integer> newColorValsAt(int x, int y, ImageInterface img)
       throws IllegalArgumentException;
 
+  /**
+   * Filters every pixel of the given image and writes the new packed 0xRRGGBB values into dst, in
+   * the same row-major order as the pixels of src.
+   *
+   * @param src the image we are filtering
+   * @param dst the array the filtered pixels are written to, which must be the same size as the
+   *     number of pixels in src
+   * @throws IllegalArgumentException if src or dst is null, or if dst is the wrong size
+   */
+  default void apply(PackedImage src, int[] dst) throws IllegalArgumentException {
+    if (src == null) {
+      throw new IllegalArgumentException("The image can not be null.");
+    }
+    this.apply(src, dst, 0, src.getImageHeight());
+  }
+
+  /**
+   * Filters the rows of the given image from startRow (inclusive) to endRow (exclusive) and writes
+   * the new packed 0xRRGGBB values into the same positions of dst. Rows outside of the range are
+   * left untouched, which allows an image to be filtered one band of rows at a time. The default
+   * implementation falls back on newColorValsAt for every pixel, so filters that can work on
+   * whole rows at once should override it.
+   *
+   * @param src the image we are filtering
+   * @param dst the array the filtered pixels are written to, which must be the same size as the
+   *     number of pixels in src
+   * @param startRow the first row to filter
+   * @param endRow the row after the last row to filter
+   * @throws IllegalArgumentException if src or dst is null, if dst is the wrong size, or if the
+   *     rows are out of range
+   */
+  default void apply(PackedImage src, int[] dst, int startRow, int endRow)
+      throws IllegalArgumentException {
+    FilterUtil.checkBulkArgs(src, dst, startRow, endRow);
+    int width = src.getImageWidth();
+    for (int y = startRow; y < endRow; y++) {
+      for (int x = 0; x < width; x++) {
+        List<Integer> newVals = this.newColorValsAt(x, y, src);
+        dst[y * width + x] = PackedImage.packRGB(Image.clamp(newVals.get(0)),
+            Image.clamp(newVals.get(1)), Image.clamp(newVals.get(2)));
+      }
+    }
+  }
+
+  /**
+   * Determines if the bulk apply method can be called on different bands of rows of the same image
+   * at the same time. Filters that change their own state while filtering, which includes any
+   * filter relying on the default apply method, must return false so that they are only ever
+   * applied one band at a time.
+   *
+   * @return true if bands of rows can be filtered in parallel, false otherwise
+   */
+  default boolean isParallelSafe() {
+    return false;
+  }
+
+  /**
+   * Gets the fewest rows a band of this filter should hold when an image is split into bands that
+   * are filtered at the same time. Filters that have to redo work for the rows around every band,
+   * like a separable filter weighing the rows its vertical pass reaches across, need bands a good
+   * deal taller than that overlap so that splitting the image does not cost more than it saves.
+   *
+   * @return the fewest rows in a band, which is at least 1
+   */
+  default int getMinBandRows() {
+    return 1;
+  }
+
 }
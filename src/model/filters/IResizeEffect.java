@@ -0,0 +1,24 @@
+package model.filters;
+
+/**
+ * The IResizeEffect interface is used for effects that change the size of an image to a fixed new
+ * width and height. The result of these effects only depends on the original image closely enough
+ * that they can start from a smaller copy of the image that is still at least the new size, which
+ * is much faster than starting from the full image when shrinking it a lot.
+ */
+public interface IResizeEffect extends IEffect {
+
+  /**
+   * Gets the width of the image after the effect is applied.
+   *
+   * @return the new width
+   */
+  int getNewWidth();
+
+  /**
+   * Gets the height of the image after the effect is applied.
+   *
+   * @return the new height
+   */
+  int getNewHeight();
+}
@@ -3,7 +3,8 @@ package model.filters;
 /**
  * Represents the interface for a seed which is a randomly generated point in a mosaic image,
  * the interface allows us to make method signatures clear and allow later functionality of
- * seed.
+ * seed. A seed only keeps the running sums of the values added to it and how many pixels they
+ * came from, so it takes the same memory however many pixels are closest to it.
  */
 public interface ISeed {
 
@@ -43,28 +44,49 @@ public interface ISeed {
   int getYOfSeed();
 
   /**
-   * Adds the red value to the list of blue values.
+   * Adds the red value to the sum of red values, counting one more pixel as closest to this seed.
    *
-   * @param newRed the red value to be added to the list
+   * @param newRed the red value to be added to the sum
    */
   void addRed(int newRed);
 
   /**
-   * Adds the green value to the list of blue values.
+   * Adds the green value to the sum of green values.
    *
-   * @param newGreen the green value to be added to the list
+   * @param newGreen the green value to be added to the sum
    */
   void addGreen(int newGreen);
 
   /**
-   * Adds the blue value to the list of blue values.
+   * Adds the blue value to the sum of blue values.
    *
-   * @param newBlue the blue value to be added to the list
+   * @param newBlue the blue value to be added to the sum
    */
   void addBlue(int newBlue);
 
   /**
-   * Sets the final r, g, and b values by taking the average values of the items in the list.
+   * Adds the color of one pixel closest to this seed, the same as calling addRed, addGreen, and
+   * addBlue with its values.
+   *
+   * @param red the red value of the pixel
+   * @param green the green value of the pixel
+   * @param blue the blue value of the pixel
+   */
+  void addColor(int red, int green, int blue);
+
+  /**
+   * Adds the sums of the colors of several pixels closest to this seed at once, which is how the
+   * sums of separate bands of an image are merged.
+   *
+   * @param redSum the sum of the red values of the pixels
+   * @param greenSum the sum of the green values of the pixels
+   * @param blueSum the sum of the blue values of the pixels
+   * @param pixels the number of pixels the sums are of
+   */
+  void addColors(long redSum, long greenSum, long blueSum, int pixels);
+
+  /**
+   * Sets the final r, g, and b values by dividing the sums by the number of pixels added.
    */
   void setAverages();
 
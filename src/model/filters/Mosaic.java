@@ -4,25 +4,59 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import model.image.FilterEngine;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * Represents the mosaic filter which filters an image based on grouping random pixels together
  * and then finding the average value of the seeds closest to the seed and finding the average r
- * g and b values and setting all of the pixels closest to said pixel to that average.
+ * g and b values and setting all of the pixels closest to said pixel to that average. The closest
+ * seed to each pixel is found exactly through a SeedGrid, and a pixel equally close to several
+ * seeds goes to the one that comes first when ordered by SeedComparator. Which seed each pixel
+ * belongs to is kept as one int per pixel, and each seed only keeps running sums of its pixels.
+ * The pixels are assigned to their seeds in bands of rows on a FilterEngine, with each band
+ * summing its own pixels before the sums are merged. Since the sums are whole numbers the order
+ * the bands finish in never changes them, so the same two Randoms always give the same mosaic.
  */
 public class Mosaic implements IMosaic {
+  private final FilterEngine engine;
   private int seeds;
   private List<ISeed> seedList;
-  private List<List<IPosn>> posnList;
+  // the index in seedList of the seed each pixel belongs to, in row-major order
+  private int[] labels;
+  private int labelWidth;
+  // the packed final color of each seed
+  private int[] seedColors;
 
   /**
-   * Constructor.
+   * Constructor that assigns pixels to seeds on the default FilterEngine.
    */
   public Mosaic() {
+    this.engine = null;
     this.seeds = -1;
     this.seedList = null;
-    this.posnList = null;
+    this.labels = null;
+    this.labelWidth = 0;
+    this.seedColors = null;
+  }
+
+  /**
+   * Constructor that assigns pixels to seeds on the given engine.
+   *
+   * @param engine the engine the bands of pixels are assigned on
+   * @throws IllegalArgumentException if the engine is null
+   */
+  public Mosaic(FilterEngine engine) throws IllegalArgumentException {
+    if (engine == null) {
+      throw new IllegalArgumentException("Null engine given.");
+    }
+    this.engine = engine;
+    this.seeds = -1;
+    this.seedList = null;
+    this.labels = null;
+    this.labelWidth = 0;
+    this.seedColors = null;
   }
 
   @Override
@@ -43,7 +77,7 @@ public class Mosaic implements IMosaic {
           img.getBlueAt(x, y)));
     }
 
-    ISeed currentSeed = this.posnList.get(x).get(y).getSeed();
+    ISeed currentSeed = this.seedList.get(this.labels[this.labelIndex(x, y)]);
 
     return new ArrayList<>(Arrays.asList(
         currentSeed.getFinalRedVal(),
@@ -52,7 +86,68 @@ public class Mosaic implements IMosaic {
   }
 
   /**
-   * Initializes the seed list and the Posn list in this mosaic filter.
+   * Filters the given rows of the image by writing the final value of the seed closest to each
+   * pixel straight into dst.
+   *
+   * @param src the image we are filtering
+   * @param dst the array the filtered pixels are written to
+   * @param startRow the first row to filter
+   * @param endRow the row after the last row to filter
+   * @throws IllegalArgumentException if src or dst is null, if dst is the wrong size, or if the
+   *     rows are out of range
+   */
+  @Override
+  public void apply(PackedImage src, int[] dst, int startRow, int endRow)
+      throws IllegalArgumentException {
+    FilterUtil.checkBulkArgs(src, dst, startRow, endRow);
+    int width = src.getImageWidth();
+    if (this.seedList.size() == 0) {
+      System.arraycopy(src.getPixels(), startRow * width, dst, startRow * width,
+          (endRow - startRow) * width);
+      return;
+    }
+    if (endRow > startRow && width > 0) {
+      // checks the last pixel of the last row, which is the furthest any label is read from
+      this.labelIndex(width - 1, endRow - 1);
+    }
+    for (int y = startRow; y < endRow; y++) {
+      int label = y * this.labelWidth;
+      for (int i = y * width; i < (y + 1) * width; i++) {
+        dst[i] = this.seedColors[this.labels[label++]];
+      }
+    }
+  }
+
+  /**
+   * Finds where the label of the given pixel is kept.
+   *
+   * @param x the x coordinate of the pixel
+   * @param y the y coordinate of the pixel
+   * @return the index of the pixel's label
+   * @throws IllegalArgumentException if the pixel is outside the image the seeds were initialized
+   *     with
+   */
+  private int labelIndex(int x, int y) throws IllegalArgumentException {
+    if (x >= this.labelWidth || y * this.labelWidth >= this.labels.length) {
+      throw new IllegalArgumentException(
+          "The image is larger than the image the seeds were initialized with.");
+    }
+    return y * this.labelWidth + x;
+  }
+
+  /**
+   * Returns true since the seeds are only read while filtering, so bands of rows can be filtered
+   * at the same time once the seeds have been initialized.
+   *
+   * @return true
+   */
+  @Override
+  public boolean isParallelSafe() {
+    return true;
+  }
+
+  /**
+   * Initializes the seed list and the label of each pixel in this mosaic filter.
    *
    * @param seeds the number of seeds in the mosaic
    * @param img the image we are applying the mosaic filter on
@@ -65,13 +160,8 @@ public class Mosaic implements IMosaic {
       throw new IllegalArgumentException("The number of seeds was less than 0");
     }
     this.seedList = new ArrayList<>();
-    this.posnList = new ArrayList<>();
-    for (int x = 0; x < img.getImageWidth(); x++) { // x values
-      this.posnList.add(new ArrayList<>());
-      for (int y = 0; y < img.getImageHeight(); y++) {
-        this.posnList.get(x).add(null);
-      }
-    }
+    this.labelWidth = img.getImageWidth();
+    this.labels = new int[img.getImageWidth() * img.getImageHeight()];
     this.initializeSeedsHelper(img, randX, randY);
   }
 
@@ -98,62 +188,50 @@ public class Mosaic implements IMosaic {
       return;
     }
 
-    int sizeOfSeedList = this.seedList.size();
-    for (int xOfPixel = 0; xOfPixel < width; xOfPixel++) {
-      for (int yOfPixel = 0; yOfPixel < height; yOfPixel++) {
-        // for processing the image pixel by pixel
-        this.seedList.sort(new SeedComparator(img.getImageWidth()));
-        int ratio = height * width / sizeOfSeedList;
-        int ratioPlus = (xOfPixel + yOfPixel * width) / ratio;
-        int lowerBound = ratioPlus - sizeOfSeedList / 4;
-        int upperBound = ratioPlus + sizeOfSeedList / 4;
-
-        if (lowerBound < 0 || lowerBound >= sizeOfSeedList) {
-          lowerBound = 0;
+    // sorting once puts the seeds in the order ties between them are broken in
+    this.seedList.sort(new SeedComparator(width));
+    SeedGrid grid = new SeedGrid(this.seedList, width, height);
+    int[] pixels = img instanceof PackedImage ? ((PackedImage) img).getPixels()
+        : PackedImage.fromImage(img).getPixels();
+    int count = this.seedList.size();
+    // the red, green, and blue sums and the number of pixels of each seed, four values per seed
+    long[] sums = new long[4 * count];
+    FilterEngine bandEngine = this.engine == null ? FilterEngine.getDefault() : this.engine;
+    bandEngine.forEachBand(height, width, (startRow, endRow) -> {
+      long[] bandSums = new long[4 * count];
+      for (int yOfPixel = startRow; yOfPixel < endRow; yOfPixel++) {
+        for (int xOfPixel = 0; xOfPixel < width; xOfPixel++) {
+          // for processing the image pixel by pixel
+          int i = yOfPixel * width + xOfPixel;
+          int label = grid.nearest(xOfPixel, yOfPixel);
+          int rgb = pixels[i];
+          bandSums[4 * label] += (rgb >> 16) & 0xFF;
+          bandSums[4 * label + 1] += (rgb >> 8) & 0xFF;
+          bandSums[4 * label + 2] += rgb & 0xFF;
+          bandSums[4 * label + 3]++;
+          this.labels[i] = label;
         }
-        if (upperBound >= sizeOfSeedList || upperBound < 0) {
-          upperBound = sizeOfSeedList;
-        }
-
-        ISeed currentSeed = this.seedList.get(lowerBound);
-        for (int i = lowerBound; i < upperBound; i++) {
-          ISeed eval = this.seedList.get(i);
-
-          double distToEvalSeed = this.distanceToSeed(eval.getXOfSeed(),
-              eval.getYOfSeed(), xOfPixel, yOfPixel);
-
-          double distToCurrSeed = this.distanceToSeed(currentSeed.getXOfSeed(),
-              currentSeed.getYOfSeed(), xOfPixel, yOfPixel);
-
-          if (distToEvalSeed < distToCurrSeed) {
-            currentSeed = this.seedList.get(i);
-          }
+      }
+      synchronized (sums) {
+        for (int i = 0; i < sums.length; i++) {
+          sums[i] += bandSums[i];
         }
-        currentSeed.addRed(img.getRedAt(xOfPixel, yOfPixel));
-        currentSeed.addGreen(img.getGreenAt(xOfPixel, yOfPixel));
-        currentSeed.addBlue(img.getBlueAt(xOfPixel, yOfPixel));
-        IPosn p = new Posn(xOfPixel, yOfPixel, currentSeed);
-        this.posnList.get(xOfPixel).set(yOfPixel, p);
       }
+    });
+    for (int i = 0; i < count; i++) {
+      this.seedList.get(i).addColors(sums[4 * i], sums[4 * i + 1], sums[4 * i + 2],
+          (int) sums[4 * i + 3]);
     }
 
-    for (ISeed s : this.seedList) {
+    this.seedColors = new int[this.seedList.size()];
+    for (int i = 0; i < this.seedList.size(); i++) {
+      ISeed s = this.seedList.get(i);
       s.setAverages();
+      // a seed no pixel is closest to keeps -1 as its values, but it is never drawn
+      this.seedColors[i] = PackedImage.packRGB(Math.max(0, s.getFinalRedVal()),
+          Math.max(0, s.getFinalGreenVal()), Math.max(0, s.getFinalBlueVal()));
     }
   }
-
-  /**
-   * Calculates the distance to a point and returns teh distance.
-   *
-   * @param xOfSeed the x coordinate of the seed
-   * @param yOfSeed the y coordinate of the seed
-   * @param xOfPixel the x coordinate of the pixel
-   * @param yOfPixel the y coordinate of the pixel
-   * @return the distance from the seed to the pixel
-   */
-  private double distanceToSeed(int xOfSeed, int yOfSeed, int xOfPixel, int yOfPixel) {
-    return Math.sqrt(Math.pow((xOfSeed - xOfPixel), 2) + Math.pow((yOfSeed - yOfPixel), 2));
-  }
 }
 
 
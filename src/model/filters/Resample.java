@@ -0,0 +1,211 @@
+package model.filters;
+
+import model.image.FilterEngine;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+
+/**
+ * Represents resizing an image, or every layer of a multi layer image, to a new width and height,
+ * either smaller or larger than the original. Every new pixel is a weighted average of the
+ * original pixels around it, weighed by a ResampleFilter which is stretched over more pixels when
+ * shrinking so that none of the original pixels are skipped.
+ *
+ * <p>The filter is separable, so the image is resized across each row first and then down each
+ * column. The weights each new column and row take their pixels with only depend on the sizes, so
+ * they are worked out once, as whole numbers, before either pass.
+ */
+public class Resample extends AbstractApplyAllStatus implements IResizeEffect {
+
+  // the weights are whole numbers out of 1 << PRECISION
+  private static final int PRECISION = 14;
+
+  private final int newWidth;
+  private final int newHeight;
+  private final ResampleFilter filter;
+
+  /**
+   * Constructor.
+   *
+   * @param newWidth the width of the image after resampling
+   * @param newHeight the height of the image after resampling
+   * @param filter the filter the original pixels are weighed by
+   * @throws IllegalArgumentException if either size is less than 1 or the filter is null
+   */
+  public Resample(int newWidth, int newHeight, ResampleFilter filter)
+      throws IllegalArgumentException {
+    if (newWidth < 1 || newHeight < 1) {
+      throw new IllegalArgumentException("The new width and height must be positive.");
+    }
+    if (filter == null) {
+      throw new IllegalArgumentException("The filter can not be null.");
+    }
+    this.applyToAll = true;
+    this.newWidth = newWidth;
+    this.newHeight = newHeight;
+    this.filter = filter;
+  }
+
+  @Override
+  public int getNewWidth() {
+    return this.newWidth;
+  }
+
+  @Override
+  public int getNewHeight() {
+    return this.newHeight;
+  }
+
+  @Override
+  public ImageInterface applyEffect(ImageInterface originalImage)
+      throws IllegalArgumentException {
+    if (originalImage == null) {
+      throw new IllegalArgumentException("Null image given.");
+    }
+    int width = originalImage.getImageWidth();
+    int height = width == 0 ? 0 : originalImage.getImageHeight();
+    if (width == 0 || height == 0) {
+      throw new IllegalArgumentException("Can not resample an empty image.");
+    }
+    if (width == this.newWidth && height == this.newHeight) {
+      return originalImage;
+    }
+    int[] pixels = originalImage instanceof PackedImage
+        ? ((PackedImage) originalImage).getPixels()
+        : PackedImage.fromImage(originalImage).getPixels();
+    FilterEngine engine = FilterEngine.getDefault();
+
+    // across each row first, into an image of the new width and the old height
+    int[] across = pixels;
+    if (width != this.newWidth) {
+      Weights columns = new Weights(width, this.newWidth, this.filter);
+      int[] src = pixels;
+      int[] dst = new int[this.newWidth * height];
+      engine.forEachBand(height, width, (startRow, endRow) -> {
+        for (int y = startRow; y < endRow; y++) {
+          for (int x = 0; x < this.newWidth; x++) {
+            dst[y * this.newWidth + x] = columns.apply(src, y * width, 1, x);
+          }
+        }
+      });
+      across = dst;
+    }
+    if (height == this.newHeight) {
+      return new PackedImage(this.newWidth, height, across);
+    }
+
+    // then down each column
+    Weights rows = new Weights(height, this.newHeight, this.filter);
+    int[] src = across;
+    int[] dst = new int[this.newWidth * this.newHeight];
+    engine.forEachBand(this.newHeight, this.newWidth, (startRow, endRow) -> {
+      for (int y = startRow; y < endRow; y++) {
+        for (int x = 0; x < this.newWidth; x++) {
+          dst[y * this.newWidth + x] = rows.apply(src, x, this.newWidth, y);
+        }
+      }
+    });
+    return new PackedImage(this.newWidth, this.newHeight, dst);
+  }
+
+  /**
+   * The weights every pixel along one side of the new image takes the pixels along the same side
+   * of the original image with. Each new pixel only takes a short run of the original pixels, so
+   * the weights are kept as the first pixel of the run and one weight per pixel in it.
+   */
+  private static class Weights {
+    private final int[] first;
+    private final int taps;
+    // the weights of new pixel i are weights[i * taps] up to weights[i * taps + taps]
+    private final int[] weights;
+
+    /**
+     * Constructor that works out the weights of every new pixel.
+     *
+     * @param oldSize the number of pixels along the side of the original image
+     * @param newSize the number of pixels along the side of the new image
+     * @param filter the filter the original pixels are weighed by
+     */
+    Weights(int oldSize, int newSize, ResampleFilter filter) {
+      double scale = (double) oldSize / newSize;
+      // when shrinking, the filter is stretched so it covers every original pixel
+      double filterScale = Math.max(scale, 1.0);
+      double support = filter.getRadius() * filterScale;
+      this.taps = Math.min(oldSize, (int) Math.ceil(support) * 2 + 1);
+      this.first = new int[newSize];
+      this.weights = new int[newSize * this.taps];
+      double[] raw = new double[this.taps];
+      for (int i = 0; i < newSize; i++) {
+        double center = (i + 0.5) * scale;
+        int start = Math.max(0, (int) Math.floor(center - support + 0.5));
+        int end = Math.min(oldSize, (int) Math.floor(center + support + 0.5));
+        end = Math.min(end, start + this.taps);
+        if (end <= start) {
+          // a filter too narrow to reach any pixel takes the closest one
+          start = Math.min(oldSize - 1, (int) center);
+          end = start + 1;
+        }
+        double total = 0.0;
+        for (int j = start; j < end; j++) {
+          raw[j - start] = filter.weight((j + 0.5 - center) / filterScale);
+          total += raw[j - start];
+        }
+        if (total == 0.0) {
+          raw[Math.min(end - 1, Math.max(0, (int) center - start))] = 1.0;
+          total = 1.0;
+        }
+        this.first[i] = start;
+        // rounding each weight on its own can leave them short of or over 1 in total, which darkens
+        // or brightens the image more the more pixels each new pixel takes, so the running total
+        // is rounded instead, which makes the weights add up to exactly 1 while keeping each one
+        // within a step of its exact value
+        double sum = 0.0;
+        int rounded = 0;
+        for (int j = start; j < end; j++) {
+          sum += raw[j - start];
+          int next = (int) Math.round(sum / total * (1 << PRECISION));
+          this.weights[i * this.taps + j - start] = next - rounded;
+          rounded = next;
+        }
+      }
+    }
+
+    /**
+     * Finds one new pixel as the weighted sum of the original pixels it takes.
+     *
+     * @param pixels the packed pixels being resampled
+     * @param offset the index of the first original pixel along the side being resampled
+     * @param stride how far apart in pixels neighboring pixels along that side are
+     * @param i which new pixel along the side to find
+     * @return the packed color of the new pixel
+     */
+    int apply(int[] pixels, int offset, int stride, int i) {
+      // starting each sum at one half rounds to the closest value when shifted back down
+      int red = 1 << (PRECISION - 1);
+      int green = red;
+      int blue = red;
+      int index = offset + this.first[i] * stride;
+      for (int t = i * this.taps; t < (i + 1) * this.taps; t++) {
+        int weight = this.weights[t];
+        if (weight != 0) {
+          int rgb = pixels[index];
+          red += weight * ((rgb >> 16) & 0xFF);
+          green += weight * ((rgb >> 8) & 0xFF);
+          blue += weight * (rgb & 0xFF);
+        }
+        index += stride;
+      }
+      return PackedImage.packRGB(clampShift(red), clampShift(green), clampShift(blue));
+    }
+
+    /**
+     * Shifts a weighted sum back down to a color value between 0 and 255.
+     *
+     * @param sum the weighted sum
+     * @return the color value
+     */
+    private static int clampShift(int sum) {
+      int value = sum >> PRECISION;
+      return value < 0 ? 0 : Math.min(value, 255);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package model.filters;
+
+import java.util.Locale;
+
+/**
+ * The filters Resample can weigh the pixels of the original image by when finding each pixel of
+ * the resized image. Each filter is a function of the distance from the center of the new pixel,
+ * measured in pixels of whichever image has the larger pixels, and is zero past its radius.
+ */
+public enum ResampleFilter {
+  // averages the pixels the new pixel covers
+  BOX(0.5) {
+    @Override
+    public double weight(double distance) {
+      return distance >= -0.5 && distance < 0.5 ? 1.0 : 0.0;
+    }
+  },
+  // blends linearly between the two closest pixels
+  BILINEAR(1.0) {
+    @Override
+    public double weight(double distance) {
+      double d = Math.abs(distance);
+      return d < 1.0 ? 1.0 - d : 0.0;
+    }
+  },
+  // the Catmull-Rom cubic, which is sharper than BILINEAR and stays smooth
+  BICUBIC(2.0) {
+    @Override
+    public double weight(double distance) {
+      double d = Math.abs(distance);
+      if (d < 1.0) {
+        return (1.5 * d - 2.5) * d * d + 1.0;
+      } else if (d < 2.0) {
+        return ((-0.5 * d + 2.5) * d - 4.0) * d + 2.0;
+      }
+      return 0.0;
+    }
+  },
+  // the windowed sinc of radius 3, the sharpest of the filters
+  LANCZOS3(3.0) {
+    @Override
+    public double weight(double distance) {
+      double d = Math.abs(distance);
+      if (d < 1e-9) {
+        return 1.0;
+      } else if (d < 3.0) {
+        double px = Math.PI * d;
+        return 3.0 * Math.sin(px) * Math.sin(px / 3.0) / (px * px);
+      }
+      return 0.0;
+    }
+  };
+
+  private final double radius;
+
+  /**
+   * Constructor.
+   *
+   * @param radius the distance past which the filter is zero
+   */
+  ResampleFilter(double radius) {
+    this.radius = radius;
+  }
+
+  /**
+   * Gets the distance past which this filter gives a weight of zero.
+   *
+   * @return the radius of the filter
+   */
+  public double getRadius() {
+    return this.radius;
+  }
+
+  /**
+   * Finds the filter of the given name, in any case. BOX can also be called "area", and LANCZOS3
+   * can also be called "lanczos".
+   *
+   * @param name the name of the filter
+   * @return the filter
+   * @throws IllegalArgumentException if the name is null or not the name of a filter
+   */
+  public static ResampleFilter fromName(String name) throws IllegalArgumentException {
+    if (name != null) {
+      switch (name.toLowerCase(Locale.ROOT)) {
+        case "box":
+        case "area":
+          return BOX;
+        case "bilinear":
+          return BILINEAR;
+        case "bicubic":
+          return BICUBIC;
+        case "lanczos":
+        case "lanczos3":
+          return LANCZOS3;
+        default:
+          break;
+      }
+    }
+    throw new IllegalArgumentException(
+        "The resample filter must be box, bilinear, bicubic, or lanczos3.");
+  }
+
+  /**
+   * Gets the weight a pixel the given distance from the center of the new pixel counts for,
+   * before the weights of all the pixels are scaled to add up to one.
+   *
+   * @param distance the distance from the center of the new pixel
+   * @return the weight of the pixel
+   */
+  public abstract double weight(double distance);
+}
@@ -1,21 +1,19 @@
 package model.filters;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * Represents a randomly generated seed in a mosaic image. This seed contains a list of red,
- * green, and blue values which are all the pixel values that are in "range" of the seed as in
- * all of the values of the pixels that are closest to this seed. The seed also contains the
- * final value that should be for all of the pixels closest to this seed.
+ * Represents a randomly generated seed in a mosaic image. This seed contains the sums of the red,
+ * green, and blue values of all the pixels that are in "range" of the seed as in all of the
+ * pixels that are closest to this seed, along with how many of them there are. The seed also
+ * contains the final value that should be for all of the pixels closest to this seed.
  */
 public class Seed implements ISeed {
 
   private final int x;
   private final int y;
-  private final List<Integer> redValues;
-  private final List<Integer> greenValues;
-  private final List<Integer> blueValues;
+  private long redSum;
+  private long greenSum;
+  private long blueSum;
+  private int count;
   private int finalRedVal;
   private int finalGreenVal;
   private int finalBlueVal;
@@ -29,9 +27,10 @@ public class Seed implements ISeed {
   public Seed(int x, int y) {
     this.x = x;
     this.y = y;
-    this.redValues = new ArrayList<>();
-    this.greenValues = new ArrayList<>();
-    this.blueValues = new ArrayList<>();
+    this.redSum = 0;
+    this.greenSum = 0;
+    this.blueSum = 0;
+    this.count = 0;
     this.finalRedVal = -1;
     this.finalGreenVal = -1;
     this.finalBlueVal = -1;
@@ -64,34 +63,42 @@ public class Seed implements ISeed {
 
   @Override
   public void addRed(int newRed) {
-    this.redValues.add(newRed);
+    this.redSum += newRed;
+    this.count++;
   }
 
   @Override
   public void addGreen(int newGreen) {
-    this.greenValues.add(newGreen);
+    this.greenSum += newGreen;
   }
 
   @Override
   public void addBlue(int newBlue) {
-    this.blueValues.add(newBlue);
+    this.blueSum += newBlue;
+  }
+
+  @Override
+  public void addColor(int red, int green, int blue) {
+    this.redSum += red;
+    this.greenSum += green;
+    this.blueSum += blue;
+    this.count++;
+  }
+
+  @Override
+  public void addColors(long redSum, long greenSum, long blueSum, int pixels) {
+    this.redSum += redSum;
+    this.greenSum += greenSum;
+    this.blueSum += blueSum;
+    this.count += pixels;
   }
 
   @Override
   public void setAverages() {
-    int redSum = 0;
-    int greenSum = 0;
-    int blueSum = 0;
-    int totalVals = this.redValues.size();
-    if (this.redValues.size() != 0) {
-      for (int i = 0; i < totalVals; i++) {
-        redSum += this.redValues.get(i);
-        greenSum += this.greenValues.get(i);
-        blueSum += this.blueValues.get(i);
-      }
-      this.finalRedVal = redSum / totalVals;
-      this.finalGreenVal = greenSum / totalVals;
-      this.finalBlueVal = blueSum / totalVals;
+    if (this.count != 0) {
+      this.finalRedVal = (int) (this.redSum / this.count);
+      this.finalGreenVal = (int) (this.greenSum / this.count);
+      this.finalBlueVal = (int) (this.blueSum / this.count);
     }
   }
 }
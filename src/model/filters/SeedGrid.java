@@ -0,0 +1,119 @@
+package model.filters;
+
+import java.util.List;
+
+/**
+ * A uniform grid of buckets over the seeds of a mosaic, used to find the seed closest to a pixel
+ * without measuring the distance to every seed. The image is split into square cells holding
+ * about one seed each, and the search for a pixel looks at the cells around the pixel's own cell
+ * in rings of growing size, stopping once no cell further out could hold a closer seed.
+ * Distances are compared squared, in whole numbers, so the search is exact. When two seeds are the
+ * same distance from a pixel, the one earlier in the seed list wins.
+ */
+class SeedGrid {
+
+  private final int[] seedX;
+  private final int[] seedY;
+  private final int cellSize;
+  private final int columns;
+  private final int rows;
+  // the seeds in cell c are cellSeeds[cellStart[c]] up to cellSeeds[cellStart[c + 1]]
+  private final int[] cellStart;
+  private final int[] cellSeeds;
+
+  /**
+   * Constructor that sorts the given seeds into the cells of the grid.
+   *
+   * @param seeds the seeds of the mosaic, which must not be empty
+   * @param width the width of the image the seeds are in
+   * @param height the height of the image the seeds are in
+   */
+  SeedGrid(List<ISeed> seeds, int width, int height) {
+    int count = seeds.size();
+    this.seedX = new int[count];
+    this.seedY = new int[count];
+    for (int i = 0; i < count; i++) {
+      this.seedX[i] = seeds.get(i).getXOfSeed();
+      this.seedY[i] = seeds.get(i).getYOfSeed();
+    }
+    // cells sized so that each holds about one seed
+    this.cellSize = Math.max(1, (int) Math.sqrt((double) width * height / count));
+    this.columns = (width + this.cellSize - 1) / this.cellSize;
+    this.rows = (height + this.cellSize - 1) / this.cellSize;
+    this.cellStart = new int[this.columns * this.rows + 1];
+    for (int i = 0; i < count; i++) {
+      this.cellStart[this.cellOf(this.seedX[i], this.seedY[i]) + 1]++;
+    }
+    for (int c = 0; c < this.columns * this.rows; c++) {
+      this.cellStart[c + 1] += this.cellStart[c];
+    }
+    // filling each cell in seed order keeps the seeds of a cell in the order of the list
+    this.cellSeeds = new int[count];
+    int[] filled = new int[this.columns * this.rows];
+    for (int i = 0; i < count; i++) {
+      int cell = this.cellOf(this.seedX[i], this.seedY[i]);
+      this.cellSeeds[this.cellStart[cell] + filled[cell]++] = i;
+    }
+  }
+
+  /**
+   * Finds the seed closest to the given pixel.
+   *
+   * @param x the x coordinate of the pixel
+   * @param y the y coordinate of the pixel
+   * @return the index in the seed list of the closest seed
+   */
+  int nearest(int x, int y) {
+    int cellX = x / this.cellSize;
+    int cellY = y / this.cellSize;
+    int best = -1;
+    long bestDist = Long.MAX_VALUE;
+    int maxRing = Math.max(Math.max(cellX, this.columns - 1 - cellX),
+        Math.max(cellY, this.rows - 1 - cellY));
+    for (int ring = 0; ring <= maxRing; ring++) {
+      // every seed in this ring is at least this far away along x or y, so once that is further
+      // than the best seed found there is nothing closer, or as close, left to find
+      if (ring > 0) {
+        long gap = (long) (ring - 1) * this.cellSize + 1;
+        if (gap * gap > bestDist) {
+          break;
+        }
+      }
+      for (int cy = cellY - ring; cy <= cellY + ring; cy++) {
+        if (cy < 0 || cy >= this.rows) {
+          continue;
+        }
+        // the middle rows of a ring only have a cell at each end
+        int step = (cy == cellY - ring || cy == cellY + ring) ? 1 : Math.max(1, 2 * ring);
+        for (int cx = cellX - ring; cx <= cellX + ring; cx += step) {
+          if (cx < 0 || cx >= this.columns) {
+            continue;
+          }
+          int cell = cy * this.columns + cx;
+          for (int s = this.cellStart[cell]; s < this.cellStart[cell + 1]; s++) {
+            int seed = this.cellSeeds[s];
+            long dx = this.seedX[seed] - x;
+            long dy = this.seedY[seed] - y;
+            long dist = dx * dx + dy * dy;
+            if (dist < bestDist || (dist == bestDist && seed < best)) {
+              best = seed;
+              bestDist = dist;
+            }
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Finds the cell the given pixel is in.
+   *
+   * @param x the x coordinate of the pixel
+   * @param y the y coordinate of the pixel
+   * @return the index of the cell
+   */
+  private int cellOf(int x, int y) {
+    return (y / this.cellSize) * this.columns + x / this.cellSize;
+  }
+}
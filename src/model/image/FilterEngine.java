@@ -0,0 +1,277 @@
+package model.image;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import model.filters.IFilter;
+
+/**
+ * FilterEngine applies filters to whole images by splitting them into bands of rows and filtering
+ * the bands at the same time on a ForkJoinPool. Every band reads from the same source image and
+ * writes only its own rows of the destination, so the result is identical to filtering the image
+ * one row after another. Filters that do not declare themselves parallel safe, and images too
+ * small to be worth splitting, are filtered on the calling thread.
+ *
+ * <p>An engine stops starting bands once the thread that called it is interrupted, and throws a
+ * CancellationException instead, so a long operation that is cancelled does not keep running in
+ * the background. Rows filtered on the calling thread are still split into large bands run one
+ * after another, so an engine with one thread can be stopped as well.
+ */
+public class FilterEngine {
+
+  // bands are not split any further once they hold fewer pixels than this
+  static final int MIN_PIXELS_PER_BAND = 16384;
+  // the calling thread checks whether it was interrupted after about this many pixels
+  static final int PIXELS_PER_CHECK = 1 << 22;
+
+  private static FilterEngine defaultEngine;
+
+  private final int parallelism;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructor that creates an engine using the given number of threads.
+   *
+   * @param parallelism the number of threads bands of rows can be filtered on, where 1 filters
+   *     every image on the calling thread
+   * @throws IllegalArgumentException if the parallelism is less than 1
+   */
+  public FilterEngine(int parallelism) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be at least 1.");
+    }
+    this.parallelism = parallelism;
+    if (parallelism > 1) {
+      this.pool = new ForkJoinPool(parallelism);
+    } else {
+      this.pool = null;
+    }
+  }
+
+  /**
+   * Constructor that creates an engine using one thread per available processor.
+   */
+  public FilterEngine() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Gets the engine used when an image is filtered through ImageInterface.filter, creating one
+   * that uses every available processor if none has been set.
+   *
+   * @return the default engine
+   */
+  public static synchronized FilterEngine getDefault() {
+    if (defaultEngine == null) {
+      defaultEngine = new FilterEngine();
+    }
+    return defaultEngine;
+  }
+
+  /**
+   * Sets the engine used when an image is filtered through ImageInterface.filter, which is how the
+   * parallelism of the whole program is configured.
+   *
+   * @param engine the new default engine
+   * @throws IllegalArgumentException if the engine is null
+   */
+  public static synchronized void setDefault(FilterEngine engine)
+      throws IllegalArgumentException {
+    if (engine == null) {
+      throw new IllegalArgumentException("Null engine given.");
+    }
+    defaultEngine = engine;
+  }
+
+  /**
+   * Gets the number of threads this engine filters bands of rows on.
+   *
+   * @return the parallelism of this engine
+   */
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Applies the filter to the given image and returns the filtered image.
+   *
+   * @param src the image we are filtering
+   * @param filter the filter we are applying
+   * @return a new image holding src after being filtered by the filter
+   * @throws IllegalArgumentException if either parameter is null
+   */
+  public PackedImage filter(PackedImage src, IFilter filter) throws IllegalArgumentException {
+    if (src == null || filter == null) {
+      throw new IllegalArgumentException("Null parameter given.");
+    }
+    int[] dst = new int[src.getPixels().length];
+    this.apply(src, filter, dst);
+    return new PackedImage(src.getImageWidth(), src.getImageHeight(), dst);
+  }
+
+  /**
+   * Applies the filter to the given image, writing the filtered pixels into dst.
+   *
+   * @param src the image we are filtering
+   * @param filter the filter we are applying
+   * @param dst the array the filtered pixels are written to, which must be the same size as the
+   *     number of pixels in src
+   * @throws IllegalArgumentException if any parameter is null or if dst is the wrong size
+   * @throws CancellationException if the calling thread is interrupted
+   */
+  public void apply(PackedImage src, IFilter filter, int[] dst) throws IllegalArgumentException {
+    if (src == null || filter == null || dst == null) {
+      throw new IllegalArgumentException("Null parameter given.");
+    }
+    if (!filter.isParallelSafe()) {
+      checkInterrupted(Thread.currentThread());
+      filter.apply(src, dst);
+    } else {
+      this.forEachBand(src.getImageHeight(), src.getImageWidth(), filter.getMinBandRows(),
+          (startRow, endRow) -> filter.apply(src, dst, startRow, endRow));
+    }
+  }
+
+  /**
+   * Splits the given number of rows into bands and runs the given action on every band, running
+   * bands at the same time when this engine has more than one thread and there are enough pixels
+   * to be worth splitting. The bands never overlap and together cover every row. How the rows are
+   * split depends only on their number and length, never on timing, and this method returns only
+   * once every band is done.
+   *
+   * @param rows the number of rows to split
+   * @param rowLength the number of pixels in each row
+   * @param band the action run on each band, given its first row and the row after its last row
+   * @throws IllegalArgumentException if either number is negative or the action is null
+   * @throws CancellationException if the calling thread is interrupted before every band is run
+   */
+  public void forEachBand(int rows, int rowLength, BiConsumer<Integer, Integer> band)
+      throws IllegalArgumentException {
+    this.forEachBand(rows, rowLength, 1, band);
+  }
+
+  /**
+   * Splits the given number of rows into bands of at least minRows rows and runs the given action
+   * on every band, as forEachBand does. Only an image with fewer than minRows rows is given to the
+   * action as a smaller band, all at once.
+   *
+   * @param rows the number of rows to split
+   * @param rowLength the number of pixels in each row
+   * @param minRows the fewest rows a band may hold
+   * @param band the action run on each band, given its first row and the row after its last row
+   * @throws IllegalArgumentException if either number of rows or the row length is not valid, or
+   *     the action is null
+   * @throws CancellationException if the calling thread is interrupted before every band is run
+   */
+  public void forEachBand(int rows, int rowLength, int minRows, BiConsumer<Integer, Integer> band)
+      throws IllegalArgumentException {
+    if (rows < 0 || rowLength < 0 || minRows < 1 || band == null) {
+      throw new IllegalArgumentException("Invalid rows or null action given.");
+    }
+    Thread caller = Thread.currentThread();
+    if (this.pool == null || rows < 2L * minRows
+        || (long) rows * rowLength < 2 * MIN_PIXELS_PER_BAND) {
+      // bands large enough that splitting costs nothing noticeable are run one after another
+      int bandRows = Math.max(minRows, PIXELS_PER_CHECK / Math.max(1, rowLength));
+      int startRow = 0;
+      do {
+        // the last band also takes the rows that are too few to make a band of their own
+        int endRow = rows - startRow < 2L * bandRows ? rows : startRow + bandRows;
+        checkInterrupted(caller);
+        band.accept(startRow, endRow);
+        startRow = endRow;
+      } while (startRow < rows);
+    } else {
+      checkInterrupted(caller);
+      AtomicBoolean cancelled = new AtomicBoolean(false);
+      ForkJoinTask<Void> bands = this.pool.submit(
+          new BandTask(band, cancelled, rowLength, minRows, 0, rows));
+      try {
+        // unlike invoke, waiting with get can be interrupted
+        bands.get();
+      } catch (InterruptedException e) {
+        // the bands already running finish, but no more are started
+        cancelled.set(true);
+        caller.interrupt();
+        throw new CancellationException("The operation was interrupted.");
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Throws a CancellationException if the given thread has been interrupted, without clearing
+   * its interrupted status.
+   *
+   * @param caller the thread that asked for the work to be done
+   * @throws CancellationException if the thread has been interrupted
+   */
+  private static void checkInterrupted(Thread caller) throws CancellationException {
+    if (caller.isInterrupted()) {
+      throw new CancellationException("The operation was interrupted.");
+    }
+  }
+
+  /**
+   * Runs an action on a band of rows, splitting the band in half and running both halves at the
+   * same time while it is still large enough to be worth splitting.
+   */
+  private static class BandTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final BiConsumer<Integer, Integer> band;
+    private final AtomicBoolean cancelled;
+    private final int rowLength;
+    private final int minRows;
+    private final int startRow;
+    private final int endRow;
+
+    /**
+     * Constructor.
+     *
+     * @param band the action to run on the rows
+     * @param cancelled set once the thread that asked for the rows is interrupted
+     * @param rowLength the number of pixels in each row
+     * @param minRows the fewest rows a band may hold
+     * @param startRow the first row of the band
+     * @param endRow the row after the last row of the band
+     */
+    BandTask(BiConsumer<Integer, Integer> band, AtomicBoolean cancelled, int rowLength,
+        int minRows, int startRow, int endRow) {
+      this.band = band;
+      this.cancelled = cancelled;
+      this.rowLength = rowLength;
+      this.minRows = minRows;
+      this.startRow = startRow;
+      this.endRow = endRow;
+    }
+
+    @Override
+    protected void compute() {
+      int rows = this.endRow - this.startRow;
+      if (rows < 2L * this.minRows || (long) rows * this.rowLength < 2 * MIN_PIXELS_PER_BAND) {
+        if (this.cancelled.get()) {
+          throw new CancellationException("The operation was interrupted.");
+        }
+        this.band.accept(this.startRow, this.endRow);
+      } else {
+        int middleRow = this.startRow + rows / 2;
+        invokeAll(new BandTask(this.band, this.cancelled, this.rowLength, this.minRows,
+                this.startRow, middleRow),
+            new BandTask(this.band, this.cancelled, this.rowLength, this.minRows, middleRow,
+                this.endRow));
+      }
+    }
+  }
+}
@@ -95,7 +95,9 @@ public class Image implements ImageInterface {
 
   /**
    * Applies the filter to this image and returns the image while also adding the new image to the
-   * stack of versions.
+   * stack of versions. The image is packed into a PackedImage and filtered by the default
+   * FilterEngine, which filters bands of rows on several threads at once, and the filtered
+   * PackedImage is returned as is rather than being unpacked into lists again.
    *
    * @param filter the instance of IFilter which indicates which filter we want to apply to this img
    * @return this img after being filtered by the filter indicated by the filter parameter
@@ -106,27 +108,7 @@ public class Image implements ImageInterface {
     if (filter == null) {
       throw new IllegalArgumentException("The filter passed was null.");
     }
-    int width = this.redChannel.size();
-    int height = this.redChannel.get(0).size();
-    int newRed;
-    int newGreen;
-    int newBlue;
-    Image originalImg = (Image) this.copy();
-    Image copyOfThis = (Image) this.copy();
-    for (int x = 0; x < width; x++) {
-      for (int y = 0; y < height; y++) {
-        List<Integer> newVals = filter.newColorValsAt(x, y, originalImg);
-
-        newRed = clamp(newVals.get(0));
-        newGreen = clamp(newVals.get(1));
-        newBlue = clamp(newVals.get(2));
-        copyOfThis.redChannel.get(x).set(y, newRed);
-        copyOfThis.greenChannel.get(x).set(y, newGreen);
-        copyOfThis.blueChannel.get(x).set(y, newBlue);
-      }
-    }
-
-    return copyOfThis;
+    return FilterEngine.getDefault().filter(PackedImage.fromImage(this), filter);
   }
 
   /**
@@ -211,12 +193,16 @@ public class Image implements ImageInterface {
   }
 
   /**
-   * Overrides equals to return true if two Images have the same three color channels.
+   * Overrides equals to return true if two Images have the same three color channels. A
+   * PackedImage holding the same color values is also considered equal to this Image.
    * @param other the Image this Image is being compared to
    * @return true if the two Images have the same three color channels, false otherwise
    */
   @Override
   public boolean equals(Object other) {
+    if (other instanceof PackedImage) {
+      return other.equals(this);
+    }
     if (!(other instanceof Image)) {
       return false;
     }
@@ -0,0 +1,305 @@
+package model.image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.filters.IFilter;
+
+/**
+ * PackedImage represents an image as a single array of primitive ints, one per pixel, where each
+ * int holds the red, green, and blue values of that pixel packed as 0xRRGGBB. The pixels are
+ * stored in row-major order so the pixel at (x,y) is found at index y * width + x. Compared to
+ * the list based Image class this avoids allocating a boxed Integer for every color value of
+ * every pixel, which is what makes large photos expensive to hold in memory.
+ */
+public class PackedImage implements ImageInterface {
+  private final int width;
+  private final int height;
+  private final int[] pixels;
+
+  /**
+   * Constructor that creates an all black image of the given dimensions.
+   *
+   * @param width the width of the image in pixels
+   * @param height the height of the image in pixels
+   * @throws IllegalArgumentException if the width or height is negative
+   */
+  public PackedImage(int width, int height) throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Negative parameter given.");
+    }
+    this.width = width;
+    this.height = height;
+    this.pixels = new int[width * height];
+  }
+
+  /**
+   * Constructor that wraps the given packed pixels. The array is not copied, so the caller must not
+   * modify it after the image has been created.
+   *
+   * @param width the width of the image in pixels
+   * @param height the height of the image in pixels
+   * @param pixels the 0xRRGGBB values of the image in row-major order
+   * @throws IllegalArgumentException if the pixels are null, the width or height is negative, or
+   *     the number of pixels does not match the dimensions
+   */
+  public PackedImage(int width, int height, int[] pixels) throws IllegalArgumentException {
+    if (pixels == null) {
+      throw new IllegalArgumentException("Null parameter given.");
+    }
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Negative parameter given.");
+    }
+    if (pixels.length != width * height) {
+      throw new IllegalArgumentException("The number of pixels does not match the dimensions.");
+    }
+    this.width = width;
+    this.height = height;
+    this.pixels = pixels;
+  }
+
+  /**
+   * Creates a PackedImage holding the same color values as the given image.
+   *
+   * @param img the image to convert
+   * @return a PackedImage with the same dimensions and color values as img
+   * @throws IllegalArgumentException if the given image is null
+   */
+  public static PackedImage fromImage(ImageInterface img) throws IllegalArgumentException {
+    if (img == null) {
+      throw new IllegalArgumentException("Null image given.");
+    }
+    if (img instanceof PackedImage) {
+      return (PackedImage) img.copy();
+    }
+    int width = img.getImageWidth();
+    int height = width == 0 ? 0 : img.getImageHeight();
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        pixels[y * width + x] = packRGB(img.getRedAt(x, y), img.getGreenAt(x, y),
+            img.getBlueAt(x, y));
+      }
+    }
+    return new PackedImage(width, height, pixels);
+  }
+
+  /**
+   * Packs the given color values into a single 0xRRGGBB int. The values are expected to already
+   * be in the range [0, 255].
+   *
+   * @param red the red value
+   * @param green the green value
+   * @param blue the blue value
+   * @return the packed color
+   */
+  public static int packRGB(int red, int green, int blue) {
+    return (red << 16) | (green << 8) | blue;
+  }
+
+  /**
+   * Creates a list based Image holding the same color values as this image.
+   *
+   * @return an Image with the same dimensions and color values as this image
+   */
+  public Image toImage() {
+    List<List<Integer>> redChannel = new ArrayList<>();
+    List<List<Integer>> greenChannel = new ArrayList<>();
+    List<List<Integer>> blueChannel = new ArrayList<>();
+    for (int x = 0; x < this.width; x++) {
+      redChannel.add(new ArrayList<>());
+      greenChannel.add(new ArrayList<>());
+      blueChannel.add(new ArrayList<>());
+      for (int y = 0; y < this.height; y++) {
+        redChannel.get(x).add(this.getRedAt(x, y));
+        greenChannel.get(x).add(this.getGreenAt(x, y));
+        blueChannel.get(x).add(this.getBlueAt(x, y));
+      }
+    }
+    return new Image(redChannel, greenChannel, blueChannel);
+  }
+
+  /**
+   * Returns the packed pixels backing this image in row-major order. This is not a copy; it is
+   * exposed so that filters and file types can read whole rows without going through the per
+   * pixel getters, and must not be modified.
+   *
+   * @return the 0xRRGGBB values of this image
+   */
+  public int[] getPixels() {
+    return this.pixels;
+  }
+
+  /**
+   * Gets the packed 0xRRGGBB color of the pixel at (x,y).
+   *
+   * @param x the x coordinate of the pixel
+   * @param y the y coordinate of the pixel
+   * @return the packed color of the pixel at (x,y)
+   */
+  public int getRGBAt(int x, int y) {
+    return this.pixels[this.index(x, y)];
+  }
+
+  /**
+   * Applies the filter to this image through the default FilterEngine, which writes every filtered
+   * pixel into a single new array using the bulk apply method of the filter, and returns the
+   * filtered image.
+   *
+   * @param filter the instance of IFilter which indicates which filter we want to apply to this img
+   * @return a new image holding this img after being filtered by the filter
+   * @throws IllegalArgumentException if the filter passed is null
+   */
+  @Override
+  public ImageInterface filter(IFilter filter) throws IllegalArgumentException {
+    if (filter == null) {
+      throw new IllegalArgumentException("The filter passed was null.");
+    }
+    return FilterEngine.getDefault().filter(this, filter);
+  }
+
+  @Override
+  public ImageInterface copy() {
+    return new PackedImage(this.width, this.height,
+        Arrays.copyOf(this.pixels, this.pixels.length));
+  }
+
+  @Override
+  public int getRedAt(int x, int y) {
+    return (this.pixels[this.index(x, y)] >> 16) & 0xFF;
+  }
+
+  @Override
+  public int getGreenAt(int x, int y) {
+    return (this.pixels[this.index(x, y)] >> 8) & 0xFF;
+  }
+
+  @Override
+  public int getBlueAt(int x, int y) {
+    return this.pixels[this.index(x, y)] & 0xFF;
+  }
+
+  /**
+   * Returns the contents of this image's color values in string form, in the same order as the
+   * list based Image class so that both produce identical PPM files.
+   *
+   * @return the contents of this image's color values in string form
+   */
+  @Override
+  public String toString() {
+    StringBuilder output = new StringBuilder(this.pixels.length * 12);
+    for (int x = 0; x < this.width; x++) {
+      for (int y = 0; y < this.height; y++) {
+        int rgb = this.pixels[y * this.width + x];
+        output.append((rgb >> 16) & 0xFF).append('\n');
+        output.append((rgb >> 8) & 0xFF).append('\n');
+        output.append(rgb & 0xFF);
+        if (!(x == this.width - 1 && y == this.height - 1)) {
+          output.append('\n');
+        }
+      }
+    }
+    return output.toString();
+  }
+
+  @Override
+  public String createPPMString() {
+    return "P3\n" + this.height + " " + this.width + "\n" + 255 + "\n" + this.toString();
+  }
+
+  @Override
+  public int getImageWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getImageHeight() {
+    return this.height;
+  }
+
+  /**
+   * Overrides equals to return true if the other object is a PackedImage or an Image with the same
+   * dimensions and the same color values at every pixel.
+   *
+   * @param other the object this PackedImage is being compared to
+   * @return true if the two images hold the same pixels, false otherwise
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    }
+    if (other instanceof PackedImage) {
+      PackedImage p = (PackedImage) other;
+      return this.width == p.width && this.height == p.height
+          && Arrays.equals(this.pixels, p.pixels);
+    }
+    if (!(other instanceof Image)) {
+      return false;
+    }
+    Image i = (Image) other;
+    if (this.width != i.getImageWidth()) {
+      return false;
+    }
+    if (this.width == 0) {
+      return true;
+    }
+    if (this.height != i.getImageHeight()) {
+      return false;
+    }
+    for (int x = 0; x < this.width; x++) {
+      for (int y = 0; y < this.height; y++) {
+        if (this.getRedAt(x, y) != i.getRedAt(x, y)
+            || this.getGreenAt(x, y) != i.getGreenAt(x, y)
+            || this.getBlueAt(x, y) != i.getBlueAt(x, y)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Overrides hashCode to return the same value that an equal Image would return, which is the sum
+   * of the hash codes of each of its channel lists.
+   *
+   * @return an integer representing the hashCode for this PackedImage
+   */
+  @Override
+  public int hashCode() {
+    return this.channelHashCode(16) + this.channelHashCode(8) + this.channelHashCode(0);
+  }
+
+  /**
+   * Computes the hash code that a list of lists holding one channel of this image would have.
+   *
+   * @param shift the number of bits the channel is shifted by in a packed pixel
+   * @return the hash code of the channel
+   */
+  private int channelHashCode(int shift) {
+    int outer = 1;
+    for (int x = 0; x < this.width; x++) {
+      int inner = 1;
+      for (int y = 0; y < this.height; y++) {
+        inner = 31 * inner + ((this.pixels[y * this.width + x] >> shift) & 0xFF);
+      }
+      outer = 31 * outer + inner;
+    }
+    return outer;
+  }
+
+  /**
+   * Gets the index in the pixel array of the pixel at (x,y).
+   *
+   * @param x the x coordinate of the pixel
+   * @param y the y coordinate of the pixel
+   * @return the index of the pixel in the pixel array
+   * @throws IndexOutOfBoundsException if there is no pixel at (x,y)
+   */
+  private int index(int x, int y) throws IndexOutOfBoundsException {
+    if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+      throw new IndexOutOfBoundsException("There is no pixel at (" + x + ", " + y + ").");
+    }
+    return y * this.width + x;
+  }
+}
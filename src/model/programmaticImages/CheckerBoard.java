@@ -1,9 +1,8 @@
 package model.programmaticimages;
 
 import java.util.ArrayList;
-import java.util.List;
-import model.image.Image;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * Class used to create a checkerboard image. This class implements the ImageCreatorInterface so
@@ -35,9 +34,7 @@ public class CheckerBoard implements ImageCreatorInterface {
     ColorEnum color1 = colorList.get(0);
     ColorEnum color2 = colorList.get(1);
 
-    List<List<Integer>> redChannel = new ArrayList<>();
-    List<List<Integer>> greenChannel = new ArrayList<>();
-    List<List<Integer>> blueChannel = new ArrayList<>();
+    int[] pixels = new int[width * height];
 
     ColorEnum tile;
     for (int x = 0; x < width; x++) {
@@ -47,9 +44,6 @@ public class CheckerBoard implements ImageCreatorInterface {
       } else {
         num = 1;
       }
-      redChannel.add(new ArrayList<>());
-      greenChannel.add(new ArrayList<>());
-      blueChannel.add(new ArrayList<>());
       for (int y = 0; y < height; y++) {
         if (((y / tileSize) + 1) % 2 == num) {
           tile = color2;
@@ -57,9 +51,8 @@ public class CheckerBoard implements ImageCreatorInterface {
         else {
           tile = color1;
         }
-        redChannel.get(x).add(tile.getRed());
-        greenChannel.get(x).add(tile.getGreen());
-        blueChannel.get(x).add(tile.getBlue());
+        pixels[y * width + x] = PackedImage.packRGB(tile.getRed(), tile.getGreen(),
+            tile.getBlue());
         /*
         // tileSize == 100
         00/100 = (0+1) % 2 == 0; // White false
@@ -76,7 +69,7 @@ public class CheckerBoard implements ImageCreatorInterface {
          */
       }
     }
-    ImageInterface checkerBoard = new Image(redChannel, greenChannel, blueChannel);
+    ImageInterface checkerBoard = new PackedImage(width, height, pixels);
     return checkerBoard;
   }
 
@@ -1,14 +1,24 @@
 package view;
 
-import java.awt.Color;
+import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
+import java.util.Objects;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
@@ -16,10 +26,15 @@ import javax.swing.JMenuBar;
 import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JFrame;
 import model.IFilterModelState;
+import model.ILayer;
+import model.filters.Resample;
+import model.filters.ResampleFilter;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 
 /**
  * The GUI view creates our interactive GUI which can be used to interact with our system and
@@ -30,7 +45,17 @@ public class GUIView extends JFrame implements IGUIFunctionality {
   //show an image with a scrollbar
   private JPanel imagePanel;
   private JLabel imageLabel;
+  private JScrollPane imageScrollPane;
   private IFilterModelState<ImageInterface> model;
+  // the image currently shown in the image label
+  private ImageInterface displayedImage;
+  // whether the image is shrunk to fit the window, and the size it was last fit to
+  private boolean fitToWindow;
+  private Dimension displayedSize;
+  private JPanel progressPanel;
+  private JLabel progressLabel;
+  // told to read the image of the layer shown when it is not in memory, and to fit it to the window
+  private final ActionListener actionListener;
 
   /**
    * Constructs a GUIView that displays information based on the given model. The given
@@ -43,6 +68,7 @@ public class GUIView extends JFrame implements IGUIFunctionality {
   public GUIView(IFilterModelState<ImageInterface> model, ActionListener actionListener) {
     super();
     this.model = model;
+    this.actionListener = actionListener;
 
     this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
@@ -68,45 +94,156 @@ public class GUIView extends JFrame implements IGUIFunctionality {
     mainPanel.add(imagePanel);
 
     this.imageLabel = new JLabel();
-    JScrollPane imageScrollPane = new JScrollPane();
-
-    imageLabel = new JLabel();
-    imageScrollPane = new JScrollPane(imageLabel);
-    imageScrollPane.setPreferredSize(new Dimension(100, 600));
-    imagePanel.add(imageScrollPane);
+    this.imageScrollPane = new JScrollPane(this.imageLabel);
+    this.imageScrollPane.setPreferredSize(new Dimension(100, 600));
+    imagePanel.add(this.imageScrollPane);
+    // a fitted image has to be shrunk again whenever the window changes size
+    this.imageScrollPane.addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentResized(ComponentEvent e) {
+        if (GUIView.this.fitToWindow) {
+          GUIView.this.createContentPane();
+        }
+      }
+    });
     imagePanel.setLayout(new GridLayout(1, 0, 10, 10));
 
+    // shows the operation running in the background, with a button to cancel it
+    this.progressPanel = new JPanel();
+    this.progressPanel.setLayout(new FlowLayout());
+    this.progressLabel = new JLabel();
+    this.progressPanel.add(this.progressLabel);
+    JProgressBar progressBar = new JProgressBar();
+    progressBar.setIndeterminate(true);
+    this.progressPanel.add(progressBar);
+    JButton cancelButton = new JButton("Cancel");
+    cancelButton.setActionCommand("cancel job");
+    cancelButton.addActionListener(actionListener);
+    this.progressPanel.add(cancelButton);
+    this.progressPanel.setVisible(false);
+    add(this.progressPanel, BorderLayout.PAGE_END);
+
     this.createContentPane();
   }
 
   @Override
   public void createContentPane() {
-    if (this.model.getCurrentTopmostVisible() != null
-        && this.model.getCurrentTopmostVisible().getImage() != null) {
-      this.imagePanel.setBorder(BorderFactory.createTitledBorder(
-          this.model.getCurrentTopmostVisible().getFileName()));
-      ImageInterface img = this.model.getCurrentTopmostVisible().getImage();
-
-      BufferedImage bufferedImage = new BufferedImage(img.getImageWidth(), img.getImageHeight(),
-          BufferedImage.TYPE_INT_RGB);
-
-      // fill the rows with the data at the indicated location of (x,y)
-      for (int x = 0; x < img.getImageWidth(); x++) { // rows
-        for (int y = 0; y < img.getImageHeight(); y++) { // "columns"
-          int redAt = img.getRedAt(x, y);
-          int greenAt = img.getGreenAt(x, y);
-          int blueAt = img.getBlueAt(x, y);
-          bufferedImage.setRGB(x, y, new Color(redAt, greenAt, blueAt).getRGB());
+    ILayer layer = this.model.getCurrentTopmostVisible();
+    if (layer != null && !layer.isLoaded()) {
+      // reading the image could take a while, so the listener reads it in the background and
+      // calls this again once it is in memory
+      this.actionListener.actionPerformed(new ActionEvent(this, ActionEvent.ACTION_PERFORMED,
+          "load shown layer"));
+    } else if (layer != null && layer.getImage() != null) {
+      this.imagePanel.setBorder(BorderFactory.createTitledBorder(layer.getFileName()));
+      ImageInterface img = layer.getImage();
+      Dimension size = this.getFitSize();
+
+      // images are never changed once created, so the image only needs to be redrawn when the
+      // model holds a different one or it has to fit a different size
+      if (img != this.displayedImage || !Objects.equals(size, this.displayedSize)) {
+        if (size == null) {
+          this.showImage(img, null, img);
+        } else {
+          // shrinking the image could take a while, so the listener fits it in the background
+          // and calls showFittedImage with the result, while the image shown until then stays
+          this.actionListener.actionPerformed(new ActionEvent(this, ActionEvent.ACTION_PERFORMED,
+              "fit shown layer"));
         }
       }
-
-      this.imageLabel.setIcon(new ImageIcon(bufferedImage));
-
     }
     this.revalidate();
     this.repaint();
   }
 
+  @Override
+  public Dimension getFitSize() {
+    return this.fitToWindow ? this.imageScrollPane.getViewport().getExtentSize() : null;
+  }
+
+  @Override
+  public void showFittedImage(ImageInterface img, Dimension size, ImageInterface fitted) {
+    ILayer layer = this.model.getCurrentTopmostVisible();
+    // the window may have been resized or the image changed while it was being fit, in which case
+    // the result is out of date and another fit has been asked for
+    if (layer != null && layer.isLoaded() && layer.getImage() == img
+        && size.equals(this.getFitSize())) {
+      this.showImage(img, size, fitted);
+      this.revalidate();
+      this.repaint();
+    }
+  }
+
+  /**
+   * Draws the given image in the image label and remembers what it was drawn from.
+   *
+   * @param img the image in the model that is shown
+   * @param size the size the image was fit to, or null if it is shown at its own size
+   * @param shown the image to draw, which is the image itself or the image fit to the size
+   */
+  private void showImage(ImageInterface img, Dimension size, ImageInterface shown) {
+    this.imageLabel.setIcon(new ImageIcon(toBufferedImage(shown)));
+    this.displayedImage = img;
+    this.displayedSize = size;
+  }
+
+  /**
+   * Shrinks the given image of the given layer to fit the given size, keeping its proportions.
+   * The image is shrunk from the smallest level of the layer's pyramid that is still big enough,
+   * so fitting a very large image does not read every one of its pixels. This can take a while,
+   * so it is meant to be called off the event dispatch thread.
+   *
+   * @param layer the layer whose image is shown
+   * @param img the image of the layer
+   * @param size the size to fit the image to
+   * @return the shrunken image, or the image itself if it already fits
+   */
+  public static ImageInterface fitImage(ILayer layer, ImageInterface img, Dimension size) {
+    int width = img.getImageWidth();
+    int height = width == 0 ? 0 : img.getImageHeight();
+    if (width == 0 || height == 0 || size.width < 1 || size.height < 1) {
+      return img;
+    }
+    double scale = Math.min((double) size.width / width, (double) size.height / height);
+    if (scale >= 1.0) {
+      return img;
+    }
+    int fitWidth = Math.max(1, (int) (width * scale));
+    int fitHeight = Math.max(1, (int) (height * scale));
+    return new Resample(fitWidth, fitHeight, ResampleFilter.BILINEAR)
+        .applyEffect(layer.getImageAtLeast(fitWidth, fitHeight));
+  }
+
+  /**
+   * Creates a BufferedImage that displays the given image. A PackedImage already stores its pixels
+   * the way a TYPE_INT_RGB BufferedImage does, so the BufferedImage is built around the same array
+   * without copying it. The pixels of any other image are copied into the BufferedImage's raster.
+   *
+   * @param img the image to display
+   * @return a BufferedImage showing the image
+   */
+  private static BufferedImage toBufferedImage(ImageInterface img) {
+    int width = img.getImageWidth();
+    int height = img.getImageHeight();
+    DirectColorModel colorModel = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+    if (img instanceof PackedImage) {
+      int[] pixels = ((PackedImage) img).getPixels();
+      WritableRaster raster = Raster.createPackedRaster(
+          new DataBufferInt(pixels, pixels.length), width, height, width,
+          colorModel.getMasks(), null);
+      return new BufferedImage(colorModel, raster, false, null);
+    }
+    BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    int[] data = ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData();
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        data[y * width + x] = PackedImage.packRGB(img.getRedAt(x, y), img.getGreenAt(x, y),
+            img.getBlueAt(x, y));
+      }
+    }
+    return bufferedImage;
+  }
+
   /**
    * Helps to create a JMenuItem.
    *
@@ -161,10 +298,31 @@ public class GUIView extends JFrame implements IGUIFunctionality {
 
     // downscale button
     menuItem = this.createJMenuItem("Downscale",
-        "This applies the downscale feature to all layers.",
+        "This shrinks all layers, averaging the pixels each new pixel covers.",
         "downscale the image", actionListener);
     menu.add(menuItem);
 
+    // resize button
+    menuItem = this.createJMenuItem("Resize",
+        "This resizes all layers, smaller or larger, with the chosen filter.",
+        "resize the image", actionListener);
+    menu.add(menuItem);
+
+    // view menu
+    menu = this.createJMenu("View", "View clicked",
+        "The view menu.");
+    menuBar.add(menu);
+
+    // fit to window button, which only changes how the image is shown and not the model
+    JCheckBoxMenuItem fitItem = new JCheckBoxMenuItem("Fit Image To Window");
+    fitItem.getAccessibleContext().setAccessibleDescription(
+        "This shrinks the image shown to fit the window.");
+    fitItem.addActionListener(e -> {
+      this.fitToWindow = fitItem.isSelected();
+      this.createContentPane();
+    });
+    menu.add(fitItem);
+
     // filter menu
     menu = this.createJMenu("Filters", "Filter clicked",
         "The filter menu.");
@@ -182,6 +340,12 @@ public class GUIView extends JFrame implements IGUIFunctionality {
         "sharpen the image", actionListener);
     menu.add(menuItem);
 
+    // gaussian blur button
+    menuItem = this.createJMenuItem("Gaussian blur",
+        "This blurs the top most visible layer by the given radius.",
+        "gaussian the image", actionListener);
+    menu.add(menuItem);
+
     // sepia button
     menuItem = this.createJMenuItem("Sepia",
         "This applies the sepia filter to the top most visible layer.",
@@ -307,6 +471,19 @@ public class GUIView extends JFrame implements IGUIFunctionality {
     return menuBar;
   }
 
+  @Override
+  public void showProgress(String message) {
+    this.progressLabel.setText(message);
+    this.progressPanel.setVisible(true);
+    this.revalidate();
+  }
+
+  @Override
+  public void hideProgress() {
+    this.progressPanel.setVisible(false);
+    this.revalidate();
+  }
+
   @Override
   public void renderMessage(String message) throws IOException {
     JOptionPane.showMessageDialog(this, message, "Warning",
@@ -1,5 +1,8 @@
 package view;
 
+import java.awt.Dimension;
+import model.image.ImageInterface;
+
 /**
  * The IGUIFunctionality extends the existing functionality of IFilterView and adds additional
  * functionality without changing the old implementation. This new method is GUI specific so
@@ -13,6 +16,23 @@ public interface IGUIFunctionality extends IFilterView {
    */
   void createContentPane();
 
+  /**
+   * Gets the size the shown image is fit to, which is the size of the area it is shown in.
+   *
+   * @return the size to fit the image to, or null if the image is shown at its own size
+   */
+  Dimension getFitSize();
+
+  /**
+   * Shows the given image fit to the given size, unless the image shown or the size to fit it to
+   * has changed since the fit was asked for.
+   *
+   * @param img the image that was fit
+   * @param size the size it was fit to
+   * @param fitted the image fit to the size
+   */
+  void showFittedImage(ImageInterface img, Dimension size, ImageInterface fitted);
+
   /**
    * Helps to display a message and return what the user inputs.
    *
@@ -21,4 +41,17 @@ public interface IGUIFunctionality extends IFilterView {
    */
   String inputDisplayHelper(String message);
 
+  /**
+   * Shows that an operation is running in the background, along with a way to cancel it. Calling
+   * this again while the operation is shown replaces the message, which is how progress is shown.
+   *
+   * @param message the message describing the operation and how far along it is
+   */
+  void showProgress(String message);
+
+  /**
+   * Stops showing the operation running in the background.
+   */
+  void hideProgress();
+
 }
@@ -0,0 +1,136 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import controller.BatchProcessor;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import model.files.PPM;
+import model.filters.Blur;
+import model.filters.Sepia;
+import model.image.ImageInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for BatchProcessor. This class tests that every image in a folder is run through the
+ * script and written to the output folder, that a broken image or a script that can not be carried
+ * out is reported without stopping the others, and that files of other types are skipped.
+ */
+public class BatchProcessorTest {
+
+  private File input;
+  private File output;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() throws IOException {
+    this.input = Files.createTempDirectory("batch-in").toFile();
+    this.output = new File(Files.createTempDirectory("batch-out").toFile(), "results");
+  }
+
+  // deletes the folders the tests wrote
+  @After
+  public void deleteFolders() {
+    for (File folder : new File[] {this.input, this.output, this.output.getParentFile()}) {
+      TestFixtures.deleteFolder(folder);
+    }
+  }
+
+  // tests that every image is filtered by the script and written under the same name
+  @Test
+  public void processesEveryImage() throws IOException {
+    for (int i = 0; i < 5; i++) {
+      new PPM().exportFile(new File(this.input, "image" + i + ".ppm").getPath(),
+          TestFixtures.noise(9, 6, i));
+    }
+    StringBuilder log = new StringBuilder();
+    int failed = new BatchProcessor("sepia\nblur\n", 2, log)
+        .processFolder(this.input.getPath(), this.output.getPath());
+    assertEquals(0, failed);
+    for (int i = 0; i < 5; i++) {
+      ImageInterface expected = TestFixtures.noise(9, 6, i).filter(new Sepia())
+          .filter(new Blur());
+      ImageInterface actual = new PPM().importFile(
+          new File(this.output, "image" + i + ".ppm").getPath());
+      assertEquals(expected, actual);
+      assertTrue(log.toString().contains("Done image" + i + ".ppm"));
+    }
+    assertTrue(log.toString().endsWith("Processed 5 images, 0 failed.\n"));
+  }
+
+  // tests that an image that can not be read is reported while the rest are still processed, and
+  // that files which are not images are skipped
+  @Test
+  public void brokenImageReported() throws IOException {
+    new PPM().exportFile(new File(this.input, "good.ppm").getPath(), TestFixtures.noise(9, 6, 3));
+    try (FileWriter writer = new FileWriter(new File(this.input, "broken.ppm"))) {
+      writer.write("P3 not an image");
+    }
+    try (FileWriter writer = new FileWriter(new File(this.input, "notes.txt"))) {
+      writer.write("not an image either");
+    }
+    StringBuilder log = new StringBuilder();
+    int failed = new BatchProcessor("monochrome", 1, log)
+        .processFolder(this.input.getPath(), this.output.getPath());
+    assertEquals(1, failed);
+    assertTrue(log.toString().contains("Failed broken.ppm"));
+    assertTrue(new File(this.output, "good.ppm").isFile());
+    assertFalse(new File(this.output, "broken.ppm").exists());
+    assertFalse(new File(this.output, "notes.txt").exists());
+    assertTrue(log.toString().endsWith("Processed 2 images, 1 failed.\n"));
+  }
+
+  // tests that an image the script could not be fully carried out on is reported as failed with
+  // the controller's messages, and is not written, rather than written without the filters
+  @Test
+  public void scriptErrorsReported() throws IOException {
+    for (int i = 0; i < 2; i++) {
+      new PPM().exportFile(new File(this.input, "image" + i + ".ppm").getPath(),
+          TestFixtures.noise(9, 6, i));
+    }
+    StringBuilder log = new StringBuilder();
+    int failed = new BatchProcessor("sepia\nsharpn\ngaussian zero\n", 2, log)
+        .processFolder(this.input.getPath(), this.output.getPath());
+    assertEquals(2, failed);
+    for (int i = 0; i < 2; i++) {
+      assertTrue(log.toString().contains("Failed image" + i + ".ppm: Unknown command sharpn"));
+      assertFalse(new File(this.output, "image" + i + ".ppm").exists());
+    }
+    assertTrue(log.toString().contains("The number passed as the current was not an integer"));
+    assertTrue(log.toString().endsWith("Processed 2 images, 2 failed.\n"));
+  }
+
+  // tests that messages which are not errors, like the cache statistics, do not fail an image
+  @Test
+  public void cacheStatsNotAnError() throws IOException {
+    new PPM().exportFile(new File(this.input, "image.ppm").getPath(), TestFixtures.noise(9, 6, 1));
+    StringBuilder log = new StringBuilder();
+    int failed = new BatchProcessor("blur\ncache-stats\n", 1, log)
+        .processFolder(this.input.getPath(), this.output.getPath());
+    assertEquals(0, failed);
+    assertTrue(new File(this.output, "image.ppm").isFile());
+  }
+
+  // tests that an exception is thrown when the input folder does not exist
+  @Test(expected = IllegalArgumentException.class)
+  public void missingInputFolder() throws IOException {
+    new BatchProcessor("blur", 1, new StringBuilder())
+        .processFolder(new File(this.input, "missing").getPath(), this.output.getPath());
+  }
+
+  // tests that an exception is thrown when there are no workers
+  @Test(expected = IllegalArgumentException.class)
+  public void noWorkers() {
+    new BatchProcessor("blur", 0, new StringBuilder());
+  }
+
+  // tests that an exception is thrown when the script is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullScript() {
+    new BatchProcessor(null, 1, new StringBuilder());
+  }
+}
@@ -0,0 +1,144 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import model.filters.Blur;
+import model.filters.IFilter;
+import model.filters.IMosaic;
+import model.filters.Monochrome;
+import model.filters.Mosaic;
+import model.filters.Sepia;
+import model.filters.Sharpen;
+import model.image.PackedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the bulk apply methods of IFilter. This class tests that filtering a whole image,
+ * or a band of its rows, at once gives the same pixels as filtering it one pixel at a time with
+ * newColorValsAt.
+ */
+public class BulkFilterTest {
+
+  private PackedImage testImage;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    this.testImage = TestFixtures.noise(7, 5, 42);
+  }
+
+  /**
+   * Filters the test image one pixel at a time using newColorValsAt.
+   *
+   * @param filter the filter to apply
+   * @return the filtered pixels in row-major order
+   */
+  private int[] filterPerPixel(IFilter filter) {
+    return TestFixtures.filterPerPixel(filter, this.testImage);
+  }
+
+  /**
+   * Filters the test image with the bulk apply method.
+   *
+   * @param filter the filter to apply
+   * @return the filtered pixels in row-major order
+   */
+  private int[] filterInBulk(IFilter filter) {
+    int[] actual = new int[7 * 5];
+    filter.apply(this.testImage, actual);
+    return actual;
+  }
+
+  // tests that bulk blur matches per pixel blur, including the edges
+  @Test
+  public void blurMatchesPerPixel() {
+    assertEquals(Arrays.toString(this.filterPerPixel(new Blur())),
+        Arrays.toString(this.filterInBulk(new Blur())));
+  }
+
+  // tests that bulk sharpen matches per pixel sharpen, including the edges
+  @Test
+  public void sharpenMatchesPerPixel() {
+    assertEquals(Arrays.toString(this.filterPerPixel(new Sharpen())),
+        Arrays.toString(this.filterInBulk(new Sharpen())));
+  }
+
+  // tests that bulk sepia matches per pixel sepia
+  @Test
+  public void sepiaMatchesPerPixel() {
+    assertEquals(Arrays.toString(this.filterPerPixel(new Sepia())),
+        Arrays.toString(this.filterInBulk(new Sepia())));
+  }
+
+  // tests that bulk monochrome matches per pixel monochrome
+  @Test
+  public void monochromeMatchesPerPixel() {
+    assertEquals(Arrays.toString(this.filterPerPixel(new Monochrome())),
+        Arrays.toString(this.filterInBulk(new Monochrome())));
+  }
+
+  // tests that bulk mosaic matches per pixel mosaic, with and without seeds
+  @Test
+  public void mosaicMatchesPerPixel() {
+    IMosaic mosaic = new Mosaic();
+    mosaic.initializeSeeds(4, this.testImage, new Random(1), new Random(2));
+    assertEquals(Arrays.toString(this.filterPerPixel(mosaic)),
+        Arrays.toString(this.filterInBulk(mosaic)));
+    mosaic.initializeSeeds(0, this.testImage, new Random(1), new Random(2));
+    assertEquals(Arrays.toString(this.testImage.getPixels()),
+        Arrays.toString(this.filterInBulk(mosaic)));
+  }
+
+  // tests that a filter that only implements newColorValsAt still works in bulk
+  @Test
+  public void fallbackForPerPixelFilter() {
+    IFilter invert = (x, y, img) -> new ArrayList<>(Arrays.asList(255 - img.getRedAt(x, y),
+        255 - img.getGreenAt(x, y), 255 - img.getBlueAt(x, y)));
+    int[] actual = this.filterInBulk(invert);
+    for (int i = 0; i < actual.length; i++) {
+      assertEquals(0xFFFFFF - this.testImage.getPixels()[i], actual[i]);
+    }
+  }
+
+  // tests that filtering a band of rows only writes to those rows
+  @Test
+  public void bandOfRowsOnly() {
+    int[] expected = this.filterPerPixel(new Sharpen());
+    int[] actual = new int[7 * 5];
+    new Sharpen().apply(this.testImage, actual, 1, 3);
+    for (int i = 0; i < actual.length; i++) {
+      if (i >= 7 && i < 21) {
+        assertEquals(expected[i], actual[i]);
+      } else {
+        assertEquals(0, actual[i]);
+      }
+    }
+  }
+
+  // tests that filtering a PackedImage gives the same image as filtering one pixel at a time
+  @Test
+  public void packedImageFilterUsesBulk() {
+    assertEquals(new PackedImage(7, 5, this.filterPerPixel(new Blur())),
+        this.testImage.filter(new Blur()));
+  }
+
+  // tests that an exception is thrown when the destination is the wrong size
+  @Test(expected = IllegalArgumentException.class)
+  public void destinationWrongSize() {
+    new Blur().apply(this.testImage, new int[3]);
+  }
+
+  // tests that an exception is thrown when the image is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullImage() {
+    new Sepia().apply(null, new int[3]);
+  }
+
+  // tests that an exception is thrown when the rows are out of range
+  @Test(expected = IllegalArgumentException.class)
+  public void rowsOutOfRange() {
+    new Sepia().apply(this.testImage, new int[7 * 5], 2, 6);
+  }
+}
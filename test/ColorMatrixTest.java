@@ -0,0 +1,130 @@
+import static model.image.Image.clamp;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import model.filters.AbstractColorFilter;
+import model.filters.ColorMatrix;
+import model.filters.Monochrome;
+import model.filters.Sepia;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.Test;
+
+/**
+ * Test class for ColorMatrix and the compiled matrices of AbstractColorFilter. This class tests
+ * that color filters give exactly the pixels multiplying their matrices out with doubles gives,
+ * for every color, and that two color filters can be multiplied into one.
+ */
+public class ColorMatrixTest {
+
+  /**
+   * Checks that the given filter gives, for every one of the 2^24 colors, the same pixel as
+   * multiplying its matrix out with doubles and clamping each new color.
+   *
+   * @param filter the filter to check
+   * @param rows the matrix of the filter, where rows[out][in] is what new color out takes of old
+   *     color in
+   */
+  private static void assertMatchesDoublesForEveryColor(AbstractColorFilter filter,
+      double[][] rows) {
+    int[] pixels = new int[256 * 256];
+    int[] dst = new int[256 * 256];
+    for (int red = 0; red < 256; red++) {
+      for (int i = 0; i < pixels.length; i++) {
+        pixels[i] = (red << 16) | i;
+      }
+      filter.apply(new PackedImage(256, 256, pixels), dst);
+      for (int i = 0; i < pixels.length; i++) {
+        int green = i >> 8;
+        int blue = i & 0xFF;
+        int expected = PackedImage.packRGB(
+            clamp(rows[0][0] * red + rows[0][1] * green + rows[0][2] * blue),
+            clamp(rows[1][0] * red + rows[1][1] * green + rows[1][2] * blue),
+            clamp(rows[2][0] * red + rows[2][1] * green + rows[2][2] * blue));
+        if (expected != dst[i]) {
+          assertEquals(Integer.toHexString(pixels[i]), expected, dst[i]);
+        }
+      }
+    }
+  }
+
+  // tests that sepia gives exactly the same pixels as multiplying out with doubles
+  @Test
+  public void sepiaMatchesDoubles() {
+    assertMatchesDoublesForEveryColor(new Sepia(), new double[][] {
+        {.393, .769, .189}, {.349, .686, .168}, {.272, .534, .131}});
+  }
+
+  // tests that monochrome gives exactly the same pixels as multiplying out with doubles
+  @Test
+  public void monochromeMatchesDoubles() {
+    assertMatchesDoublesForEveryColor(new Monochrome(), new double[][] {
+        {.2126, .7152, .0722}, {.2126, .7152, .0722}, {.2126, .7152, .0722}});
+  }
+
+  // tests matrices where each new color takes from only one old color, which are read out of
+  // tables, including colors that clamp and a color that takes nothing
+  @Test
+  public void singleColorRowsMatchDoubles() {
+    double[][] rows = {{0.0, 0.0, 1.3}, {0.0, 0.5, 0.0}, {0.0, 0.0, 0.0}};
+    assertMatchesDoublesForEveryColor(new ColorMatrix(rows), rows);
+  }
+
+  // tests matrices with negative values and values large enough that the sums are found with
+  // doubles rather than whole numbers
+  @Test
+  public void largeAndNegativeMatchDoubles() {
+    double[][] rows = {{1.5, -0.75, 0.3}, {9.0, -4.0, 1.0}, {-0.2, 0.1, 1.7}};
+    assertMatchesDoublesForEveryColor(new ColorMatrix(rows), rows);
+  }
+
+  // tests that the list of new colors at a pixel matches the bulk apply method
+  @Test
+  public void newColorValsAtMatchesApply() {
+    PackedImage img = new PackedImage(2, 1, new int[] {
+        PackedImage.packRGB(12, 200, 99), PackedImage.packRGB(255, 0, 131)});
+    ImageInterface filtered = img.filter(new Sepia());
+    for (int x = 0; x < 2; x++) {
+      List<Integer> vals = new Sepia().newColorValsAt(x, 0, img);
+      assertEquals(filtered.getRedAt(x, 0), (int) vals.get(0));
+      assertEquals(filtered.getGreenAt(x, 0), (int) vals.get(1));
+      assertEquals(filtered.getBlueAt(x, 0), (int) vals.get(2));
+    }
+  }
+
+  // tests that multiplying monochrome and sepia together gives the product of their matrices,
+  // which is at most one off from applying them one at a time
+  @Test
+  public void andThenMultiplies() {
+    AbstractColorFilter both = new Monochrome().andThen(new Sepia());
+    PackedImage img = new PackedImage(1, 1, new int[] {PackedImage.packRGB(40, 100, 220)});
+    double gray = .2126 * 40 + .7152 * 100 + .0722 * 220;
+    ImageInterface once = img.filter(both);
+    assertEquals(clamp((.393 + .769 + .189) * gray), once.getRedAt(0, 0));
+    assertEquals(clamp((.349 + .686 + .168) * gray), once.getGreenAt(0, 0));
+    assertEquals(clamp((.272 + .534 + .131) * gray), once.getBlueAt(0, 0));
+    ImageInterface twice = img.filter(new Monochrome()).filter(new Sepia());
+    assertTrue(Math.abs(twice.getRedAt(0, 0) - once.getRedAt(0, 0)) <= 1);
+    assertTrue(Math.abs(twice.getGreenAt(0, 0) - once.getGreenAt(0, 0)) <= 1);
+    assertTrue(Math.abs(twice.getBlueAt(0, 0) - once.getBlueAt(0, 0)) <= 1);
+  }
+
+  // tests that an exception is thrown when the filter multiplied in is null
+  @Test(expected = IllegalArgumentException.class)
+  public void andThenNull() {
+    new Sepia().andThen(null);
+  }
+
+  // tests that an exception is thrown when the matrix is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullMatrix() {
+    new ColorMatrix(null);
+  }
+
+  // tests that an exception is thrown when a row of the matrix is the wrong length
+  @Test(expected = IllegalArgumentException.class)
+  public void shortRow() {
+    new ColorMatrix(new double[][] {{1, 0, 0}, {0, 1}, {0, 0, 1}});
+  }
+}
@@ -0,0 +1,68 @@
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import model.files.IFileType;
+import model.files.PNG;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.Test;
+
+/**
+ * Test class for AbstractComplexFileType, through PNG since PNG files are lossless. This class
+ * tests that pixels copied in bulk to and from BufferedImages keep their colors, whatever kind of
+ * BufferedImage ImageIO reads the file as.
+ */
+public class ComplexFileTypeTest {
+
+  private IFileType png = new PNG();
+
+  // tests that a packed image is imported as the same image it was exported from
+  @Test
+  public void packedRoundTrip() throws IOException {
+    File file = TestFixtures.tempFile("ComplexFileTypeTest", ".png");
+    this.png.exportFile(file.getPath(), TestFixtures.colorful(23, 14));
+    assertEquals(TestFixtures.colorful(23, 14), this.png.importFile(file.getPath()));
+  }
+
+  // tests that a list based image is imported as the same image it was exported from
+  @Test
+  public void listImageRoundTrip() throws IOException {
+    File file = TestFixtures.tempFile("ComplexFileTypeTest", ".png");
+    ImageInterface img = TestFixtures.colorful(23, 14).toImage();
+    this.png.exportFile(file.getPath(), img);
+    assertEquals(img, this.png.importFile(file.getPath()));
+  }
+
+  // tests that the colors of a file with transparency are imported without the transparency
+  @Test
+  public void importWithAlpha() throws IOException {
+    BufferedImage argb = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+    argb.setRGB(0, 0, 0x80102030);
+    argb.setRGB(1, 0, 0xFFFFFFFF);
+    File file = TestFixtures.tempFile("ComplexFileTypeTest", ".png");
+    ImageIO.write(argb, "png", file);
+    PackedImage img = (PackedImage) this.png.importFile(file.getPath());
+    assertEquals(0x102030, img.getRGBAt(0, 0));
+    assertEquals(0xFFFFFF, img.getRGBAt(1, 0));
+  }
+
+  // tests that a gray file, which is not read through the raster, is imported as it is drawn
+  @Test
+  public void importGray() throws IOException {
+    BufferedImage gray = new BufferedImage(3, 2, BufferedImage.TYPE_BYTE_GRAY);
+    gray.getRaster().setSample(2, 1, 0, 255);
+    File file = TestFixtures.tempFile("ComplexFileTypeTest", ".png");
+    ImageIO.write(gray, "png", file);
+    BufferedImage read = ImageIO.read(file);
+    PackedImage img = (PackedImage) this.png.importFile(file.getPath());
+    for (int x = 0; x < 3; x++) {
+      for (int y = 0; y < 2; y++) {
+        assertEquals(read.getRGB(x, y) & 0xFFFFFF, img.getRGBAt(x, y));
+      }
+    }
+    assertEquals(0xFFFFFF, img.getRGBAt(2, 1));
+  }
+}
@@ -19,13 +19,17 @@ import model.FilterModel;
 import model.IComplexEffectModel;
 import model.IFilterModel;
 import model.ILayer;
+import model.Layer;
+import model.LayerCache;
 import model.files.PPM;
 import model.filters.Blur;
-import model.filters.Downscale;
+import model.filters.Gaussian;
 import model.filters.IEffect;
 import model.filters.IMosaic;
 import model.filters.Monochrome;
 import model.filters.Mosaic;
+import model.filters.Resample;
+import model.filters.ResampleFilter;
 import model.filters.Sepia;
 import model.filters.Sharpen;
 import model.image.Image;
@@ -244,6 +248,70 @@ public class ControllerTest {
     assertEquals(this.checkerBoard, this.model.getImageAt(1));
   }
 
+  // test for user inputting "gaussian", chained with another filter
+  @Test
+  public void testGaussian() {
+    this.str.append("checkerboard 30 30 5 gaussian 3 sepia q");
+    this.rd = new CharArrayReader(this.str.toString().toCharArray());
+    this.controller = new FilterController(this.model, this.rd, this.ap);
+    this.controller.runProgram();
+
+    this.checkerBoard = this.imageType.createImageRepresentation(30, 30, 5,
+        new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+    this.checkerBoard = this.checkerBoard.filter(new Gaussian(3)).filter(new Sepia());
+
+    assertEquals(this.checkerBoard, this.model.getImageAt(0));
+  }
+
+  // test for user inputting "gaussian" with a radius that is not positive
+  @Test
+  public void testGaussianBadRadius() {
+    this.str.append("checkerboard 30 30 5 gaussian 0 q");
+    this.rd = new CharArrayReader(this.str.toString().toCharArray());
+    this.controller = new FilterController(this.model, this.rd, this.ap);
+    this.controller.runProgram();
+
+    assertTrue(this.ap.toString().contains(
+        "The radius of a gaussian blur must be a positive integer"));
+    assertEquals(this.imageType.createImageRepresentation(30, 30, 5,
+        new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE))),
+        this.model.getImageAt(0));
+  }
+
+  // test for user inputting "ppm-format", which picks the format files with the ppm extension are
+  // saved in
+  @Test
+  public void testPPMFormat() {
+    PPM.Format previous = PPM.getDefaultFormat();
+    try {
+      this.str.append("ppm-format binary ppm-format p5 q");
+      this.rd = new CharArrayReader(this.str.toString().toCharArray());
+      this.controller = new FilterController(this.model, this.rd, this.ap);
+      this.controller.runProgram();
+
+      assertEquals(PPM.Format.RAW_RGB, PPM.getDefaultFormat());
+      assertTrue(this.ap.toString().contains("The PPM format must be plain or binary."));
+    } finally {
+      PPM.setDefaultFormat(previous);
+    }
+  }
+
+  // test for user inputting "cache-stats", which prints the statistics of the cache of the model
+  // being edited rather than those of the default cache
+  @Test
+  public void testCacheStats() throws IOException {
+    try (LayerCache cache = new LayerCache(1 << 20)) {
+      this.model = new FilterModel(new ArrayList<>(), cache);
+      this.str.append("create checkerboard 3 3 1 blur cache-stats q");
+      this.rd = new CharArrayReader(this.str.toString().toCharArray());
+      this.controller = new FilterController(this.model, this.rd, this.ap);
+      this.controller.runProgram();
+
+      assertTrue(this.ap.toString().contains("Layer cache: " + cache));
+      assertTrue(cache.toString().endsWith("of a budget of 1048576 bytes"));
+    }
+  }
+
   // test for user inputting "mosaic"
   @Test
   public void testMosaic() {
@@ -271,17 +339,55 @@ public class ControllerTest {
 
     this.checkerBoard = this.imageType.createImageRepresentation(100, 100, 10,
         new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
-    IEffect downscale = new Downscale(10, 10);
-    this.checkerBoard = downscale.applyEffect(this.checkerBoard);
+    // downscaling averages the smallest level of each layer's pyramid that is still big enough
+    IEffect downscale = new Resample(10, 10, ResampleFilter.BOX);
+    this.checkerBoard = downscale.applyEffect(
+        new Layer(this.checkerBoard, "board.ppm").getImageAtLeast(10, 10));
 
     assertEquals(this.checkerBoard, this.model.getImageAt(0));
+    assertEquals(this.checkerBoard, this.model.getImageAt(1));
+  }
 
-    this.checkerBoard = this.imageType.createImageRepresentation(100, 100, 10,
-        new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
-    downscale = new Downscale(10, 10);
-    this.checkerBoard = downscale.applyEffect(this.checkerBoard);
+  // test for user inputting "downscale" with a size that is not positive
+  @Test
+  public void testDownscaleBadSize() {
+    this.str.append("checkerboard 30 30 5 downscale 0 10 q");
+    this.rd = new CharArrayReader(this.str.toString().toCharArray());
+    this.controller = new FilterController(this.model, this.rd, this.ap);
+    this.controller.runProgram();
 
-    assertEquals(this.checkerBoard, this.model.getImageAt(1));
+    assertTrue(this.ap.toString().contains(
+        "The new width and height must be positive integers"));
+    assertEquals(30, this.model.getImageAt(0).getImageWidth());
+  }
+
+  // test for user inputting "resize", which can make the layers larger as well as smaller
+  @Test
+  public void testResize() {
+    this.str.append("checkerboard 30 30 5 checkerboard 30 30 5 resize 45 20 lanczos3 q");
+    this.rd = new CharArrayReader(this.str.toString().toCharArray());
+    this.controller = new FilterController(this.model, this.rd, this.ap);
+    this.controller.runProgram();
+
+    // the layers are not halved, since half of their height would be shorter than 20
+    ImageInterface expected = new Resample(45, 20, ResampleFilter.LANCZOS3).applyEffect(
+        this.imageType.createImageRepresentation(30, 30, 5,
+            new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE))));
+    assertEquals(expected, this.model.getImageAt(0));
+    assertEquals(expected, this.model.getImageAt(1));
+  }
+
+  // test for user inputting "resize" with a filter that does not exist
+  @Test
+  public void testResizeBadFilter() {
+    this.str.append("checkerboard 30 30 5 resize 10 10 nearest q");
+    this.rd = new CharArrayReader(this.str.toString().toCharArray());
+    this.controller = new FilterController(this.model, this.rd, this.ap);
+    this.controller.runProgram();
+
+    assertTrue(this.ap.toString().contains(
+        "The resample filter must be box, bilinear, bicubic, or lanczos3."));
+    assertEquals(30, this.model.getImageAt(0).getImageWidth());
   }
 
   // test for user inputting "save"
@@ -1,10 +1,14 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import controller.ControllerUtil;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -12,6 +16,7 @@ import javax.imageio.ImageIO;
 import model.FilterModel;
 import model.IFilterModel;
 import model.ILayer;
+import model.Layer;
 import model.files.FileTypeCreator;
 import model.files.IFileType;
 import model.files.JPEG;
@@ -502,4 +507,69 @@ public class ControllerUtilTest {
         this.model.getImageAt(2));
     assertTrue(this.model.getLayers().get(2).getVisibility());
   }
+
+  // test that exporting and importing many layers at once keeps the order and visibility of the
+  // layers
+  @Test
+  public void testExportAndImportAllManyLayers() throws IOException {
+    File folder = Files.createTempDirectory("export-all").toFile();
+    List<ILayer> layers = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      ImageInterface board = this.imageType.createImageRepresentation(4 + i, 3, 1,
+          new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+      layers.add(new Layer(board, "layer" + i + ".ppm", i % 3 != 0));
+    }
+    try {
+      this.util.exportAll(folder.getPath(), layers);
+      List<ILayer> imported = this.util.importAll(folder.getPath());
+      assertEquals(12, imported.size());
+      for (int i = 0; i < 12; i++) {
+        assertEquals("layer" + i + ".ppm", imported.get(i).getFileName());
+        // only the visible layers are read until the images of the others are asked for
+        assertEquals(i % 3 != 0, imported.get(i).isLoaded());
+        assertEquals(layers.get(i).getImage(), imported.get(i).getImage());
+        assertEquals(i % 3 != 0, imported.get(i).getVisibility());
+      }
+    } finally {
+      TestFixtures.deleteFolder(folder);
+    }
+  }
+
+  // test that a layer that can not be read fails the whole import
+  @Test(expected = IllegalArgumentException.class)
+  public void testImportAllBrokenLayer() throws IOException {
+    File folder = Files.createTempDirectory("import-all").toFile();
+    try {
+      new PPM().exportFile(new File(folder, "good.ppm").getPath(), this.checkerBoard);
+      try (FileWriter writer = new FileWriter(new File(folder, "broken.ppm"))) {
+        writer.write("P3 not an image");
+      }
+      try (FileWriter writer = new FileWriter(new File(folder, "locations.txt"))) {
+        writer.write("Layer 1 File: good.ppm Visibility: true\n"
+            + "Layer 2 File: broken.ppm Visibility: true\n"
+            + "Layer 3 File: good.ppm Visibility: false\n");
+      }
+      this.util.importAll(folder.getPath());
+    } finally {
+      TestFixtures.deleteFolder(folder);
+    }
+  }
+
+  // test that locations.txt is not written when a layer can not be exported
+  @Test
+  public void testExportAllBrokenLayer() throws IOException {
+    File folder = Files.createTempDirectory("export-all").toFile();
+    List<ILayer> layers = new ArrayList<>(Arrays.asList(
+        new Layer(this.checkerBoard, "first.ppm", true),
+        new Layer(this.checkerBoard, "missing/second.ppm", true)));
+    try {
+      this.util.exportAll(folder.getPath(), layers);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      assertFalse(new File(folder, "locations.txt").exists());
+      return;
+    } finally {
+      TestFixtures.deleteFolder(folder);
+    }
+    throw new AssertionError("The export should have failed.");
+  }
 }
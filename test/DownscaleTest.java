@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
 import model.filters.Downscale;
 import model.filters.IEffect;
 import model.filters.IMosaic;
@@ -77,21 +78,21 @@ public class DownscaleTest {
   // Tests that downscaled top middle pixel is correct color
   @Test
   public void downscaleMiddlePixel() {
-    assertEquals(200, this.downscaleTestImage1.getRedAt(1, 1));
-    assertEquals(63, this.downscaleTestImage1.getGreenAt(1, 1));
-    assertEquals(89, this.downscaleTestImage1.getBlueAt(1, 1));
+    assertEquals(66, this.downscaleTestImage1.getRedAt(1, 1));
+    assertEquals(20, this.downscaleTestImage1.getGreenAt(1, 1));
+    assertEquals(29, this.downscaleTestImage1.getBlueAt(1, 1));
   }
 
   // Tests that downscaled bottom right pixel is correct color
   @Test
   public void downscaleBottomRightPixel() {
-    assertEquals(187, this.downscaleTestImage1.getRedAt(2, 2));
-    assertEquals(182, this.downscaleTestImage1.getGreenAt(2, 2));
-    assertEquals(81, this.downscaleTestImage1.getBlueAt(2, 2));
+    assertEquals(178, this.downscaleTestImage1.getRedAt(2, 2));
+    assertEquals(175, this.downscaleTestImage1.getGreenAt(2, 2));
+    assertEquals(78, this.downscaleTestImage1.getBlueAt(2, 2));
 
-    assertEquals(0, this.downscaleTestImage2.getRedAt(2, 1));
-    assertEquals(0, this.downscaleTestImage2.getGreenAt(2, 1));
-    assertEquals(255, this.downscaleTestImage2.getBlueAt(2, 1));
+    assertEquals(93, this.downscaleTestImage2.getRedAt(2, 1));
+    assertEquals(91, this.downscaleTestImage2.getGreenAt(2, 1));
+    assertEquals(168, this.downscaleTestImage2.getBlueAt(2, 1));
   }
 
   // Tests that an exception is thrown when a negative width is given
@@ -112,6 +113,17 @@ public class DownscaleTest {
     new Downscale(10, 10).applyEffect(null);
   }
 
+  // Tests that downscaling stops when the thread is interrupted
+  @Test(expected = CancellationException.class)
+  public void downscaleInterrupted() {
+    Thread.currentThread().interrupt();
+    try {
+      new Downscale(2, 2).applyEffect(this.downscaleTestImage1);
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
   // Tests that an exception is thrown when an attempt is made to increase an image's size
   @Test(expected = IllegalArgumentException.class)
   public void downscaleIncreaseImageSize() {
@@ -0,0 +1,121 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import model.filters.Blur;
+import model.filters.EdgeMode;
+import model.filters.Sharpen;
+import model.image.PackedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for EdgeMode. This class tests that each edge mode finds the right pixel to read past
+ * the edge of an image, and that blur and sharpen give the same result for every edge mode whether
+ * they filter one pixel at a time or the whole image at once.
+ */
+public class EdgeModeTest {
+
+  private PackedImage testImage;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    this.testImage = TestFixtures.noise(9, 6, 3);
+  }
+
+  // tests that indices inside the image are never changed
+  @Test
+  public void insideIsUnchanged() {
+    for (EdgeMode mode : EdgeMode.values()) {
+      assertEquals(3, mode.resolve(3, 5));
+    }
+  }
+
+  // tests the pixels read past each edge in zero mode
+  @Test
+  public void zeroResolve() {
+    assertEquals(-1, EdgeMode.ZERO.resolve(-1, 5));
+    assertEquals(-1, EdgeMode.ZERO.resolve(5, 5));
+  }
+
+  // tests the pixels read past each edge in clamp mode
+  @Test
+  public void clampResolve() {
+    assertEquals(0, EdgeMode.CLAMP.resolve(-2, 5));
+    assertEquals(4, EdgeMode.CLAMP.resolve(6, 5));
+  }
+
+  // tests the pixels read past each edge in mirror mode
+  @Test
+  public void mirrorResolve() {
+    assertEquals(1, EdgeMode.MIRROR.resolve(-1, 5));
+    assertEquals(2, EdgeMode.MIRROR.resolve(-2, 5));
+    assertEquals(3, EdgeMode.MIRROR.resolve(5, 5));
+    assertEquals(2, EdgeMode.MIRROR.resolve(6, 5));
+    assertEquals(0, EdgeMode.MIRROR.resolve(-3, 1));
+    assertEquals(1, EdgeMode.MIRROR.resolve(-1, 2));
+  }
+
+  // tests the pixels read past each edge in wrap mode
+  @Test
+  public void wrapResolve() {
+    assertEquals(4, EdgeMode.WRAP.resolve(-1, 5));
+    assertEquals(0, EdgeMode.WRAP.resolve(5, 5));
+    assertEquals(1, EdgeMode.WRAP.resolve(-9, 5));
+  }
+
+  // tests that bulk blur matches per pixel blur in every edge mode
+  @Test
+  public void blurEveryMode() {
+    for (EdgeMode mode : EdgeMode.values()) {
+      TestFixtures.assertBulkMatchesPerPixel(new Blur(mode), this.testImage);
+    }
+  }
+
+  // tests that bulk sharpen matches per pixel sharpen in every edge mode, including an image
+  // smaller than the sharpen matrix
+  @Test
+  public void sharpenEveryMode() {
+    for (EdgeMode mode : EdgeMode.values()) {
+      TestFixtures.assertBulkMatchesPerPixel(new Sharpen(mode), this.testImage);
+    }
+    this.testImage = new PackedImage(3, 2, Arrays.copyOf(this.testImage.getPixels(), 6));
+    for (EdgeMode mode : EdgeMode.values()) {
+      int[] actual = new int[6];
+      new Sharpen(mode).apply(this.testImage, actual);
+      List<Integer> vals = new Sharpen(mode).newColorValsAt(2, 1, this.testImage);
+      assertEquals(PackedImage.packRGB(vals.get(0), vals.get(1), vals.get(2)), actual[5]);
+    }
+  }
+
+  // tests that blurring a single color image keeps the color at the edges when the edge pixels
+  // are clamped, but darkens them when they are left out
+  @Test
+  public void blurSingleColorEdges() {
+    int[] gray = new int[4 * 4];
+    Arrays.fill(gray, 0x808080);
+    PackedImage grayImage = new PackedImage(4, 4, gray);
+    for (EdgeMode mode : new EdgeMode[] {EdgeMode.CLAMP, EdgeMode.MIRROR, EdgeMode.WRAP}) {
+      assertEquals(grayImage, grayImage.filter(new Blur(mode)));
+    }
+    assertEquals(0x606060, ((PackedImage) grayImage.filter(new Blur())).getRGBAt(0, 1));
+  }
+
+  // tests that an exception is thrown when the edge mode is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullEdgeMode() {
+    new Blur(null);
+  }
+
+  // tests that the kernel can not be changed through the array it is read into
+  @Test
+  public void kernelCanNotBeChanged() {
+    Blur blur = new Blur();
+    double[] kernel = blur.getKernel();
+    assertEquals(9, kernel.length);
+    assertEquals(.25, kernel[4], 0.0);
+    kernel[4] = 100;
+    assertEquals(.25, blur.getKernel()[4], 0.0);
+  }
+}
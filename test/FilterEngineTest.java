@@ -0,0 +1,200 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import model.filters.Blur;
+import model.filters.IFilter;
+import model.filters.IMosaic;
+import model.filters.Monochrome;
+import model.filters.Mosaic;
+import model.filters.Sepia;
+import model.filters.Sharpen;
+import model.image.FilterEngine;
+import model.image.PackedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for FilterEngine. This class tests that filtering an image in parallel bands of rows
+ * gives exactly the same pixels as filtering it on a single thread.
+ */
+public class FilterEngineTest {
+
+  private PackedImage testImage;
+  private FilterEngine serial;
+  private FilterEngine parallel;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    this.testImage = TestFixtures.noise(301, 299, 7);
+    this.serial = new FilterEngine(1);
+    this.parallel = new FilterEngine(4);
+  }
+
+  /**
+   * Checks that the parallel engine and the serial engine give the same image for the filter.
+   *
+   * @param filter the filter to apply
+   */
+  private void checkMatchesSerial(IFilter filter) {
+    assertEquals(this.serial.filter(this.testImage, filter),
+        this.parallel.filter(this.testImage, filter));
+  }
+
+  // tests that parallel blur matches serial blur
+  @Test
+  public void blurMatchesSerial() {
+    this.checkMatchesSerial(new Blur());
+  }
+
+  // tests that parallel sharpen matches serial sharpen
+  @Test
+  public void sharpenMatchesSerial() {
+    this.checkMatchesSerial(new Sharpen());
+  }
+
+  // tests that parallel sepia matches serial sepia
+  @Test
+  public void sepiaMatchesSerial() {
+    this.checkMatchesSerial(new Sepia());
+  }
+
+  // tests that parallel monochrome matches serial monochrome
+  @Test
+  public void monochromeMatchesSerial() {
+    this.checkMatchesSerial(new Monochrome());
+  }
+
+  // tests that a mosaic whose pixels were assigned to seeds in parallel bands is the same as one
+  // assigned on a single thread, for the same two Randoms
+  @Test
+  public void mosaicMatchesSerial() {
+    IMosaic serialMosaic = new Mosaic(this.serial);
+    serialMosaic.initializeSeeds(500, this.testImage, new Random(3), new Random(4));
+    IMosaic parallelMosaic = new Mosaic(this.parallel);
+    parallelMosaic.initializeSeeds(500, this.testImage, new Random(3), new Random(4));
+    assertEquals(this.serial.filter(this.testImage, serialMosaic),
+        this.parallel.filter(this.testImage, parallelMosaic));
+  }
+
+  // tests that every row is given to exactly one band
+  @Test
+  public void forEachBandCoversEveryRowOnce() {
+    int[] timesRun = new int[299];
+    this.parallel.forEachBand(299, 301, (startRow, endRow) -> {
+      for (int y = startRow; y < endRow; y++) {
+        timesRun[y]++;
+      }
+    });
+    for (int times : timesRun) {
+      assertEquals(1, times);
+    }
+  }
+
+  // tests that bands are never split below the fewest rows asked for
+  @Test
+  public void forEachBandKeepsMinRows() {
+    List<Integer> bandRows = new ArrayList<>();
+    this.parallel.forEachBand(1000, 1000, 300, (startRow, endRow) -> {
+      synchronized (bandRows) {
+        bandRows.add(endRow - startRow);
+      }
+    });
+    assertEquals(2, bandRows.size());
+    assertEquals(1000, bandRows.get(0) + bandRows.get(1));
+  }
+
+  // tests that no more bands are started once the calling thread is interrupted, on one thread or
+  // many
+  @Test
+  public void interruptStopsBands() {
+    Thread caller = Thread.currentThread();
+    for (FilterEngine engine : Arrays.asList(this.serial, this.parallel)) {
+      AtomicInteger bands = new AtomicInteger();
+      try {
+        engine.forEachBand(4000, 4000, (startRow, endRow) -> {
+          bands.incrementAndGet();
+          caller.interrupt();
+          // each band takes a moment, as a band of a real filter would
+          LockSupport.parkNanos(1000000);
+        });
+        fail("The bands should have stopped once the caller was interrupted.");
+      } catch (CancellationException e) {
+        // expected
+      } finally {
+        Thread.interrupted();
+      }
+      // the serial engine splits the rows into 3 bands, and the parallel engine into 512
+      assertTrue(bands.get() < (engine == this.serial ? 2 : 64));
+    }
+  }
+
+  // tests that an image is not filtered at all when the calling thread is already interrupted
+  @Test(expected = CancellationException.class)
+  public void interruptedBeforeFiltering() {
+    Thread.currentThread().interrupt();
+    try {
+      this.parallel.filter(this.testImage, new Blur());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  // tests that a filter that is not parallel safe is still applied correctly
+  @Test
+  public void unsafeFilterRunsSerially() {
+    IFilter green = (x, y, img) -> Arrays.asList(0, 255, 0);
+    PackedImage filtered = this.parallel.filter(this.testImage, green);
+    for (int pixel : filtered.getPixels()) {
+      assertEquals(0x00FF00, pixel);
+    }
+  }
+
+  // tests that the parallelism is kept and the default engine can be replaced
+  @Test
+  public void parallelismAndDefault() {
+    assertEquals(4, this.parallel.getParallelism());
+    FilterEngine previous = FilterEngine.getDefault();
+    FilterEngine.setDefault(this.serial);
+    assertEquals(this.serial, FilterEngine.getDefault());
+    FilterEngine.setDefault(previous);
+  }
+
+  // tests that an exception is thrown when the parallelism is less than 1
+  @Test(expected = IllegalArgumentException.class)
+  public void parallelismTooLow() {
+    new FilterEngine(0);
+  }
+
+  // tests that an exception is thrown when the default engine is set to null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullDefault() {
+    FilterEngine.setDefault(null);
+  }
+
+  // tests that an exception is thrown when the filter is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullFilter() {
+    this.parallel.filter(this.testImage, null);
+  }
+
+  // tests that an exception is thrown when a band may hold fewer than 1 row
+  @Test(expected = IllegalArgumentException.class)
+  public void minRowsTooLow() {
+    this.parallel.forEachBand(10, 10, 0, (startRow, endRow) -> { });
+  }
+
+  // tests that an exception is thrown when the band action is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullBandAction() {
+    this.parallel.forEachBand(10, 10, null);
+  }
+}
@@ -0,0 +1,160 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.filters.Blur;
+import model.filters.FilterPipeline;
+import model.filters.IFilter;
+import model.filters.Monochrome;
+import model.filters.Sepia;
+import model.filters.Sharpen;
+import model.image.FilterEngine;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for FilterPipeline. This class tests that a chain of filters applied together gives
+ * the same image as applying the filters one at a time, apart from rounding where color filters
+ * are multiplied together, and that the chain is split into the expected number of passes.
+ */
+public class FilterPipelineTest {
+
+  private PackedImage randomImage;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    this.randomImage = TestFixtures.noise(83, 59, 17);
+  }
+
+  /**
+   * Applies the given filters to the random image one at a time.
+   *
+   * @param filters the filters to apply
+   * @return the filtered image
+   */
+  private ImageInterface applyOneAtATime(List<IFilter> filters) {
+    ImageInterface img = this.randomImage;
+    for (IFilter filter : filters) {
+      img = img.filter(filter);
+    }
+    return img;
+  }
+
+  /**
+   * Finds the largest difference between any color value of two images of the same size.
+   *
+   * @param first the first image
+   * @param second the second image
+   * @return the largest difference
+   */
+  private static int maxDifference(ImageInterface first, ImageInterface second) {
+    int max = 0;
+    for (int x = 0; x < first.getImageWidth(); x++) {
+      for (int y = 0; y < first.getImageHeight(); y++) {
+        max = Math.max(max, Math.abs(first.getRedAt(x, y) - second.getRedAt(x, y)));
+        max = Math.max(max, Math.abs(first.getGreenAt(x, y) - second.getGreenAt(x, y)));
+        max = Math.max(max, Math.abs(first.getBlueAt(x, y) - second.getBlueAt(x, y)));
+      }
+    }
+    return max;
+  }
+
+  // tests that color filters after a blur or sharpen give exactly the same image as applying each
+  // filter on its own, since none of them are multiplied together
+  @Test
+  public void fusedColorsMatchOneAtATime() {
+    List<IFilter> filters = new ArrayList<>(Arrays.asList(new Sepia(), new Sharpen(),
+        new Sepia(), new Blur(), new Sepia(), new Sepia()));
+    FilterPipeline pipeline = new FilterPipeline(filters);
+    assertEquals(3, pipeline.getPassCount());
+    assertEquals(this.applyOneAtATime(filters), pipeline.applyEffect(this.randomImage));
+  }
+
+  // tests that multiplying monochrome into the color filters after it is at most one off
+  @Test
+  public void multipliedColorsWithinOne() {
+    List<IFilter> filters = new ArrayList<>(Arrays.asList(new Sepia(), new Sharpen(),
+        new Monochrome(), new Blur(), new Monochrome(), new Monochrome(), new Sepia()));
+    FilterPipeline pipeline = new FilterPipeline(filters);
+    assertEquals(3, pipeline.getPassCount());
+    ImageInterface result = pipeline.applyEffect(this.randomImage);
+    assertEquals(83, result.getImageWidth());
+    assertEquals(59, result.getImageHeight());
+    assertTrue(maxDifference(this.applyOneAtATime(filters), result) <= 1);
+  }
+
+  // tests that a chain of only color filters takes one pass
+  @Test
+  public void onlyColorsIsOnePass() {
+    List<IFilter> filters = new ArrayList<>(Arrays.asList(new Monochrome(), new Sepia()));
+    FilterPipeline pipeline = new FilterPipeline(filters);
+    assertEquals(1, pipeline.getPassCount());
+    assertTrue(maxDifference(this.applyOneAtATime(filters),
+        pipeline.applyEffect(this.randomImage)) <= 1);
+  }
+
+  // tests that a single filter gives the same image as applying it on its own
+  @Test
+  public void singleFilter() {
+    List<IFilter> filters = new ArrayList<>(Arrays.asList(new Blur()));
+    assertEquals(this.applyOneAtATime(filters),
+        new FilterPipeline(filters).applyEffect(this.randomImage));
+  }
+
+  // tests that the image given to the pipeline is left as it was
+  @Test
+  public void originalUnchanged() {
+    PackedImage copy = (PackedImage) this.randomImage.copy();
+    new FilterPipeline(new ArrayList<>(Arrays.asList(new Sharpen(), new Sepia(), new Blur(),
+        new Sharpen()))).applyEffect(this.randomImage);
+    assertEquals(copy, this.randomImage);
+  }
+
+  // tests that the pipeline gives the same image on several threads as on one
+  @Test
+  public void parallelMatchesSerial() {
+    PackedImage big = TestFixtures.noise(400, 300, 5);
+    FilterPipeline pipeline = new FilterPipeline(new ArrayList<>(Arrays.asList(new Monochrome(),
+        new Sharpen(), new Sepia(), new Blur())));
+    FilterEngine previous = FilterEngine.getDefault();
+    try {
+      FilterEngine.setDefault(new FilterEngine(1));
+      ImageInterface serial = pipeline.applyEffect(big);
+      FilterEngine.setDefault(new FilterEngine(4));
+      assertEquals(serial, pipeline.applyEffect(big));
+    } finally {
+      FilterEngine.setDefault(previous);
+    }
+  }
+
+  // tests that the pipeline is only applied to the current layer
+  @Test
+  public void appliesToCurrentLayer() {
+    assertFalse(new FilterPipeline(new ArrayList<>(Arrays.asList(new Blur())))
+        .determineApplyToAllStatus());
+  }
+
+  // tests that an exception is thrown when the list of filters is empty
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyFilters() {
+    new FilterPipeline(new ArrayList<>());
+  }
+
+  // tests that an exception is thrown when one of the filters is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullFilter() {
+    new FilterPipeline(new ArrayList<>(Arrays.asList(new Blur(), null)));
+  }
+
+  // tests that an exception is thrown when the image is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullImage() {
+    new FilterPipeline(new ArrayList<>(Arrays.asList(new Blur()))).applyEffect(null);
+  }
+}
@@ -0,0 +1,143 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.filters.EdgeMode;
+import model.filters.Gaussian;
+import model.filters.IFilter;
+import model.image.FilterEngine;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the Gaussian filter. This class tests that the two pass blur spreads each pixel
+ * out as a symmetric Gaussian, that filtering the whole image at once, a band of rows at a time,
+ * or one pixel at a time all give the same result, and that images are split into bands much
+ * taller than the radius.
+ */
+public class GaussianTest {
+
+  private PackedImage testImage;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    this.testImage = TestFixtures.noise(13, 10, 11);
+  }
+
+  // tests that bulk blurs match per pixel blurs in every edge mode, including a radius larger than
+  // the image
+  @Test
+  public void bulkMatchesPerPixel() {
+    for (EdgeMode mode : EdgeMode.values()) {
+      TestFixtures.assertBulkMatchesPerPixel(new Gaussian(2, 1.0, mode), this.testImage);
+      TestFixtures.assertBulkMatchesPerPixel(new Gaussian(15, 6.0, mode), this.testImage);
+    }
+  }
+
+  // tests that filtering bands of rows gives the same pixels as filtering the whole image
+  @Test
+  public void bandsMatchWholeImage() {
+    Gaussian filter = new Gaussian(3, 1.5, EdgeMode.MIRROR);
+    int[] whole = new int[13 * 10];
+    filter.apply(this.testImage, whole);
+    int[] bands = new int[13 * 10];
+    filter.apply(this.testImage, bands, 0, 4);
+    filter.apply(this.testImage, bands, 4, 5);
+    filter.apply(this.testImage, bands, 5, 10);
+    assertEquals(Arrays.toString(whole), Arrays.toString(bands));
+  }
+
+  // tests that a single white pixel is spread out symmetrically, brightest in the middle
+  @Test
+  public void spreadsSymmetrically() {
+    int[] pixels = new int[9 * 9];
+    pixels[4 * 9 + 4] = 0xFFFFFF;
+    PackedImage blurred = (PackedImage) new PackedImage(9, 9, pixels)
+        .filter(new Gaussian(4, 0.85, EdgeMode.ZERO));
+    assertEquals(blurred.getRedAt(3, 4), blurred.getRedAt(5, 4));
+    assertEquals(blurred.getRedAt(4, 3), blurred.getRedAt(4, 5));
+    assertEquals(blurred.getRedAt(3, 4), blurred.getRedAt(4, 3));
+    assertTrue(blurred.getRedAt(4, 4) > blurred.getRedAt(3, 4));
+    assertTrue(blurred.getRedAt(3, 4) > blurred.getRedAt(3, 3));
+    assertEquals(0, blurred.getRedAt(0, 0));
+  }
+
+  // tests that a single color image keeps its color when the edge pixels are clamped
+  @Test
+  public void singleColorUnchanged() {
+    int[] gray = new int[6 * 5];
+    Arrays.fill(gray, 0x336699);
+    PackedImage grayImage = new PackedImage(6, 5, gray);
+    assertEquals(grayImage, grayImage.filter(new Gaussian(4, 2.0, EdgeMode.CLAMP)));
+  }
+
+  // tests that a wide image blurred by a large Gaussian is split into bands many times taller than
+  // the rows each band weighs across on top of its own, rather than bands of a few rows that would
+  // weigh almost every row across again, and that the bands still give the same result
+  @Test
+  public void bandsTallerThanRadius() {
+    PackedImage wide = TestFixtures.noise(2000, 400, 7);
+    Gaussian gaussian = new Gaussian(10, 3.0, EdgeMode.CLAMP);
+    assertEquals(80, gaussian.getMinBandRows());
+    List<Integer> bandRows = new ArrayList<>();
+    IFilter recording = new IFilter() {
+      @Override
+      public List<Integer> newColorValsAt(int x, int y, ImageInterface img) {
+        return gaussian.newColorValsAt(x, y, img);
+      }
+
+      @Override
+      public void apply(PackedImage src, int[] dst, int startRow, int endRow) {
+        synchronized (bandRows) {
+          bandRows.add(endRow - startRow);
+        }
+        gaussian.apply(src, dst, startRow, endRow);
+      }
+
+      @Override
+      public boolean isParallelSafe() {
+        return true;
+      }
+
+      @Override
+      public int getMinBandRows() {
+        return gaussian.getMinBandRows();
+      }
+    };
+    assertEquals(new FilterEngine(1).filter(wide, gaussian),
+        new FilterEngine(4).filter(wide, recording));
+    assertTrue(bandRows.size() > 1);
+    for (int rows : bandRows) {
+      assertTrue(rows >= 80);
+    }
+  }
+
+  // tests that an exception is thrown when the radius is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void radiusNotPositive() {
+    new Gaussian(0);
+  }
+
+  // tests that an exception is thrown when the standard deviation is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void sigmaNotPositive() {
+    new Gaussian(2, 0.0, EdgeMode.ZERO);
+  }
+
+  // tests that an exception is thrown when the edge mode is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullEdgeMode() {
+    new Gaussian(2, 1.0, null);
+  }
+
+  // tests that an exception is thrown when there is no pixel at the given x,y
+  @Test(expected = IllegalArgumentException.class)
+  public void pixelOutOfRange() {
+    new Gaussian(1).newColorValsAt(13, 0, this.testImage);
+  }
+}
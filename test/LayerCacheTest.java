@@ -0,0 +1,270 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import model.FilterModel;
+import model.ILayer;
+import model.Layer;
+import model.LayerCache;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for LayerCache. This class tests that the least recently used layers are moved out of
+ * memory once the images of a model's layers take up more than the budget, that images which can
+ * not be read again are spilled to disk and read back exactly, that space in the spill file is
+ * freed once layers leave the cache or are garbage collected, and that hits, misses, and bytes
+ * spilled are counted.
+ */
+public class LayerCacheTest {
+
+  // the bytes taken up by each image made by image
+  private static final long IMAGE_BYTES = 4 * 10 * 10;
+
+  private LayerCache cache;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    this.cache = new LayerCache(2 * IMAGE_BYTES);
+  }
+
+  // deletes the spill file
+  @After
+  public void closeCache() throws IOException {
+    this.cache.close();
+  }
+
+  /**
+   * Creates a 10 by 10 image whose pixels count up from the given color.
+   *
+   * @param color the 0xRRGGBB color of the first pixel
+   * @return the image
+   */
+  private static PackedImage image(int color) {
+    int[] pixels = new int[10 * 10];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = color + i;
+    }
+    return new PackedImage(10, 10, pixels);
+  }
+
+  /**
+   * Creates a model using the cache with a layer for each of the given colors, in order.
+   *
+   * @param colors the color of the image in each layer
+   * @return the model
+   */
+  private FilterModel model(int... colors) throws InterruptedException {
+    List<ILayer> layers = new ArrayList<>();
+    for (int color : colors) {
+      layers.add(new Layer(image(color), "layer.png"));
+    }
+    FilterModel model = new FilterModel(layers, this.cache);
+    this.cache.flush();
+    return model;
+  }
+
+  /**
+   * Uses the image of a layer of a model, then waits for any images dropped to make room for it to
+   * be written to the spill file.
+   *
+   * @param model the model
+   * @param index the index of the layer
+   * @return the image of the layer
+   */
+  private ImageInterface use(FilterModel model, int index) throws InterruptedException {
+    ImageInterface img = model.getImageAt(index);
+    this.cache.flush();
+    return img;
+  }
+
+  // tests that the least recently used layers are spilled once the budget is exceeded, and are
+  // read back exactly when they are next used
+  @Test
+  public void spillsLeastRecentlyUsed() throws InterruptedException {
+    FilterModel model = this.model(0x100, 0x200, 0x300, 0x400);
+    List<ILayer> layers = model.getLayers();
+    assertFalse(layers.get(0).isLoaded());
+    assertFalse(layers.get(1).isLoaded());
+    assertTrue(layers.get(2).isLoaded());
+    assertTrue(layers.get(3).isLoaded());
+    assertEquals(2 * IMAGE_BYTES, this.cache.getBytesSpilled());
+    assertEquals(2 * IMAGE_BYTES, this.cache.getResidentBytes());
+
+    assertEquals(image(0x100), this.use(model, 0));
+    assertEquals(1, this.cache.getMisses());
+    // layer 2 was the least recently used, so it made room for layer 0
+    assertFalse(layers.get(2).isLoaded());
+    assertEquals(3 * IMAGE_BYTES, this.cache.getBytesSpilled());
+
+    assertEquals(image(0x400), this.use(model, 3));
+    assertEquals(1, this.cache.getHits());
+    assertEquals(3, this.cache.getEvictions());
+  }
+
+  // tests that a layer that was read back is not spilled again, since the spill file still holds
+  // its image
+  @Test
+  public void spilledOnlyOnce() throws InterruptedException {
+    FilterModel model = this.model(0x100, 0x200, 0x300);
+    this.use(model, 0);
+    this.use(model, 1);
+    this.use(model, 0);
+    this.use(model, 2);
+    // each layer was written to the spill file once, however many times it was dropped
+    assertEquals(3 * IMAGE_BYTES, this.cache.getBytesSpilled());
+    assertEquals(image(0x200), model.getImageAt(1));
+    assertEquals(image(0x300), model.getImageAt(2));
+  }
+
+  // tests that an image set after a layer was spilled replaces the spilled one, and that its
+  // space in the spill file can be reused without mixing up the images
+  @Test
+  public void setImageAfterSpill() throws InterruptedException {
+    FilterModel model = this.model(0x100, 0x200, 0x300);
+    List<ILayer> layers = model.getLayers();
+    layers.get(0).setImage(image(0x500));
+    layers.get(2).getImage();
+    this.cache.flush();
+    assertFalse(layers.get(1).isLoaded());
+    layers.get(1).getImage();
+    assertEquals(image(0x500), layers.get(0).getImage());
+    assertEquals(image(0x200), layers.get(1).getImage());
+    assertEquals(image(0x300), layers.get(2).getImage());
+  }
+
+  // tests that images which can be read again from their source are dropped rather than spilled
+  @Test
+  public void readableImagesNotSpilled() {
+    List<ILayer> layers = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      int color = i << 16;
+      layers.add(new Layer(() -> image(color), "layer.png", true));
+    }
+    FilterModel model = new FilterModel(layers, this.cache);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(image(i << 16), model.getImageAt(i));
+    }
+    assertEquals(0, this.cache.getBytesSpilled());
+    assertEquals(4, this.cache.getMisses());
+    assertFalse(layers.get(0).isLoaded());
+    assertTrue(layers.get(3).isLoaded());
+  }
+
+  // tests that a removed layer no longer counts against the budget
+  @Test
+  public void removeLayerForgetsLayer() throws InterruptedException {
+    FilterModel model = this.model(0x100, 0x200);
+    assertEquals(2 * IMAGE_BYTES, this.cache.getResidentBytes());
+    model.removeLayer();
+    assertEquals(IMAGE_BYTES, this.cache.getResidentBytes());
+  }
+
+  // tests that the space in the spill file of layers that leave the cache is reused, and that
+  // the layers still hold their images
+  @Test
+  public void leavingLayersFreeSpill() throws InterruptedException {
+    FilterModel model = this.model(0x100, 0x200, 0x300, 0x400);
+    List<ILayer> removed = model.getLayers();
+    assertEquals(2 * IMAGE_BYTES, this.cache.getSpillFileBytes());
+    model.setAllLayers(new ArrayList<>());
+    assertEquals(image(0x100), removed.get(0).getImage());
+    assertEquals(image(0x200), removed.get(1).getImage());
+
+    this.model(0x500, 0x600, 0x700, 0x800);
+    assertEquals(2 * IMAGE_BYTES, this.cache.getSpillFileBytes());
+    assertEquals(4 * IMAGE_BYTES, this.cache.getBytesSpilled());
+  }
+
+  // tests that layers kept by setAllLayers stay in the cache without being read back
+  @Test
+  public void keptLayersStaySpilled() throws InterruptedException {
+    FilterModel model = this.model(0x100, 0x200, 0x300);
+    List<ILayer> layers = model.getLayers();
+    model.setAllLayers(new ArrayList<>(layers));
+    assertFalse(layers.get(0).isLoaded());
+    assertEquals(0, this.cache.getMisses());
+  }
+
+  // tests that the layers of a model that is gone are let go of, and their space in the spill
+  // file is reused
+  @Test
+  public void droppedModelFreesSpill() throws InterruptedException {
+    this.model(0x100, 0x200, 0x300, 0x400);
+    assertEquals(2 * IMAGE_BYTES, this.cache.getSpillFileBytes());
+    for (int i = 0; i < 100 && this.cache.getResidentBytes() > 0; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(0, this.cache.getResidentBytes());
+
+    this.model(0x500, 0x600, 0x700, 0x800);
+    assertEquals(2 * IMAGE_BYTES, this.cache.getSpillFileBytes());
+  }
+
+  // tests that a layer used again while its image was being spilled keeps its image in memory,
+  // and is not spilled again when it is next dropped
+  @Test
+  public void usedWhileSpilling() throws InterruptedException {
+    FilterModel model = this.model(0x100, 0x200);
+    List<ILayer> layers = model.getLayers();
+    model.addLayer();
+    // the spill thread can not finish writing while the cache is locked
+    synchronized (this.cache) {
+      layers.get(2).setImage(image(0x300));
+      model.getImageAt(0);
+    }
+    this.cache.flush();
+    assertEquals(1, this.cache.getHits());
+    assertTrue(layers.get(0).isLoaded());
+    assertFalse(layers.get(1).isLoaded());
+    assertEquals(image(0x200), this.use(model, 1));
+    assertEquals(image(0x300), this.use(model, 2));
+    assertEquals(image(0x100), this.use(model, 0));
+    assertEquals(3 * IMAGE_BYTES, this.cache.getBytesSpilled());
+  }
+
+  // tests that a cache with no budget counts hits and misses without dropping anything
+  @Test
+  public void noBudget() throws IOException {
+    LayerCache unlimited = new LayerCache(Long.MAX_VALUE);
+    List<ILayer> layers = new ArrayList<>();
+    layers.add(new Layer(() -> image(0x100), "layer.png", true));
+    FilterModel model = new FilterModel(layers, unlimited);
+    ImageInterface img = model.getImageAt(0);
+    model.getImageAt(0);
+    assertEquals(1, unlimited.getMisses());
+    assertEquals(1, unlimited.getHits());
+    assertEquals(0, unlimited.getEvictions());
+    assertTrue(layers.get(0).isLoaded());
+    assertEquals(image(0x100), img);
+    unlimited.close();
+  }
+
+  // tests that a spilled image can not be read once the cache is closed
+  @Test(expected = IllegalStateException.class)
+  public void closedCache() throws IOException, InterruptedException {
+    FilterModel model = this.model(0x100, 0x200, 0x300);
+    this.cache.close();
+    model.getImageAt(0);
+  }
+
+  // tests that an exception is thrown when the budget is negative
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeBudget() {
+    new LayerCache(-1);
+  }
+
+  // tests that an exception is thrown when a model is given a null cache
+  @Test(expected = IllegalArgumentException.class)
+  public void nullCache() {
+    new FilterModel(new ArrayList<>(), null);
+  }
+}
@@ -1,15 +1,20 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import model.IImageSource;
 import model.ILayer;
 import model.Layer;
 import model.image.Image;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -234,5 +239,142 @@ public class LayerTest {
     assertFalse(this.testLayer.getVisibility());
   }
 
+  /*
+  getImageAtLeast tests
+   */
+
+  // tests that the pyramid halves the image, rounding up, and stops at the smallest level that
+  // is still big enough
+  @Test
+  public void imageAtLeastHalvesImage() {
+    ImageInterface img = new PackedImage(100, 30, new int[100 * 30]);
+    this.testLayer = new Layer(img, "sky");
+    assertSame(img, this.testLayer.getImageAtLeast(100, 30));
+    assertSame(img, this.testLayer.getImageAtLeast(51, 10));
+    assertSame(img, this.testLayer.getImageAtLeast(200, 200));
+    ImageInterface half = this.testLayer.getImageAtLeast(50, 15);
+    assertEquals(50, half.getImageWidth());
+    assertEquals(15, half.getImageHeight());
+    ImageInterface small = this.testLayer.getImageAtLeast(10, 1);
+    assertEquals(13, small.getImageWidth());
+    assertEquals(4, small.getImageHeight());
+    ImageInterface smallest = this.testLayer.getImageAtLeast(1, 1);
+    assertEquals(1, smallest.getImageWidth());
+    assertEquals(1, smallest.getImageHeight());
+  }
+
+  // tests that the levels are averages of the image
+  @Test
+  public void imageAtLeastAverages() {
+    ImageInterface img = new PackedImage(2, 2, new int[] {PackedImage.packRGB(0, 0, 0),
+        PackedImage.packRGB(100, 0, 0), PackedImage.packRGB(40, 0, 0),
+        PackedImage.packRGB(60, 0, 0)});
+    this.testLayer = new Layer(img, "sky");
+    assertEquals(50, this.testLayer.getImageAtLeast(1, 1).getRedAt(0, 0));
+  }
+
+  // tests that levels are kept between calls and thrown away when the image is set
+  @Test
+  public void imageAtLeastCachedUntilSet() {
+    this.testLayer = new Layer(new PackedImage(64, 64, new int[64 * 64]), "sky");
+    ImageInterface level = this.testLayer.getImageAtLeast(16, 16);
+    assertSame(level, this.testLayer.getImageAtLeast(16, 16));
+    assertSame(level, this.testLayer.getImageAtLeast(10, 9));
+    this.testLayer.setImage(new PackedImage(64, 64, new int[64 * 64]));
+    ImageInterface newLevel = this.testLayer.getImageAtLeast(16, 16);
+    assertFalse(level == newLevel);
+    assertEquals(16, newLevel.getImageWidth());
+  }
+
+  // tests that an empty layer has no levels
+  @Test
+  public void imageAtLeastEmptyLayer() {
+    assertNull(this.testLayer.getImageAtLeast(4, 4));
+  }
+
+  // tests that an exception is thrown when the size is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void imageAtLeastZeroSize() {
+    new Layer(new PackedImage(4, 4, new int[16]), "sky").getImageAtLeast(0, 4);
+  }
+
+  /*
+  Tests for layers made from a source
+   */
 
-}
\ No newline at end of file
+  /**
+   * Counts the number of times an image is read, reading a new copy of the same image each time.
+   */
+  private static class CountingSource implements IImageSource {
+    private int reads = 0;
+
+    @Override
+    public ImageInterface read() {
+      this.reads++;
+      return new PackedImage(8, 6, new int[8 * 6]);
+    }
+  }
+
+  // tests that the image is only read the first time it is asked for
+  @Test
+  public void sourceReadOnFirstUse() {
+    CountingSource source = new CountingSource();
+    this.testLayer = new Layer(source, "sky.png", false);
+    assertEquals(0, source.reads);
+    assertFalse(this.testLayer.isLoaded());
+    assertEquals("sky.png", this.testLayer.getFileName());
+    assertFalse(this.testLayer.getVisibility());
+    ImageInterface img = this.testLayer.getImage();
+    assertEquals(8, img.getImageWidth());
+    assertSame(img, this.testLayer.getImage());
+    assertSame(img, this.testLayer.getImageAtLeast(8, 6));
+    assertEquals(1, source.reads);
+    assertTrue(this.testLayer.isLoaded());
+  }
+
+  // tests that an image that is unloaded is read again, along with its pyramid, when it is next
+  // asked for
+  @Test
+  public void sourceReadAgainAfterUnload() {
+    CountingSource source = new CountingSource();
+    this.testLayer = new Layer(source, "sky.png", true);
+    assertEquals(4, this.testLayer.getImageAtLeast(4, 3).getImageWidth());
+    assertTrue(this.testLayer.unload());
+    assertFalse(this.testLayer.isLoaded());
+    assertEquals(4, this.testLayer.getImageAtLeast(4, 3).getImageWidth());
+    assertEquals(2, source.reads);
+  }
+
+  // tests that an image that has been set is kept when the layer is unloaded
+  @Test
+  public void setImageNotUnloaded() {
+    this.testLayer = new Layer(new CountingSource(), "sky.png", true);
+    ImageInterface img = new PackedImage(3, 3, new int[9]);
+    this.testLayer.setImage(img);
+    assertFalse(this.testLayer.unload());
+    assertTrue(this.testLayer.isLoaded());
+    assertSame(img, this.testLayer.getImage());
+  }
+
+  // tests that an empty layer has nothing to unload
+  @Test
+  public void emptyLayerUnload() {
+    assertTrue(this.testLayer.unload());
+    assertFalse(this.testLayer.isLoaded());
+  }
+
+  // tests that an image that can not be read is reported when it is asked for
+  @Test(expected = IllegalStateException.class)
+  public void sourceCanNotBeRead() {
+    this.testLayer = new Layer(() -> {
+      throw new IOException("gone");
+    }, "sky.png", true);
+    this.testLayer.getImage();
+  }
+
+  // tests that when a null source is passed an IllegalArgumentException is thrown
+  @Test(expected = IllegalArgumentException.class)
+  public void nullSourceForLayer() {
+    this.testLayer = new Layer((IImageSource) null, "sky", true);
+  }
+}
@@ -1,6 +1,9 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -12,12 +15,15 @@ import model.IComplexEffectModel;
 import model.filters.IEffect;
 import model.filters.IMosaic;
 import model.filters.Mosaic;
+import model.filters.Resample;
+import model.filters.ResampleFilter;
 import model.programmaticimages.ColorEnum;
 import model.FilterModel;
 import model.filters.Blur;
 import model.filters.Monochrome;
 import model.filters.Sharpen;
 import model.filters.Sepia;
+import model.image.FilterEngine;
 import model.image.ImageInterface;
 import model.image.Image;
 import model.programmaticimages.ImageCreatorInterface;
@@ -195,6 +201,19 @@ public class ModelTest {
     }
   }
 
+  // test that resampling a layer starts from the smallest level of its pyramid that is big enough
+  @Test
+  public void testApplyResampleUsesPyramid() {
+    this.model.createImage(ProgrammaticImageType.CHECKER_BOARD, 100, 80, 3,
+        new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+    ILayer layer = this.model.getLayers().get(0);
+    ImageInterface level = layer.getImageAtLeast(20, 20);
+    assertEquals(25, level.getImageWidth());
+    this.model.applyComplexEffect(new Resample(20, 20, ResampleFilter.BILINEAR));
+    assertEquals(new Resample(20, 20, ResampleFilter.BILINEAR).applyEffect(level),
+        this.model.getImageAt(0));
+  }
+
   // test for downscaling an image
   @Test
   public void testApplyDownscaleEffect() {
@@ -236,6 +255,69 @@ public class ModelTest {
     assertEquals(downscaledLayer2.getImageHeight(), modelImageTest2.getImageHeight());
   }
 
+  // test that an effect applied to many layers at once gives each layer its own result, in order
+  @Test
+  public void testApplyEffectToManyLayers() {
+    List<ImageInterface> originals = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      this.model.createImage(ProgrammaticImageType.CHECKER_BOARD, 40 + i, 30 + i, 1 + i,
+          new ArrayList<>(Arrays.asList(ColorEnum.RED, ColorEnum.WHITE)));
+      originals.add(this.model.getImageAt(i));
+    }
+    this.model.applyComplexEffect(new Downscale(20, 15));
+    for (int i = 0; i < 12; i++) {
+      assertEquals(new Downscale(20, 15).applyEffect(originals.get(i)), this.model.getImageAt(i));
+    }
+    assertEquals(this.model.getImageAt(11), this.model.getCurrentImage());
+  }
+
+  // test that an effect failing on one layer leaves every layer as it was
+  @Test
+  public void testApplyEffectFailureChangesNoLayer() {
+    List<ImageInterface> originals = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      // the fourth layer is too small to be downscaled to 30 by 30
+      int size = i == 3 ? 20 : 60;
+      this.model.createImage(ProgrammaticImageType.CHECKER_BOARD, size, size, 5,
+          new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+      originals.add(this.model.getImageAt(i));
+    }
+    try {
+      this.model.applyComplexEffect(new Downscale(30, 30));
+      fail("The downscale should have failed on the small layer.");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    for (int i = 0; i < 6; i++) {
+      assertSame(originals.get(i), this.model.getImageAt(i));
+    }
+  }
+
+  // test that setting the image of every layer at once sets each layer's own image, in order
+  @Test
+  public void testSetLayerImages() {
+    List<ImageInterface> images = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      this.model.createImage(ProgrammaticImageType.CHECKER_BOARD, 20, 20, 5,
+          new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+      images.add(TestFixtures.noise(10 + i, 10, i));
+    }
+    this.model.updateImgToCurrentLayer(1);
+    this.model.setLayerImages(images);
+    for (int i = 0; i < 3; i++) {
+      assertSame(images.get(i), this.model.getImageAt(i));
+    }
+    assertSame(images.get(1), this.model.getCurrentImage());
+  }
+
+  // test for an exception when there is not one image for every layer
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetLayerImagesWrongCount() {
+    this.model.createImage(ProgrammaticImageType.CHECKER_BOARD, 20, 20, 5,
+        new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+    this.model.setLayerImages(new ArrayList<>());
+  }
+
   // test for an exception when calling applyFilter with a null filter
   @Test(expected = IllegalArgumentException.class)
   public void testApplyFilterNullParameter() {
@@ -256,6 +338,30 @@ public class ModelTest {
     this.model.applyComplexEffect(null);
   }
 
+  // tests that applying a filter to a large image allocates a single output buffer, rather than
+  // copying the image before filtering, while filtering, and again when it is stored
+  @Test
+  public void applyFilterAllocatesOneBuffer() {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    FilterEngine previous = FilterEngine.getDefault();
+    FilterEngine.setDefault(new FilterEngine(1));
+    try {
+      this.model.createImage(ProgrammaticImageType.CHECKER_BOARD, 1000, 1000, 10,
+          new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+      this.model.applyFilter(new Sepia());
+      long bufferBytes = 1000L * 1000L * Integer.BYTES;
+      long thread = Thread.currentThread().getId();
+      long before = threads.getThreadAllocatedBytes(thread);
+      this.model.applyFilter(new Blur());
+      long allocated = threads.getThreadAllocatedBytes(thread) - before;
+      assertTrue(allocated >= bufferBytes);
+      assertTrue(allocated < bufferBytes + bufferBytes / 4);
+    } finally {
+      FilterEngine.setDefault(previous);
+    }
+  }
+
   /*
   Tests for save
    */
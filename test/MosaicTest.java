@@ -8,6 +8,7 @@ import model.filters.IMosaic;
 import model.filters.Mosaic;
 import model.image.Image;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -36,36 +37,37 @@ public class MosaicTest {
     this.mosaic.initializeSeeds(3, this.mosaicTestImage, new Random(10), new Random(10));
   }
 
-  // Tests that when mosaic is called on the top left pixel it works as expected
+  // Tests that when mosaic is called on the top left pixel it works as expected, where all three
+  // seeds land on (0, 0) so every pixel takes the average of the whole image
   @Test
   public void mosaicCornerPixels() {
-    assertEquals(0,
+    assertEquals(95,
         this.mosaic.newColorValsAt(0, 2, this.mosaicTestImage).get(0).intValue());
-    assertEquals(0,
+    assertEquals(70,
         this.mosaic.newColorValsAt(2, 2, this.mosaicTestImage).get(1).intValue());
-    assertEquals(113,
+    assertEquals(98,
         this.mosaic.newColorValsAt(0, 0, this.mosaicTestImage).get(2).intValue());
-    assertEquals(129,
+    assertEquals(95,
         this.mosaic.newColorValsAt(2, 0, this.mosaicTestImage).get(0).intValue());
   }
 
   // Tests that when mosaic is called on the top middle pixel it works as expected
   @Test
   public void mosaicPixelInMiddleOfSide() {
-    assertEquals(129,
+    assertEquals(95,
         this.mosaic.newColorValsAt(1, 0, this.mosaicTestImage).get(0).intValue());
-    assertEquals(0,
+    assertEquals(70,
         this.mosaic.newColorValsAt(1, 2, this.mosaicTestImage).get(1).intValue());
-    assertEquals(113,
+    assertEquals(98,
         this.mosaic.newColorValsAt(0, 0, this.mosaicTestImage).get(2).intValue());
-    assertEquals(129,
+    assertEquals(95,
         this.mosaic.newColorValsAt(2, 0, this.mosaicTestImage).get(0).intValue());
   }
 
   // Tests that when mosaic is called on the middle pixel it works as expected
   @Test
   public void mosaicMiddlePix() {
-    assertEquals(80,
+    assertEquals(70,
         this.mosaic.newColorValsAt(1, 1, this.mosaicTestImage).get(1).intValue());
   }
 
@@ -104,4 +106,70 @@ public class MosaicTest {
   public void mosaicNullImageWasPassed() {
     this.mosaic.newColorValsAt(0, 0,  null);
   }
+
+  // Tests that every pixel takes the average of the seeds it is exactly closest to, where ties go
+  // to the seed with the lowest y then x, by comparing against measuring every seed
+  @Test
+  public void mosaicUsesExactNearestSeed() {
+    int width = 37;
+    int height = 23;
+    ImageInterface img = TestFixtures.noise(width, height, 5);
+    IMosaic exact = new Mosaic();
+    exact.initializeSeeds(40, img, new Random(1), new Random(2));
+
+    // the seeds are made the same way as in Mosaic
+    Random randX = new Random(1);
+    Random randY = new Random(2);
+    int[] seedX = new int[40];
+    int[] seedY = new int[40];
+    for (int i = 0; i < 40; i++) {
+      seedX[i] = randX.nextInt(width);
+      seedY[i] = randY.nextInt(height);
+    }
+    int[] nearest = new int[width * height];
+    long[][] sums = new long[40][4];
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        int best = 0;
+        for (int i = 1; i < 40; i++) {
+          int dist = (seedX[i] - x) * (seedX[i] - x) + (seedY[i] - y) * (seedY[i] - y);
+          int bestDist = (seedX[best] - x) * (seedX[best] - x)
+              + (seedY[best] - y) * (seedY[best] - y);
+          if (dist < bestDist || (dist == bestDist
+              && seedY[i] * width + seedX[i] < seedY[best] * width + seedX[best])) {
+            best = i;
+          }
+        }
+        nearest[y * width + x] = best;
+        sums[best][0] += img.getRedAt(x, y);
+        sums[best][1] += img.getGreenAt(x, y);
+        sums[best][2] += img.getBlueAt(x, y);
+        sums[best][3]++;
+      }
+    }
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        long[] sum = sums[nearest[y * width + x]];
+        List<Integer> vals = exact.newColorValsAt(x, y, img);
+        assertEquals(sum[0] / sum[3], vals.get(0).longValue());
+        assertEquals(sum[1] / sum[3], vals.get(1).longValue());
+        assertEquals(sum[2] / sum[3], vals.get(2).longValue());
+      }
+    }
+  }
+
+  // Tests that the mosaic can filter an image no larger than the one its seeds were made from
+  @Test
+  public void mosaicSmallerImage() {
+    ImageInterface small = new PackedImage(2, 2, new int[] {1, 2, 3, 4});
+    List<Integer> vals = this.mosaic.newColorValsAt(1, 1, small);
+    assertEquals(70, vals.get(1).intValue());
+  }
+
+  // Tests that an exception is thrown when filtering an image larger than the one the seeds were
+  // made from
+  @Test(expected = IllegalArgumentException.class)
+  public void mosaicLargerImage() {
+    new PackedImage(4, 3, new int[12]).filter(this.mosaic);
+  }
 }
@@ -1,9 +1,15 @@
 import static org.junit.Assert.assertEquals;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import model.files.FileTypeCreator;
 import model.files.IFileType;
 import model.files.PPM;
 import model.image.ImageInterface;
+import model.image.PackedImage;
 import org.junit.Test;
 
 /**
@@ -106,4 +112,187 @@ public class PPMTest {
     assertEquals(9 ,img.getBlueAt(0,1));
     assertEquals(9 ,img.getBlueAt(2,0));
   }
-}
\ No newline at end of file
+
+  // tests that an exported file holds exactly the PPM string of the image
+  @Test
+  public void exportMatchesPPMString() throws IOException {
+    ImageInterface img = new PackedImage(3, 2, new int[] {0x000A64, 0xFF0102, 0x7B2D05,
+        0x090807, 0xC8C8C8, 0x000000});
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    this.ppm.exportFile(fileName, img);
+    assertEquals(img.createPPMString(),
+        new String(Files.readAllBytes(new File(fileName).toPath()), StandardCharsets.US_ASCII));
+  }
+
+  // tests that an exported image is imported as the same image
+  @Test
+  public void exportImportRoundTrip() throws IOException {
+    int[] pixels = new int[40 * 25];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = i * 7919 & 0xFFFFFF;
+    }
+    ImageInterface img = new PackedImage(40, 25, pixels);
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    this.ppm.exportFile(fileName, img);
+    assertEquals(img, this.ppm.importFile(fileName));
+  }
+
+  // tests that comments and any mix of whitespace are skipped when importing
+  @Test
+  public void importSkipsCommentsAndWhitespace() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    Files.write(new File(fileName).toPath(), ("P3\n# a comment\n2 1 # two columns\n255\n"
+        + "1 2 3\t4\r\n5 6\n").getBytes(StandardCharsets.US_ASCII));
+    ImageInterface img = this.ppm.importFile(fileName);
+    assertEquals(1, img.getImageWidth());
+    assertEquals(2, img.getImageHeight());
+    assertEquals(3, img.getBlueAt(0, 0));
+    assertEquals(4, img.getRedAt(0, 1));
+  }
+
+  // tests that an exception is thrown when the file ends before every pixel is read
+  @Test (expected = IllegalArgumentException.class)
+  public void importFileEndsEarly() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    Files.write(new File(fileName).toPath(),
+        "P3\n2 2\n255\n1 2 3\n".getBytes(StandardCharsets.US_ASCII));
+    this.ppm.importFile(fileName);
+  }
+
+  // tests that an exception is thrown when a color value is not a number
+  @Test (expected = IllegalArgumentException.class)
+  public void importNotANumber() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    Files.write(new File(fileName).toPath(),
+        "P3\n1 1\n255\n1 x 3\n".getBytes(StandardCharsets.US_ASCII));
+    this.ppm.importFile(fileName);
+  }
+
+  // tests that a small binary P6 file is imported as the same image it was exported from
+  @Test
+  public void rawRoundTrip() throws IOException {
+    ImageInterface img = TestFixtures.colorful(31, 17);
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    new PPM(PPM.Format.RAW_RGB).exportFile(fileName, img);
+    byte[] bytes = Files.readAllBytes(new File(fileName).toPath());
+    assertEquals("P6\n17 31\n255\n".length() + 31 * 17 * 3, bytes.length);
+    assertEquals(img, this.ppm.importFile(fileName));
+  }
+
+  // tests that a binary P6 file large enough to be memory mapped is imported correctly
+  @Test
+  public void rawRoundTripMapped() throws IOException {
+    ImageInterface img = TestFixtures.colorful(700, 600);
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    new PPM(PPM.Format.RAW_RGB).exportFile(fileName, img);
+    assertEquals(img, new PPM().importFile(fileName));
+  }
+
+  // tests that a binary gray file holds the monochrome value of each pixel
+  @Test
+  public void rawGrayRoundTrip() throws IOException {
+    ImageInterface img = new PackedImage(2, 1, new int[] {0xFFFFFF, 0x0A141E});
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    FileTypeCreator.createBasedOnString("pgm").exportFile(fileName, img);
+    ImageInterface gray = this.ppm.importFile(fileName);
+    assertEquals(255, gray.getRedAt(0, 0));
+    assertEquals(19, gray.getRedAt(1, 0));
+    assertEquals(19, gray.getGreenAt(1, 0));
+    assertEquals(19, gray.getBlueAt(1, 0));
+  }
+
+  // tests that a plain gray P2 file is imported
+  @Test
+  public void importPlainGray() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    Files.write(new File(fileName).toPath(),
+        "P2\n2 1\n255\n7 200\n".getBytes(StandardCharsets.US_ASCII));
+    ImageInterface img = this.ppm.importFile(fileName);
+    assertEquals(7, img.getBlueAt(0, 0));
+    assertEquals(200, img.getGreenAt(0, 1));
+  }
+
+  // tests that a binary file with two bytes per value is scaled down to 0 to 255
+  @Test
+  public void importSixteenBit() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    byte[] header = "P6\n1 1\n65535\n".getBytes(StandardCharsets.US_ASCII);
+    byte[] bytes = Arrays.copyOf(header, header.length + 6);
+    bytes[header.length] = (byte) 0xFF;
+    bytes[header.length + 1] = (byte) 0xFF;
+    bytes[header.length + 2] = (byte) 0x80;
+    Files.write(new File(fileName).toPath(), bytes);
+    ImageInterface img = this.ppm.importFile(fileName);
+    assertEquals(255, img.getRedAt(0, 0));
+    assertEquals(128, img.getGreenAt(0, 0));
+    assertEquals(0, img.getBlueAt(0, 0));
+  }
+
+  // tests that an exception is thrown when a binary file ends before every pixel is read
+  @Test (expected = IllegalArgumentException.class)
+  public void importRawEndsEarly() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    Files.write(new File(fileName).toPath(),
+        "P6\n2 2\n255\nabcdef".getBytes(StandardCharsets.US_ASCII));
+    this.ppm.importFile(fileName);
+  }
+
+  // tests that an exception is thrown for a file that does not start with a known magic number,
+  // rather than the file being read as if it were P3
+  @Test (expected = IllegalArgumentException.class)
+  public void importUnknownMagic() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    Files.write(new File(fileName).toPath(),
+        "P7\n1 1\n255\n1 2 3\n".getBytes(StandardCharsets.US_ASCII));
+    this.ppm.importFile(fileName);
+  }
+
+  // tests that an exception is thrown for a header whose number of pixels does not fit in an int,
+  // before any pixels are read
+  @Test (expected = IllegalArgumentException.class)
+  public void importTooLarge() throws IOException {
+    String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+    Files.write(new File(fileName).toPath(),
+        "P6\n65536 65536\n255\nabc".getBytes(StandardCharsets.US_ASCII));
+    this.ppm.importFile(fileName);
+  }
+
+  // tests that files with the ppm extension are exported in the default format, which can be
+  // switched to binary P6 by name
+  @Test
+  public void defaultFormat() throws IOException {
+    PPM.Format previous = PPM.getDefaultFormat();
+    try {
+      assertEquals(PPM.Format.PLAIN_RGB, previous);
+      PPM.setDefaultFormat(PPM.Format.fromName("binary"));
+      assertEquals(PPM.Format.RAW_RGB, PPM.getDefaultFormat());
+      String fileName = TestFixtures.tempFile("PPMTest", ".ppm").getPath();
+      ImageInterface img = TestFixtures.colorful(5, 4);
+      FileTypeCreator.createBasedOnString("ppm").exportFile(fileName, img);
+      byte[] bytes = Files.readAllBytes(new File(fileName).toPath());
+      assertEquals("P6", new String(bytes, 0, 2, StandardCharsets.US_ASCII));
+      assertEquals(img, this.ppm.importFile(fileName));
+      assertEquals(PPM.Format.PLAIN_RGB, PPM.Format.fromName("P3"));
+    } finally {
+      PPM.setDefaultFormat(previous);
+    }
+  }
+
+  // tests that an exception is thrown for a format name that is not known
+  @Test (expected = IllegalArgumentException.class)
+  public void unknownFormatName() {
+    PPM.Format.fromName("P5");
+  }
+
+  // tests that an exception is thrown when the default format is set to null
+  @Test (expected = IllegalArgumentException.class)
+  public void nullDefaultFormat() {
+    PPM.setDefaultFormat(null);
+  }
+
+  // tests that an exception is thrown when the format is null
+  @Test (expected = IllegalArgumentException.class)
+  public void nullFormat() {
+    new PPM(null);
+  }
+}
@@ -0,0 +1,117 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.filters.Blur;
+import model.filters.Sepia;
+import model.image.Image;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for PackedImage. This class tests that packed images hold the same pixels, filter the
+ * same way, and convert to and from list based Images.
+ */
+public class PackedImageTest {
+
+  private Image listImage;
+  private PackedImage packedImage;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    List<List<Integer>> red = new ArrayList<>(Arrays.asList(
+        new ArrayList<>(Arrays.asList(120, 89, 0)),
+        new ArrayList<>(Arrays.asList(13, 200, 0)),
+        new ArrayList<>(Arrays.asList(255, 180, 0))));
+    List<List<Integer>> green = new ArrayList<>(Arrays.asList(
+        new ArrayList<>(Arrays.asList(255, 89, 0)),
+        new ArrayList<>(Arrays.asList(128, 63, 0)),
+        new ArrayList<>(Arrays.asList(11, 89, 0))));
+    List<List<Integer>> blue = new ArrayList<>(Arrays.asList(
+        new ArrayList<>(Arrays.asList(120, 89, 21)),
+        new ArrayList<>(Arrays.asList(120, 89, 0)),
+        new ArrayList<>(Arrays.asList(99, 89, 255))));
+    this.listImage = new Image(red, green, blue);
+    this.packedImage = PackedImage.fromImage(this.listImage);
+  }
+
+  // tests that the packed image holds the same color values as the image it was created from
+  @Test
+  public void fromImageKeepsPixels() {
+    assertEquals(3, this.packedImage.getImageWidth());
+    assertEquals(3, this.packedImage.getImageHeight());
+    assertEquals(13, this.packedImage.getRedAt(1, 0));
+    assertEquals(89, this.packedImage.getGreenAt(2, 1));
+    assertEquals(255, this.packedImage.getBlueAt(2, 2));
+    assertEquals(0x0D8078, this.packedImage.getRGBAt(1, 0));
+  }
+
+  // tests that pixels are stored in row-major order
+  @Test
+  public void pixelsAreRowMajor() {
+    PackedImage img = new PackedImage(2, 1, new int[] {0x010203, 0x040506});
+    assertEquals(1, img.getRedAt(0, 0));
+    assertEquals(4, img.getRedAt(1, 0));
+    assertEquals(6, img.getBlueAt(1, 0));
+  }
+
+  // tests that converting back to an Image gives an equal Image
+  @Test
+  public void toImageRoundTrip() {
+    assertEquals(this.listImage, this.packedImage.toImage());
+  }
+
+  // tests that Images and PackedImages with the same pixels are equal and share a hash code
+  @Test
+  public void equalsAcrossRepresentations() {
+    assertEquals(this.listImage, this.packedImage);
+    assertEquals(this.packedImage, this.listImage);
+    assertEquals(this.listImage.hashCode(), this.packedImage.hashCode());
+    assertNotEquals(this.packedImage, new PackedImage(3, 3));
+  }
+
+  // tests that filtering a packed image gives the same result as filtering an Image
+  @Test
+  public void filterMatchesImage() {
+    assertEquals(this.listImage.filter(new Blur()), this.packedImage.filter(new Blur()));
+    assertEquals(this.listImage.filter(new Sepia()), this.packedImage.filter(new Sepia()));
+  }
+
+  // tests that the PPM string matches the one created by Image
+  @Test
+  public void ppmStringMatchesImage() {
+    assertEquals(this.listImage.createPPMString(), this.packedImage.createPPMString());
+    assertEquals("", new PackedImage(0, 0).toString());
+  }
+
+  // tests that a copy is not affected by changes to the original
+  @Test
+  public void copyIsDeep() {
+    ImageInterface copy = this.packedImage.copy();
+    this.packedImage.getPixels()[0] = 0;
+    assertEquals(120, copy.getRedAt(0, 0));
+  }
+
+  // tests that an exception is thrown when the pixels do not match the dimensions
+  @Test(expected = IllegalArgumentException.class)
+  public void wrongNumberOfPixels() {
+    new PackedImage(2, 2, new int[3]);
+  }
+
+  // tests that an exception is thrown when a negative dimension is given
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeDimension() {
+    new PackedImage(-1, 2);
+  }
+
+  // tests that an exception is thrown when a pixel out of bounds is requested
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void pixelOutOfBounds() {
+    this.packedImage.getRedAt(3, 0);
+  }
+}
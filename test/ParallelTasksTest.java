@@ -0,0 +1,90 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import model.ParallelTasks;
+import org.junit.Test;
+
+/**
+ * Test class for ParallelTasks. This class tests that the results come back in the order of the
+ * tasks, that a single task runs on the calling thread, and that the first task to fail cancels
+ * the rest and has what it threw passed on.
+ */
+public class ParallelTasksTest {
+
+  // tests that the results are in the order of the tasks, whatever order they finish in
+  @Test
+  public void resultsInTaskOrder() throws Exception {
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      int value = i;
+      tasks.add(() -> {
+        Thread.sleep(8 - value);
+        return value;
+      });
+    }
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), ParallelTasks.runAll(tasks));
+  }
+
+  // tests that a single task is run on the calling thread
+  @Test
+  public void singleTaskOnCallingThread() throws Exception {
+    List<Callable<Thread>> tasks = new ArrayList<>();
+    tasks.add(Thread::currentThread);
+    assertSame(Thread.currentThread(), ParallelTasks.runAll(tasks).get(0));
+  }
+
+  // tests that the first failure is passed on and that a task that would otherwise never end is
+  // either cancelled before it starts or interrupted, however many threads the pool has
+  @Test
+  public void failureCancelsTheRest() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    IOException failure = new IOException("failed");
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    tasks.add(() -> {
+      throw failure;
+    });
+    tasks.add(() -> {
+      started.countDown();
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return 0;
+    });
+    try {
+      ParallelTasks.runAll(tasks);
+      throw new AssertionError("The tasks should have failed.");
+    } catch (ExecutionException e) {
+      assertSame(failure, e.getCause());
+    }
+    Thread.sleep(100);
+    assertTrue(started.getCount() == 1 || interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  // tests that what a single task throws is passed on the same way
+  @Test
+  public void singleTaskFailure() throws Exception {
+    IllegalArgumentException failure = new IllegalArgumentException("failed");
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    tasks.add(() -> {
+      throw failure;
+    });
+    try {
+      ParallelTasks.runAll(tasks);
+      throw new AssertionError("The task should have failed.");
+    } catch (ExecutionException e) {
+      assertSame(failure, e.getCause());
+    }
+  }
+}
@@ -0,0 +1,192 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import controller.ControllerUtil;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.ILayer;
+import model.Layer;
+import model.files.ProjectFile;
+import model.image.ImageInterface;
+import model.programmaticimages.ColorEnum;
+import model.programmaticimages.ProgrammaticImageCreator;
+import model.programmaticimages.ProgrammaticImageCreator.ProgrammaticImageType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for ProjectFile. This class tests that every layer is saved and opened again exactly,
+ * whether its planes are compressed or not, that the table can be read without reading any
+ * pixels, and that files which are not valid projects are rejected.
+ */
+public class ProjectFileTest {
+
+  private File folder;
+  private ImageInterface noise;
+  private ImageInterface checkerBoard;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() throws IOException {
+    this.folder = Files.createTempDirectory("project").toFile();
+    this.noise = TestFixtures.noise(31, 17, 7);
+    this.checkerBoard = ProgrammaticImageCreator.create(ProgrammaticImageType.CHECKER_BOARD)
+        .createImageRepresentation(40, 30, 5,
+            new ArrayList<>(Arrays.asList(ColorEnum.BLACK, ColorEnum.WHITE)));
+  }
+
+  // deletes the folder the tests wrote
+  @After
+  public void deleteFolder() {
+    TestFixtures.deleteFolder(this.folder);
+  }
+
+  /**
+   * Creates the layers saved by the tests: noise, a checkerboard that is not visible, and a layer
+   * with no image or name.
+   *
+   * @return the layers
+   */
+  private List<ILayer> layers() {
+    return new ArrayList<>(Arrays.asList(new Layer(this.noise, "noise.png", true),
+        new Layer(this.checkerBoard, "board.ppm", false), new Layer()));
+  }
+
+  /**
+   * Checks that the given layers are the layers made by layers.
+   *
+   * @param layers the layers
+   */
+  private void assertSameLayers(List<ILayer> layers) {
+    assertEquals(3, layers.size());
+    assertEquals("noise.png", layers.get(0).getFileName());
+    assertTrue(layers.get(0).getVisibility());
+    assertEquals(this.noise, layers.get(0).getImage());
+    assertEquals("board.ppm", layers.get(1).getFileName());
+    assertFalse(layers.get(1).getVisibility());
+    assertEquals(this.checkerBoard, layers.get(1).getImage());
+    assertNull(layers.get(2).getFileName());
+    assertTrue(layers.get(2).getVisibility());
+    assertNull(layers.get(2).getImage());
+  }
+
+  // tests that compressed layers are opened exactly as they were saved
+  @Test
+  public void roundTripCompressed() throws IOException {
+    String name = new File(this.folder, "test.imgproj").getPath();
+    ProjectFile.write(name, this.layers(), true);
+    assertSameLayers(ProjectFile.open(name).readLayers());
+  }
+
+  // tests that the image of an invisible layer is only read once it is asked for
+  @Test
+  public void invisibleLayersReadWhenNeeded() throws IOException {
+    String name = new File(this.folder, "test.imgproj").getPath();
+    ProjectFile.write(name, this.layers(), true);
+    List<ILayer> layers = ProjectFile.open(name).readLayers();
+    assertTrue(layers.get(0).isLoaded());
+    assertFalse(layers.get(1).isLoaded());
+    assertEquals(this.checkerBoard, layers.get(1).getImage());
+    assertTrue(layers.get(1).unload());
+    assertEquals(this.checkerBoard, layers.get(1).getImage());
+  }
+
+  // tests that layers stored as they are are opened exactly as they were saved
+  @Test
+  public void roundTripRaw() throws IOException {
+    String name = new File(this.folder, "test.imgproj").getPath();
+    ProjectFile.write(name, this.layers(), false);
+    assertSameLayers(ProjectFile.open(name).readLayers());
+  }
+
+  // tests that compression shrinks the checkerboard, while noise that does not compress is stored
+  // as it is
+  @Test
+  public void compressesOnlyWhenSmaller() throws IOException {
+    File raw = new File(this.folder, "raw.imgproj");
+    File compressed = new File(this.folder, "compressed.imgproj");
+    ProjectFile.write(raw.getPath(), this.layers(), false);
+    ProjectFile.write(compressed.getPath(), this.layers(), true);
+    long boardBytes = 3L * 40 * 30;
+    assertTrue(compressed.length() < raw.length() - boardBytes / 2);
+    assertTrue(compressed.length() > 3L * 31 * 17);
+  }
+
+  // tests that the table describes every layer without the pixels being read
+  @Test
+  public void readsTable() throws IOException {
+    String name = new File(this.folder, "test.imgproj").getPath();
+    ProjectFile.write(name, this.layers(), true);
+    ProjectFile project = ProjectFile.open(name);
+    assertEquals(3, project.getLayerCount());
+    assertEquals("board.ppm", project.getName(1));
+    assertFalse(project.isVisible(1));
+    assertEquals(31, project.getWidth(0));
+    assertEquals(17, project.getHeight(0));
+    assertEquals(0, project.getWidth(2));
+    assertNull(project.readImage(2));
+    assertEquals(this.checkerBoard, project.readImage(1));
+  }
+
+  // tests that a project that is open keeps reading what it was opened with when it is saved over
+  @Test
+  public void saveOverOpenProject() throws IOException {
+    String name = new File(this.folder, "test.imgproj").getPath();
+    ProjectFile.write(name, this.layers(), true);
+    ProjectFile project = ProjectFile.open(name);
+    ProjectFile.write(name, new ArrayList<>(Arrays.asList(
+        new Layer(this.checkerBoard, "other.ppm"))), true);
+    assertEquals(this.noise, project.readImage(0));
+    assertEquals(1, ProjectFile.open(name).getLayerCount());
+  }
+
+  // tests that the controller util saves and opens projects
+  @Test
+  public void controllerUtilRoundTrip() throws IOException {
+    String name = new File(this.folder, "test.imgproj").getPath();
+    new ControllerUtil().exportProject(name, this.layers());
+    assertSameLayers(new ControllerUtil().importProject(name));
+  }
+
+  // tests that an exception is thrown for a file that is not a project
+  @Test(expected = IllegalArgumentException.class)
+  public void notAProject() throws IOException {
+    File file = new File(this.folder, "test.imgproj");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write("P3 3 3 255".getBytes());
+    }
+    ProjectFile.open(file.getPath());
+  }
+
+  // tests that an exception is thrown for a project that was cut short
+  @Test(expected = IllegalArgumentException.class)
+  public void truncatedProject() throws IOException {
+    File file = new File(this.folder, "test.imgproj");
+    ProjectFile.write(file.getPath(), this.layers(), true);
+    try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+      access.setLength(access.length() - 10);
+    }
+    ProjectFile.open(file.getPath());
+  }
+
+  // tests that an exception is thrown for a project that does not exist
+  @Test(expected = IllegalArgumentException.class)
+  public void missingProject() throws IOException {
+    ProjectFile.open(new File(this.folder, "missing.imgproj").getPath());
+  }
+
+  // tests that an exception is thrown for a null list of layers
+  @Test(expected = IllegalArgumentException.class)
+  public void nullLayers() throws IOException {
+    ProjectFile.write(new File(this.folder, "test.imgproj").getPath(), null, true);
+  }
+}
@@ -0,0 +1,213 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import model.filters.IEffect;
+import model.filters.Resample;
+import model.filters.ResampleFilter;
+import model.image.FilterEngine;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for Resample and ResampleFilter. This class tests that images can be shrunk and
+ * grown with every filter, that shrinking averages every original pixel, and that the weights
+ * keep flat colors flat.
+ */
+public class ResampleTest {
+
+  private PackedImage randomImage;
+
+  // initialization of data to be used in tests
+  @Before
+  public void initData() {
+    this.randomImage = TestFixtures.noise(97, 61, 11);
+  }
+
+  // tests that halving an image with the box filter averages each two by two block of pixels
+  @Test
+  public void boxHalvesByAveraging() {
+    PackedImage img = new PackedImage(4, 2, new int[] {
+        PackedImage.packRGB(0, 10, 100), PackedImage.packRGB(4, 20, 100),
+        PackedImage.packRGB(200, 0, 0), PackedImage.packRGB(100, 0, 0),
+        PackedImage.packRGB(8, 30, 100), PackedImage.packRGB(12, 40, 100),
+        PackedImage.packRGB(0, 0, 0), PackedImage.packRGB(100, 0, 0)});
+    ImageInterface halved = new Resample(2, 1, ResampleFilter.BOX).applyEffect(img);
+    assertEquals(2, halved.getImageWidth());
+    assertEquals(1, halved.getImageHeight());
+    assertEquals(6, halved.getRedAt(0, 0));
+    assertEquals(25, halved.getGreenAt(0, 0));
+    assertEquals(100, halved.getBlueAt(0, 0));
+    assertEquals(100, halved.getRedAt(1, 0));
+  }
+
+  // tests that every filter keeps a flat color flat when shrinking and growing
+  @Test
+  public void flatColorStaysFlat() {
+    int[] pixels = new int[13 * 7];
+    Arrays.fill(pixels, PackedImage.packRGB(37, 140, 251));
+    PackedImage flat = new PackedImage(13, 7, pixels);
+    for (ResampleFilter filter : ResampleFilter.values()) {
+      for (int[] size : new int[][] {{5, 3}, {40, 19}, {13, 20}}) {
+        ImageInterface resized = new Resample(size[0], size[1], filter).applyEffect(flat);
+        assertEquals(size[0], resized.getImageWidth());
+        assertEquals(size[1], resized.getImageHeight());
+        for (int x = 0; x < size[0]; x++) {
+          for (int y = 0; y < size[1]; y++) {
+            assertEquals(37, resized.getRedAt(x, y));
+            assertEquals(140, resized.getGreenAt(x, y));
+            assertEquals(251, resized.getBlueAt(x, y));
+          }
+        }
+      }
+    }
+  }
+
+  // tests that every filter keeps a flat color flat when each new pixel takes thousands of old
+  // ones, where rounding each weight on its own would lose brightness
+  @Test
+  public void flatColorStaysFlatAtLargeReductions() {
+    for (int color : new int[] {PackedImage.packRGB(255, 255, 255),
+        PackedImage.packRGB(37, 140, 251)}) {
+      for (int width : new int[] {1000, 5000, 20000}) {
+        int[] pixels = new int[width * 2];
+        Arrays.fill(pixels, color);
+        PackedImage flat = new PackedImage(width, 2, pixels);
+        for (ResampleFilter filter : ResampleFilter.values()) {
+          for (int newWidth : new int[] {1, 3}) {
+            ImageInterface resized = new Resample(newWidth, 1, filter).applyEffect(flat);
+            for (int x = 0; x < newWidth; x++) {
+              assertEquals(color, PackedImage.packRGB(resized.getRedAt(x, 0),
+                  resized.getGreenAt(x, 0), resized.getBlueAt(x, 0)));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  // tests that shrinking a checkerboard of single pixels a lot gives gray rather than picking
+  // out only the black or only the white pixels
+  @Test
+  public void largeReductionDoesNotAlias() {
+    int[] pixels = new int[64 * 64];
+    for (int x = 0; x < 64; x++) {
+      for (int y = 0; y < 64; y++) {
+        pixels[y * 64 + x] = (x + y) % 2 == 0 ? 0xFFFFFF : 0;
+      }
+    }
+    PackedImage checkers = new PackedImage(64, 64, pixels);
+    for (ResampleFilter filter : ResampleFilter.values()) {
+      ImageInterface small = new Resample(8, 8, filter).applyEffect(checkers);
+      for (int x = 0; x < 8; x++) {
+        for (int y = 0; y < 8; y++) {
+          assertTrue(Math.abs(small.getRedAt(x, y) - 128) <= 16);
+        }
+      }
+    }
+  }
+
+  // tests that growing with the box filter repeats each pixel
+  @Test
+  public void boxUpscaleRepeatsPixels() {
+    ImageInterface big = new Resample(97 * 3, 61 * 2, ResampleFilter.BOX)
+        .applyEffect(this.randomImage);
+    for (int x = 0; x < 97 * 3; x++) {
+      for (int y = 0; y < 61 * 2; y++) {
+        assertEquals(this.randomImage.getRedAt(x / 3, y / 2), big.getRedAt(x, y));
+        assertEquals(this.randomImage.getBlueAt(x / 3, y / 2), big.getBlueAt(x, y));
+      }
+    }
+  }
+
+  // tests that bilinear growing lands halfway between two pixels in between them
+  @Test
+  public void bilinearUpscaleBlends() {
+    PackedImage img = new PackedImage(2, 1, new int[] {0, PackedImage.packRGB(200, 200, 200)});
+    ImageInterface big = new Resample(4, 1, ResampleFilter.BILINEAR).applyEffect(img);
+    assertEquals(0, big.getRedAt(0, 0));
+    assertEquals(50, big.getRedAt(1, 0));
+    assertEquals(150, big.getRedAt(2, 0));
+    assertEquals(200, big.getRedAt(3, 0));
+  }
+
+  // tests that resampling to the same size gives back the same image
+  @Test
+  public void sameSizeUnchanged() {
+    assertSame(this.randomImage,
+        new Resample(97, 61, ResampleFilter.LANCZOS3).applyEffect(this.randomImage));
+  }
+
+  // tests that resampling on several threads gives the same image as on one
+  @Test
+  public void parallelMatchesSerial() {
+    FilterEngine previous = FilterEngine.getDefault();
+    try {
+      FilterEngine.setDefault(new FilterEngine(1));
+      ImageInterface serial = new Resample(301, 187, ResampleFilter.BICUBIC)
+          .applyEffect(this.randomImage);
+      FilterEngine.setDefault(new FilterEngine(4));
+      ImageInterface parallel = new Resample(301, 187, ResampleFilter.BICUBIC)
+          .applyEffect(this.randomImage);
+      assertEquals(serial, parallel);
+    } finally {
+      FilterEngine.setDefault(previous);
+    }
+  }
+
+  // tests that resample is applied to every layer
+  @Test
+  public void appliesToAllLayers() {
+    IEffect resample = new Resample(3, 3, ResampleFilter.BILINEAR);
+    assertTrue(resample.determineApplyToAllStatus());
+  }
+
+  // tests that the weights of each filter are one at the center and zero past the radius
+  @Test
+  public void filterWeights() {
+    for (ResampleFilter filter : ResampleFilter.values()) {
+      assertEquals(1.0, filter.weight(0.0), 1e-9);
+      assertEquals(0.0, filter.weight(filter.getRadius() + 0.01), 1e-9);
+    }
+    assertEquals(0.0, ResampleFilter.LANCZOS3.weight(1.0), 1e-9);
+    assertEquals(0.0, ResampleFilter.BICUBIC.weight(1.0), 1e-9);
+  }
+
+  // tests that filters are found by their names in any case
+  @Test
+  public void filterNames() {
+    assertEquals(ResampleFilter.BOX, ResampleFilter.fromName("box"));
+    assertEquals(ResampleFilter.BOX, ResampleFilter.fromName("Area"));
+    assertEquals(ResampleFilter.BILINEAR, ResampleFilter.fromName("bilinear"));
+    assertEquals(ResampleFilter.BICUBIC, ResampleFilter.fromName("BICUBIC"));
+    assertEquals(ResampleFilter.LANCZOS3, ResampleFilter.fromName("lanczos"));
+    assertEquals(ResampleFilter.LANCZOS3, ResampleFilter.fromName("lanczos3"));
+  }
+
+  // tests that an exception is thrown for a filter name that does not exist
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownFilterName() {
+    ResampleFilter.fromName("nearest");
+  }
+
+  // tests that an exception is thrown when a new size is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroSize() {
+    new Resample(0, 4, ResampleFilter.BOX);
+  }
+
+  // tests that an exception is thrown when the filter is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullFilter() {
+    new Resample(4, 4, null);
+  }
+
+  // tests that an exception is thrown when the image is null
+  @Test(expected = IllegalArgumentException.class)
+  public void nullImage() {
+    new Resample(4, 4, ResampleFilter.BOX).applyEffect(null);
+  }
+}
@@ -146,6 +146,41 @@ public class SeedPosnAndComparatorTest {
     assertEquals(60, this.testSeed.getFinalBlueVal());
   }
 
+  // tests that adding whole colors averages the same as adding each value on its own
+  @Test
+  public void addColorMatchesAddingEachValue() {
+    this.testSeed.addColor(10, 81, 30);
+    this.testSeed.addColor(20, 120, 40);
+    this.testSeed.addColor(30, 255, 110);
+    this.testSeed.setAverages();
+    assertEquals(20, this.testSeed.getFinalRedVal());
+    assertEquals(152, this.testSeed.getFinalGreenVal());
+    assertEquals(60, this.testSeed.getFinalBlueVal());
+  }
+
+  // tests that adding the sums of several pixels at once averages the same as adding each pixel
+  @Test
+  public void addColorsMergesSums() {
+    this.testSeed.addColor(10, 81, 30);
+    this.testSeed.addColors(50, 375, 150, 2);
+    this.testSeed.setAverages();
+    assertEquals(20, this.testSeed.getFinalRedVal());
+    assertEquals(152, this.testSeed.getFinalGreenVal());
+    assertEquals(60, this.testSeed.getFinalBlueVal());
+  }
+
+  // tests that the sums do not overflow when a seed is closest to a very large number of pixels
+  @Test
+  public void setAveragesManyPixels() {
+    for (int i = 0; i < 20000000; i++) {
+      this.testSeed.addColor(255, 254, 253);
+    }
+    this.testSeed.setAverages();
+    assertEquals(255, this.testSeed.getFinalRedVal());
+    assertEquals(254, this.testSeed.getFinalGreenVal());
+    assertEquals(253, this.testSeed.getFinalBlueVal());
+  }
+
   /*
   Tests for getFinalRedVal
    */
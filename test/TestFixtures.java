@@ -0,0 +1,115 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import model.filters.IFilter;
+import model.image.Image;
+import model.image.PackedImage;
+
+/**
+ * Images, files, folders, and checks shared by the test classes, so that each of them does not
+ * create its own copy of the same fixtures.
+ */
+public final class TestFixtures {
+
+  private TestFixtures() {
+  }
+
+  /**
+   * Creates an image of random colors, which is the same every time for the same seed.
+   *
+   * @param width the width of the image
+   * @param height the height of the image
+   * @param seed the seed of the random colors
+   * @return the image
+   */
+  public static PackedImage noise(int width, int height, long seed) {
+    Random rand = new Random(seed);
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = PackedImage.packRGB(rand.nextInt(256), rand.nextInt(256), rand.nextInt(256));
+    }
+    return new PackedImage(width, height, pixels);
+  }
+
+  /**
+   * Creates an image whose pixels are all different colors, without any randomness.
+   *
+   * @param width the width of the image
+   * @param height the height of the image
+   * @return the image
+   */
+  public static PackedImage colorful(int width, int height) {
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = i * 104729 & 0xFFFFFF;
+    }
+    return new PackedImage(width, height, pixels);
+  }
+
+  /**
+   * Creates a temporary file that is deleted when the tests finish.
+   *
+   * @param prefix the start of the name of the file
+   * @param suffix the end of the name of the file, such as its extension
+   * @return the file
+   * @throws IOException if the file can not be created
+   */
+  public static File tempFile(String prefix, String suffix) throws IOException {
+    File file = File.createTempFile(prefix, suffix);
+    file.deleteOnExit();
+    return file;
+  }
+
+  /**
+   * Deletes a folder and the files in it.
+   *
+   * @param folder the folder to delete
+   */
+  public static void deleteFolder(File folder) {
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    folder.delete();
+  }
+
+  /**
+   * Filters an image one pixel at a time using newColorValsAt.
+   *
+   * @param filter the filter to apply
+   * @param img the image to filter
+   * @return the filtered pixels in row-major order
+   */
+  public static int[] filterPerPixel(IFilter filter, PackedImage img) {
+    int width = img.getImageWidth();
+    int height = img.getImageHeight();
+    int[] expected = new int[width * height];
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        List<Integer> vals = filter.newColorValsAt(x, y, img);
+        expected[y * width + x] = PackedImage.packRGB(Image.clamp(vals.get(0)),
+            Image.clamp(vals.get(1)), Image.clamp(vals.get(2)));
+      }
+    }
+    return expected;
+  }
+
+  /**
+   * Checks that filtering a whole image at once with the bulk apply method gives the same pixels
+   * as filtering it one pixel at a time.
+   *
+   * @param filter the filter to apply
+   * @param img the image to filter
+   */
+  public static void assertBulkMatchesPerPixel(IFilter filter, PackedImage img) {
+    int[] actual = new int[img.getPixels().length];
+    filter.apply(img, actual);
+    assertEquals(Arrays.toString(filterPerPixel(filter, img)), Arrays.toString(actual));
+  }
+}